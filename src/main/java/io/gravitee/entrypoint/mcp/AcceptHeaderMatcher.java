@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp;
+
+import static io.gravitee.common.http.MediaType.APPLICATION_JSON;
+import static io.gravitee.common.http.MediaType.TEXT_EVENT_STREAM;
+
+/**
+ * Allocation-free matching of the <code>Accept</code> header of MCP requests.
+ */
+final class AcceptHeaderMatcher {
+
+    private static final int NONE = 0;
+    private static final int EVENT_STREAM = 1;
+    private static final int JSON = 2;
+
+    private AcceptHeaderMatcher() {}
+
+    /**
+     * Checks that an <code>Accept</code> header accepts both <code>text/event-stream</code> and <code>application/json</code>.
+     */
+    static boolean acceptsEventStreamAndJson(String accept) {
+        return accepted(accept) == (EVENT_STREAM | JSON);
+    }
+
+    /**
+     * Checks that an <code>Accept</code> header accepts <code>text/event-stream</code>.
+     */
+    static boolean acceptsEventStream(String accept) {
+        return (accepted(accept) & EVENT_STREAM) != 0;
+    }
+
+    /**
+     * Media ranges are separated by commas, semicolons being tolerated as separators too as some clients use them.
+     * A <code>q=0</code> parameter excludes the media range it follows.
+     *
+     * @return the flags of the accepted media types among <code>text/event-stream</code> and <code>application/json</code>.
+     */
+    private static int accepted(String accept) {
+        boolean eventStream = false;
+        boolean json = false;
+        int lastMediaRange = NONE;
+
+        int length = accept.length();
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            char c;
+            while (end < length && (c = accept.charAt(end)) != ',' && c != ';') {
+                end++;
+            }
+
+            int tokenStart = start;
+            int tokenEnd = end;
+            while (tokenStart < tokenEnd && Character.isWhitespace(accept.charAt(tokenStart))) {
+                tokenStart++;
+            }
+            while (tokenEnd > tokenStart && Character.isWhitespace(accept.charAt(tokenEnd - 1))) {
+                tokenEnd--;
+            }
+
+            if (isToken(accept, tokenStart, tokenEnd, TEXT_EVENT_STREAM)) {
+                eventStream = true;
+                lastMediaRange = EVENT_STREAM;
+            } else if (isToken(accept, tokenStart, tokenEnd, APPLICATION_JSON)) {
+                json = true;
+                lastMediaRange = JSON;
+            } else if (isZeroQuality(accept, tokenStart, tokenEnd)) {
+                if (lastMediaRange == EVENT_STREAM) {
+                    eventStream = false;
+                } else if (lastMediaRange == JSON) {
+                    json = false;
+                }
+            } else if (!isParameter(accept, tokenStart, tokenEnd)) {
+                lastMediaRange = NONE;
+            }
+            start = end + 1;
+        }
+        return (eventStream ? EVENT_STREAM : NONE) | (json ? JSON : NONE);
+    }
+
+    private static boolean isToken(String accept, int start, int end, String token) {
+        return end - start == token.length() && accept.regionMatches(true, start, token, 0, token.length());
+    }
+
+    private static boolean isParameter(String accept, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (accept.charAt(i) == '=') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the token is a <code>q</code> parameter with a zero value, such as <code>q=0</code> or <code>q=0.000</code>.
+     */
+    private static boolean isZeroQuality(String accept, int start, int end) {
+        if (end - start < 3 || (accept.charAt(start) != 'q' && accept.charAt(start) != 'Q') || accept.charAt(start + 1) != '=') {
+            return false;
+        }
+        int i = start + 2;
+        if (accept.charAt(i++) != '0') {
+            return false;
+        }
+        if (i < end && accept.charAt(i++) != '.') {
+            return false;
+        }
+        while (i < end) {
+            if (accept.charAt(i++) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -15,9 +15,6 @@
  */
 package io.gravitee.entrypoint.mcp;
 
-import static io.gravitee.common.http.MediaType.APPLICATION_JSON;
-import static io.gravitee.common.http.MediaType.TEXT_EVENT_STREAM;
-
 import com.fasterxml.jackson.core.JsonProcessingException;
 import io.gravitee.common.http.HttpMethod;
 import io.gravitee.entrypoint.mcp.configuration.MCPEntrypointConnectorConfiguration;
@@ -45,6 +42,8 @@ public class MCPEntrypointConnector extends HttpEntrypointSyncConnector {
 
     private final MCPEntrypointConnectorConfiguration configuration;
     private final MCPHandler mcpHandler;
+    private final String mcpPath;
+    private final boolean supportsSessionStream;
 
     public MCPEntrypointConnector(MCPEntrypointConnectorConfiguration configuration, MCPHandler mcpHandler) throws JsonProcessingException {
         if (configuration == null) {
@@ -54,6 +53,12 @@ public class MCPEntrypointConnector extends HttpEntrypointSyncConnector {
         }
 
         this.mcpHandler = mcpHandler;
+        this.mcpPath = this.configuration.getMcpPath().startsWith("/")
+            ? this.configuration.getMcpPath()
+            : "/" + this.configuration.getMcpPath();
+        // The session stream only carries notifications of resource updates
+        this.supportsSessionStream =
+            this.configuration.getResourceSubscriptionInterval() > 0 && !this.configuration.getResources().isEmpty();
     }
 
     @Override
@@ -74,6 +79,7 @@ public class MCPEntrypointConnector extends HttpEntrypointSyncConnector {
     @Override
     public int matchCriteriaCount() {
         // Accept = text/event-stream, application/json and Method = POST and  Path = /context-path/mcp
+        // or, for the session stream, Accept = text/event-stream and Method = GET and Path = /context-path/mcp
         return 3;
     }
 
@@ -83,12 +89,17 @@ public class MCPEntrypointConnector extends HttpEntrypointSyncConnector {
         if (acceptHeader == null || acceptHeader.isBlank()) {
             return false;
         }
-        return (
-            acceptHeader.contains(TEXT_EVENT_STREAM) &&
-            acceptHeader.contains(APPLICATION_JSON) &&
-            HttpMethod.POST == ctx.request().method() &&
-            ctx.request().path().equals(getActualMcpPath(ctx))
-        );
+        HttpMethod method = ctx.request().method();
+        boolean acceptedRequest = method == HttpMethod.POST
+            ? AcceptHeaderMatcher.acceptsEventStreamAndJson(acceptHeader)
+            : method == HttpMethod.GET && supportsSessionStream && AcceptHeaderMatcher.acceptsEventStream(acceptHeader);
+        return acceptedRequest && isMcpPath(ctx.request().path(), ctx.getAttribute(ExecutionContext.ATTR_CONTEXT_PATH));
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+        mcpHandler.close();
     }
 
     @Override
@@ -101,14 +112,19 @@ public class MCPEntrypointConnector extends HttpEntrypointSyncConnector {
         return mcpHandler.handleResponse(ctx);
     }
 
-    private String getActualMcpPath(HttpExecutionContext ctx) {
-        String apiContextPath = ctx.getAttribute(ExecutionContext.ATTR_CONTEXT_PATH);
-        if (apiContextPath.endsWith("/")) {
-            apiContextPath = apiContextPath.substring(0, apiContextPath.length() - 1);
-        }
-        if (!configuration.getMcpPath().startsWith("/")) {
-            return apiContextPath + "/" + configuration.getMcpPath();
+    /**
+     * Checks that the path is the API context path, without its trailing slash, followed by the MCP path without building
+     * the expected path.
+     */
+    private boolean isMcpPath(String path, String apiContextPath) {
+        if (path == null || apiContextPath == null) {
+            return false;
         }
-        return apiContextPath + configuration.getMcpPath();
+        int contextPathLength = apiContextPath.endsWith("/") ? apiContextPath.length() - 1 : apiContextPath.length();
+        return (
+            path.length() == contextPathLength + mcpPath.length() &&
+            path.regionMatches(0, apiContextPath, 0, contextPathLength) &&
+            path.startsWith(mcpPath, contextPathLength)
+        );
     }
 }
@@ -33,8 +33,175 @@ public class MCPEntrypointConnectorConfiguration implements EntrypointConnectorC
      */
     private List<MCPTool> tools = new ArrayList<>();
 
+    /**
+     * Contains the resources definition.
+     */
+    private List<MCPResource> resources = new ArrayList<>();
+
+    /**
+     * Contains the prompts definition.
+     */
+    private List<MCPPrompt> prompts = new ArrayList<>();
+
+    /**
+     * Whether <code>tools/list</code> only returns the {@link #pinnedTools} and a <code>search_tools</code> tool finding the
+     * other ones, for APIs with too many tools to send them all to the model.
+     */
+    private boolean toolSearchEnabled = false;
+
+    /**
+     * Names of the tools always returned by <code>tools/list</code> when the tool search is enabled.
+     */
+    private List<String> pinnedTools = new ArrayList<>();
+
+    /**
+     * Maximum number of tools returned by a search.
+     */
+    private int toolSearchLimit = 10;
+
+    /**
+     * Ids of the plans whose consumers only see and call the tools annotated as read-only.
+     */
+    private List<String> readOnlyPlans = new ArrayList<>();
+
     /**
      * The MCP path for an AI agent.
      */
     private String mcpPath = "/mcp";
+
+    /**
+     * Maximum size in bytes of an MCP request body. Larger requests are rejected with a JSON-RPC error as soon as the limit
+     * is reached, without buffering the rest of the body. A value of 0 disables the limit.
+     */
+    private long maxRequestSize = 0;
+
+    /**
+     * Interval in milliseconds between two <code>notifications/progress</code> sent for a <code>tools/call</code> of a composite tool
+     * carrying a progress token, reporting the completed calls, the bytes received and the elapsed time. Only composite tools report
+     * progress: a call of a tool mapped to the API goes through the invoker, which only hands the response over once the upstream
+     * answered, so its progress token is ignored. A value of 0 disables progress notifications.
+     */
+    private long progressNotificationInterval = 5000;
+
+    /**
+     * Maximum time-to-live in milliseconds of a task created for a tool supporting task execution. It bounds the time-to-live
+     * requested by the client.
+     */
+    private long taskTtl = 300000;
+
+    /**
+     * Polling interval in milliseconds suggested to the client for a task.
+     */
+    private long taskPollInterval = 5000;
+
+    /**
+     * Maximum number of tasks kept in memory, the eldest being evicted first.
+     */
+    private int maxTasks = 1000;
+
+    /**
+     * Whether JSON-RPC responses can be compressed according to the <code>Accept-Encoding</code> header of the client.
+     */
+    private boolean compressionEnabled = false;
+
+    /**
+     * Minimum size in bytes of a JSON-RPC response to be compressed.
+     */
+    private int compressionThreshold = 1024;
+
+    /**
+     * <code>Content-Length</code> in bytes of an upstream text response from which the tool result is streamed to the client
+     * as it is received, rather than aggregated first. Streamed results are neither compressed nor kept for revalidation or
+     * replays. A value of 0 disables streaming.
+     */
+    private long responseStreamingThreshold = 0;
+
+    /**
+     * Maximum number of read-only tool results kept to be revalidated with the upstream using <code>If-None-Match</code> or
+     * <code>If-Modified-Since</code>. A result is only served again to the same plan, application and subscription presenting the
+     * same credentials. A value of 0 disables revalidation.
+     */
+    private int revalidationCacheSize = 0;
+
+    /**
+     * Time-to-live in milliseconds of a read-only tool result kept for revalidation.
+     */
+    private long revalidationCacheTtl = 3600000;
+
+    /**
+     * Time-to-live in milliseconds of the response of a call to a tool that is not read-only, replayed to the retries of the
+     * call with the same session, JSON-RPC id, arguments, consumer and credentials instead of calling the API again. A retry
+     * waits for the original call at most this long. A value of 0 disables replays.
+     */
+    private long replayCacheTtl = 0;
+
+    /**
+     * Maximum number of tool call responses kept to be replayed.
+     */
+    private int replayCacheSize = 1000;
+
+    /**
+     * Whether a read-only tool call the upstream did not answer within the usual latency of the tool is sent a second time,
+     * the first response being kept, that of the hedge only when successful, and the other request cancelled. The call is
+     * invoked through the endpoint, while the hedge is sent directly to the target of the endpoint with the credentials of the AI
+     * agent, without the policies of the flows: hedging only suits plain HTTP targets.
+     */
+    private boolean hedgingEnabled = false;
+
+    /**
+     * Percentile of the latency of the recent calls of a tool after which its call is hedged.
+     */
+    private int hedgingPercentile = 95;
+
+    /**
+     * Maximum share in percent of the read-only tool calls that can be hedged.
+     */
+    private int hedgingBudget = 5;
+
+    /**
+     * Duration in milliseconds above which a <code>tools/call</code> is logged with the time spent in each of its phases.
+     * The phases are only written to the gateway log, no tracing span is emitted. A value of 0 disables the slow call log.
+     */
+    private long slowCallThreshold = 0;
+
+    /**
+     * Time-to-live in milliseconds during which the content of a resource is served from memory. Once expired, it is
+     * revalidated with the upstream when it has an <code>ETag</code> or a <code>Last-Modified</code> date. A value of 0
+     * disables the cache.
+     */
+    private long resourceCacheTtl = 300000;
+
+    /**
+     * Maximum number of resource contents kept in memory.
+     */
+    private int resourceCacheSize = 100;
+
+    /**
+     * Interval in milliseconds at which a resource is polled while sessions are subscribed to it, to notify them when its
+     * content changes. A value of 0 disables subscriptions.
+     */
+    private long resourceSubscriptionInterval = 30000;
+
+    /**
+     * Delay in milliseconds within which a session subscribed to a resource must open its stream, after which its subscriptions
+     * are dropped.
+     */
+    private long resourceSubscriptionStreamTimeout = 60000;
+
+    /**
+     * Time-to-live in milliseconds of the argument values completed by an API call. A value of 0 disables the cache.
+     */
+    private long completionCacheTtl = 60000;
+
+    /**
+     * Maximum number of argument completions kept in memory.
+     */
+    private int completionCacheSize = 1000;
+
+    /**
+     * Timeout in milliseconds to connect to the API and between two reads of its response, for the requests the entrypoint
+     * sends on its own rather than through the invoker of the gateway: the calls of composite tools, hedged requests, argument
+     * completions and resource polls.
+     */
+    private long upstreamTimeout = 10000;
 }
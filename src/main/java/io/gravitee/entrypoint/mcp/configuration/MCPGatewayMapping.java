@@ -27,4 +27,9 @@ import lombok.NoArgsConstructor;
 public class MCPGatewayMapping {
 
     private MCPGatewayMappingHttp http;
+
+    /**
+     * Several HTTP calls made concurrently for a single tool call, used instead of {@link #http} when defined.
+     */
+    private MCPGatewayMappingComposite composite;
 }
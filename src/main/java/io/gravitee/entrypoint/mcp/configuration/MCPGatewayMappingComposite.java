@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.configuration;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Maps a tool call to several HTTP calls made concurrently, their results being merged under their key. The calls are sent by
+ * the entrypoint straight to the target: they do not go through the flows and policies of the API nor its endpoint settings
+ * (SSL, proxy, load balancing). Only the credentials of the AI agent are forwarded.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Data
+public class MCPGatewayMappingComposite {
+
+    /**
+     * Base URL of the calls. Defaults to the target of the first endpoint of the API.
+     */
+    private String target;
+
+    /**
+     * Maximum duration in milliseconds of each call.
+     */
+    @Builder.Default
+    private long timeout = 10000;
+
+    @Builder.Default
+    private List<MCPGatewayMappingCompositeCall> calls = List.of();
+}
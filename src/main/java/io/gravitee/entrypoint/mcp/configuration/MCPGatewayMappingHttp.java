@@ -33,4 +33,10 @@ public class MCPGatewayMappingHttp {
     private List<String> pathParams = List.of();
     private List<String> queryParams = List.of();
     private List<String> headers = List.of();
+
+    /**
+     * Sends an argument as binary data rather than the <code>bodySchema</code> argument as JSON, <code>null</code> if the tool does
+     * not upload any.
+     */
+    private MCPGatewayMappingUpload upload;
 }
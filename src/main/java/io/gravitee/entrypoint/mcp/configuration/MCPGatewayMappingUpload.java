@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.configuration;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Sends the base64 content of an argument to the backend as binary data, in place of the <code>bodySchema</code> argument.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Data
+public class MCPGatewayMappingUpload {
+
+    @Builder.Default
+    private MCPGatewayMappingUploadMode mode = MCPGatewayMappingUploadMode.MULTIPART;
+
+    /**
+     * Argument holding the base64 content.
+     */
+    private String argument;
+
+    /**
+     * Name of the file part of a multipart body.
+     */
+    @Builder.Default
+    private String partName = "file";
+
+    /**
+     * Argument holding the file name of the file part, if any.
+     */
+    private String fileNameArgument;
+
+    /**
+     * Media type of the content.
+     */
+    @Builder.Default
+    private String mediaType = "application/octet-stream";
+
+    /**
+     * Arguments sent as the text fields of a multipart body.
+     */
+    @Builder.Default
+    private List<String> fields = List.of();
+}
@@ -15,6 +15,7 @@
  */
 package io.gravitee.entrypoint.mcp.configuration;
 
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -28,4 +29,21 @@ public class MCPTool {
 
     private MCPToolDefinition toolDefinition;
     private MCPGatewayMapping gatewayMapping;
+
+    /**
+     * Optional projection applied to the upstream JSON response before it is returned to the client.
+     */
+    private MCPToolProjection projection;
+
+    /**
+     * Optional API calls completing the values of some arguments, in place of the values found in the input schema.
+     */
+    @Builder.Default
+    private List<MCPToolArgumentCompletion> argumentCompletions = List.of();
+
+    /**
+     * Ids of the plans whose consumers can see and call the tool. The tool is visible to every plan when empty.
+     */
+    @Builder.Default
+    private List<String> plans = List.of();
 }
@@ -32,4 +32,5 @@ public class MCPToolDefinition {
     private JsonNode inputSchema;
     private JsonNode outputSchema;
     private MCPToolAnnotations annotations;
+    private MCPToolExecution execution;
 }
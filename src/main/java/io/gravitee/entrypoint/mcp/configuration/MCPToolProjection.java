@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.configuration;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fields of the upstream JSON response kept in the tool result, as JSON pointers (e.g. <code>/items/*&#47;id</code>) where
+ * <code>*</code> matches any field or array element. A field name without leading slash is a top-level field.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Data
+public class MCPToolProjection {
+
+    /**
+     * Pointers to the values to keep. Everything is kept when empty.
+     */
+    @Builder.Default
+    private List<String> include = List.of();
+
+    /**
+     * Pointers to the values to remove, applied after {@link #include}.
+     */
+    @Builder.Default
+    private List<String> exclude = List.of();
+}
@@ -23,5 +23,5 @@ import lombok.NoArgsConstructor;
 public abstract class JsonRPC {
 
     private String jsonrpc = "2.0";
-    private Integer id;
+    private JsonRPCId id;
 }
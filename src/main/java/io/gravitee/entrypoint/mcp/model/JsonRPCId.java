@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+
+/**
+ * Id of a JSON-RPC request kept as the JSON token sent by the client, a string or a number of any size, and written back as
+ * is in the responses. Its UTF-8 bytes are encoded once, on first use.
+ */
+@JsonSerialize(using = JsonRPCId.Serializer.class)
+@JsonDeserialize(using = JsonRPCId.Deserializer.class)
+public final class JsonRPCId {
+
+    /**
+     * Id of the responses to a request whose id could not be read.
+     */
+    public static final JsonRPCId NULL = new JsonRPCId("null");
+
+    private final SerializedString token;
+
+    private JsonRPCId(String token) {
+        this.token = new SerializedString(token);
+    }
+
+    /**
+     * @return the id of a request, or <code>null</code> when the node is neither a string, a number nor <code>null</code>.
+     */
+    public static JsonRPCId of(JsonNode idNode) {
+        if (idNode == null || idNode.isNull()) {
+            return NULL;
+        }
+        if (!idNode.isTextual() && !idNode.isNumber()) {
+            return null;
+        }
+        return new JsonRPCId(idNode.toString());
+    }
+
+    public static JsonRPCId of(long id) {
+        return new JsonRPCId(Long.toString(id));
+    }
+
+    /**
+     * @return the UTF-8 bytes of the JSON token, which must not be modified.
+     */
+    public byte[] bytes() {
+        return token.asUnquotedUTF8();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof JsonRPCId otherId && token.getValue().equals(otherId.token.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+        return token.getValue().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return token.getValue();
+    }
+
+    public static class Serializer extends StdSerializer<JsonRPCId> {
+
+        public Serializer() {
+            super(JsonRPCId.class);
+        }
+
+        @Override
+        public void serialize(JsonRPCId id, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeRawValue(id.token);
+        }
+    }
+
+    public static class Deserializer extends StdDeserializer<JsonRPCId> {
+
+        public Deserializer() {
+            super(JsonRPCId.class);
+        }
+
+        @Override
+        public JsonRPCId deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return JsonRPCId.of(context.readTree(parser));
+        }
+
+        @Override
+        public JsonRPCId getNullValue(DeserializationContext context) {
+            return NULL;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.model.call;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import io.gravitee.gateway.api.buffer.Buffer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import java.io.IOException;
+
+/**
+ * Writes a {@link Buffer} as a base64 string, encoding it directly from the underlying Netty buffer to the generator output
+ * so that neither a copy of the bytes nor the encoded string is materialized.
+ */
+public class Base64BufferSerializer extends StdSerializer<Buffer> {
+
+    public Base64BufferSerializer() {
+        super(Buffer.class);
+    }
+
+    @Override
+    public void serialize(Buffer buffer, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        Object nativeBuffer = buffer.getNativeBuffer();
+        if (nativeBuffer instanceof ByteBuf byteBuf) {
+            // Duplicate so that reading does not move the indexes of the original buffer
+            ByteBuf source = byteBuf.duplicate();
+            generator.writeBinary(new ByteBufInputStream(source), source.readableBytes());
+        } else {
+            generator.writeBinary(buffer.getBytes());
+        }
+    }
+}
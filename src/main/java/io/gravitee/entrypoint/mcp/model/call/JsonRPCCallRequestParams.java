@@ -16,7 +16,10 @@
 package io.gravitee.entrypoint.mcp.model.call;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.gravitee.entrypoint.mcp.model.JsonRPCRequestMeta;
 import io.gravitee.entrypoint.mcp.model.JsonRPCRequestParams;
+import io.gravitee.entrypoint.mcp.model.task.JsonRPCTaskMetadata;
 import java.util.Map;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -30,4 +33,9 @@ public class JsonRPCCallRequestParams extends JsonRPCRequestParams {
 
     private String name;
     private Map<String, Object> arguments;
+
+    @JsonProperty("_meta")
+    private JsonRPCRequestMeta meta;
+
+    private JsonRPCTaskMetadata task;
 }
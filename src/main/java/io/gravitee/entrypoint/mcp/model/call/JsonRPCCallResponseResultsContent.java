@@ -15,6 +15,8 @@
  */
 package io.gravitee.entrypoint.mcp.model.call;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.gravitee.gateway.api.buffer.Buffer;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -28,4 +30,13 @@ public class JsonRPCCallResponseResultsContent {
 
     private String type;
     private String text;
+
+    /**
+     * Base64-encoded data of an <code>image</code> or <code>audio</code> content.
+     */
+    @JsonSerialize(using = Base64BufferSerializer.class)
+    private Buffer data;
+
+    private String mimeType;
+    private JsonRPCCallResponseResultsResource resource;
 }
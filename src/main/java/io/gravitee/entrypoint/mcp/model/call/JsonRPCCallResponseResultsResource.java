@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.model.call;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.gravitee.gateway.api.buffer.Buffer;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Binary resource embedded in a <code>resource</code> content.
+ */
+@Data
+@NoArgsConstructor
+@Builder
+@AllArgsConstructor
+public class JsonRPCCallResponseResultsResource {
+
+    private String uri;
+    private String mimeType;
+
+    @JsonSerialize(using = Base64BufferSerializer.class)
+    private Buffer blob;
+}
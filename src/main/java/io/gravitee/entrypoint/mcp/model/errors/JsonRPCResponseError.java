@@ -16,6 +16,7 @@
 package io.gravitee.entrypoint.mcp.model.errors;
 
 import io.gravitee.entrypoint.mcp.model.JsonRPC;
+import io.gravitee.entrypoint.mcp.model.JsonRPCId;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -27,7 +28,7 @@ public class JsonRPCResponseError extends JsonRPC {
 
     JsonRPCError error;
 
-    public static JsonRPCResponseError newError(Integer id, McpErrorCodes error, String reason) {
+    public static JsonRPCResponseError newError(JsonRPCId id, McpErrorCodes error, String reason) {
         JsonRPCResponseError rpcResponseError = new JsonRPCResponseError();
         rpcResponseError.setId(id);
         JsonRPCError rpcError = new JsonRPCError();
@@ -23,7 +23,8 @@ public enum McpErrorCodes {
     INVALID_REQUEST(-32600, "Invalid request"),
     METHOD_NOT_FOUND(-32601, "Method not found"),
     INVALID_PARAMS(-32602, "Invalid params"),
-    INTERNAL_ERROR(-32603, "Internal server error");
+    INTERNAL_ERROR(-32603, "Internal server error"),
+    RESOURCE_NOT_FOUND(-32002, "Resource not found");
 
     private final int code;
     private final String message;
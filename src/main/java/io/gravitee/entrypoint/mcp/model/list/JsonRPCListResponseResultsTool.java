@@ -17,6 +17,7 @@ package io.gravitee.entrypoint.mcp.model.list;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import io.gravitee.entrypoint.mcp.configuration.MCPToolAnnotations;
+import io.gravitee.entrypoint.mcp.configuration.MCPToolExecution;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -33,4 +34,5 @@ public class JsonRPCListResponseResultsTool {
     private JsonNode inputSchema;
     private JsonNode outputSchema;
     private MCPToolAnnotations annotations;
+    private MCPToolExecution execution;
 }
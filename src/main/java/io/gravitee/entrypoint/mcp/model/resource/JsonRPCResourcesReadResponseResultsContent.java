@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.model.resource;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.gravitee.entrypoint.mcp.model.call.Base64BufferSerializer;
+import io.gravitee.gateway.api.buffer.Buffer;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Content of a resource, either as <code>text</code> or as a base64 encoded binary <code>blob</code>.
+ */
+@Builder
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class JsonRPCResourcesReadResponseResultsContent {
+
+    private String uri;
+    private String mimeType;
+    private String text;
+
+    @JsonSerialize(using = Base64BufferSerializer.class)
+    private Buffer blob;
+}
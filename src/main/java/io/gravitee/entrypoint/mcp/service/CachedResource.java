@@ -0,0 +1,39 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service;
+
+/**
+ * Serialized <code>resources/read</code> result of a resource, served from memory until it expires then revalidated with
+ * the upstream when it carries validators.
+ *
+ * @param etag the <code>ETag</code> of the upstream response, may be <code>null</code>.
+ * @param lastModified the <code>Last-Modified</code> date of the upstream response, may be <code>null</code>.
+ * @param response the serialized <code>resources/read</code> response.
+ * @param freshUntil the {@link System#nanoTime()} until which the resource is served without calling the upstream.
+ */
+record CachedResource(String etag, String lastModified, PreSerializedResponse response, long freshUntil) {
+    boolean isFresh() {
+        return System.nanoTime() - freshUntil < 0;
+    }
+
+    boolean canBeRevalidated() {
+        return etag != null || lastModified != null;
+    }
+
+    CachedResource refresh(long ttlNanos) {
+        return new CachedResource(etag, lastModified, response, System.nanoTime() + ttlNanos);
+    }
+}
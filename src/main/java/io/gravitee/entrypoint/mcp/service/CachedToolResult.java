@@ -0,0 +1,28 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service;
+
+import io.gravitee.entrypoint.mcp.model.call.JsonRPCCallResponseResults;
+
+/**
+ * Last representation of a read-only tool result along with the validators sent by the upstream to revalidate it.
+ *
+ * @param etag the <code>ETag</code> of the upstream response, may be <code>null</code>.
+ * @param lastModified the <code>Last-Modified</code> date of the upstream response, may be <code>null</code>.
+ * @param results the formatted tool result.
+ * @param response the serialized tool response, served again as is when the upstream answers <code>304 Not Modified</code>.
+ */
+record CachedToolResult(String etag, String lastModified, JsonRPCCallResponseResults results, PreSerializedResponse response) {}
@@ -15,47 +15,121 @@
  */
 package io.gravitee.entrypoint.mcp.service;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.gravitee.common.http.HttpMethod;
 import io.gravitee.common.http.MediaType;
 import io.gravitee.common.util.MultiValueMap;
 import io.gravitee.entrypoint.mcp.configuration.MCPEntrypointConnectorConfiguration;
+import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMappingComposite;
+import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMappingCompositeCall;
 import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMappingHttp;
+import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMappingUpload;
+import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMappingUploadMode;
+import io.gravitee.entrypoint.mcp.configuration.MCPPrompt;
+import io.gravitee.entrypoint.mcp.configuration.MCPResource;
+import io.gravitee.entrypoint.mcp.configuration.MCPTool;
+import io.gravitee.entrypoint.mcp.configuration.MCPToolAnnotations;
+import io.gravitee.entrypoint.mcp.configuration.MCPToolArgumentCompletion;
+import io.gravitee.entrypoint.mcp.configuration.MCPToolExecution;
+import io.gravitee.entrypoint.mcp.configuration.MCPToolTaskSupport;
+import io.gravitee.entrypoint.mcp.model.JsonRPCId;
+import io.gravitee.entrypoint.mcp.model.SseEvent;
 import io.gravitee.entrypoint.mcp.model.call.JsonRPCCallRequest;
 import io.gravitee.entrypoint.mcp.model.call.JsonRPCCallRequestParams;
 import io.gravitee.entrypoint.mcp.model.call.JsonRPCCallResponse;
 import io.gravitee.entrypoint.mcp.model.call.JsonRPCCallResponseResults;
 import io.gravitee.entrypoint.mcp.model.call.JsonRPCCallResponseResultsContent;
+import io.gravitee.entrypoint.mcp.model.call.JsonRPCCallResponseResultsResource;
+import io.gravitee.entrypoint.mcp.model.completion.JsonRPCCompleteResponseResults;
+import io.gravitee.entrypoint.mcp.model.completion.JsonRPCCompleteResponseResultsCompletion;
 import io.gravitee.entrypoint.mcp.model.errors.JsonRPCResponseError;
 import io.gravitee.entrypoint.mcp.model.errors.McpErrorCodes;
 import io.gravitee.entrypoint.mcp.model.initialize.JsonRPCInitializeResponse;
 import io.gravitee.entrypoint.mcp.model.initialize.JsonRPCInitializeResponseResults;
 import io.gravitee.entrypoint.mcp.model.initialize.JsonRPCInitializeResponseServerInfo;
-import io.gravitee.entrypoint.mcp.model.list.JsonRPCListResponse;
 import io.gravitee.entrypoint.mcp.model.list.JsonRPCListResponseResults;
 import io.gravitee.entrypoint.mcp.model.list.JsonRPCListResponseResultsTool;
+import io.gravitee.entrypoint.mcp.model.prompt.JsonRPCPromptsGetResponseResults;
+import io.gravitee.entrypoint.mcp.model.prompt.JsonRPCPromptsGetResponseResultsMessage;
+import io.gravitee.entrypoint.mcp.model.prompt.JsonRPCPromptsListResponseResults;
+import io.gravitee.entrypoint.mcp.model.prompt.JsonRPCPromptsListResponseResultsPrompt;
+import io.gravitee.entrypoint.mcp.model.prompt.JsonRPCPromptsListResponseResultsPromptArgument;
+import io.gravitee.entrypoint.mcp.model.resource.JsonRPCResourcesListResponseResults;
+import io.gravitee.entrypoint.mcp.model.resource.JsonRPCResourcesListResponseResultsResource;
+import io.gravitee.entrypoint.mcp.model.resource.JsonRPCResourcesReadResponseResults;
+import io.gravitee.entrypoint.mcp.model.resource.JsonRPCResourcesReadResponseResultsContent;
+import io.gravitee.entrypoint.mcp.model.notification.JsonRPCProgressNotification;
+import io.gravitee.entrypoint.mcp.model.notification.JsonRPCProgressNotificationParams;
+import io.gravitee.entrypoint.mcp.model.notification.JsonRPCResourceUpdatedNotification;
+import io.gravitee.entrypoint.mcp.model.notification.JsonRPCResourceUpdatedNotificationParams;
+import io.gravitee.entrypoint.mcp.model.task.JsonRPCCreateTaskResponse;
+import io.gravitee.entrypoint.mcp.model.task.JsonRPCCreateTaskResponseResults;
+import io.gravitee.entrypoint.mcp.model.task.JsonRPCTask;
+import io.gravitee.entrypoint.mcp.model.task.JsonRPCTaskMetadata;
+import io.gravitee.entrypoint.mcp.model.task.JsonRPCTaskResponse;
+import io.gravitee.entrypoint.mcp.model.task.JsonRPCTaskResponseResults;
+import io.gravitee.entrypoint.mcp.service.cache.BoundedTtlCache;
+import io.gravitee.entrypoint.mcp.service.completion.CompletionIndex;
+import io.gravitee.entrypoint.mcp.service.completion.CompletionRequest;
+import io.gravitee.entrypoint.mcp.service.completion.PrefixIndex;
+import io.gravitee.entrypoint.mcp.service.compression.ContentEncoding;
+import io.gravitee.entrypoint.mcp.service.compression.ResponseCompressor;
+import io.gravitee.entrypoint.mcp.service.hedging.HedgingBudget;
+import io.gravitee.entrypoint.mcp.service.hedging.LatencyTracker;
+import io.gravitee.entrypoint.mcp.service.hedging.RequestHedger;
+import io.gravitee.entrypoint.mcp.service.json.MCPJson;
+import io.gravitee.entrypoint.mcp.service.projection.JsonProjection;
+import io.gravitee.entrypoint.mcp.service.prompt.CompiledPrompt;
+import io.gravitee.entrypoint.mcp.service.search.ToolSearchIndex;
+import io.gravitee.entrypoint.mcp.service.task.MCPTask;
+import io.gravitee.entrypoint.mcp.service.task.MCPTaskStore;
+import io.gravitee.entrypoint.mcp.service.subscription.ResourceSubscriptionManager;
+import io.gravitee.entrypoint.mcp.service.upload.UploadBody;
+import io.gravitee.entrypoint.mcp.service.upstream.UpstreamClient;
+import io.gravitee.entrypoint.mcp.service.upstream.UpstreamRequest;
+import io.gravitee.entrypoint.mcp.service.upstream.UpstreamResponse;
+import io.gravitee.entrypoint.mcp.service.upstream.VertxUpstreamClient;
+import io.gravitee.entrypoint.mcp.service.visibility.ToolVisibility;
 import io.gravitee.gateway.api.ExecutionContext;
 import io.gravitee.gateway.api.buffer.Buffer;
 import io.gravitee.gateway.api.http.HttpHeaderNames;
 import io.gravitee.gateway.api.http.HttpHeaders;
 import io.gravitee.gateway.reactive.api.context.InternalContextAttributes;
 import io.gravitee.gateway.reactive.api.context.http.HttpExecutionContext;
+import io.gravitee.gateway.reactive.api.invoker.HttpInvoker;
 import io.gravitee.gateway.reactive.core.context.DefaultExecutionContext;
 import io.gravitee.gateway.reactive.core.context.MutableRequest;
 import io.gravitee.gateway.reactive.handlers.api.v4.Api;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.vertx.rxjava3.core.Vertx;
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 
@@ -66,18 +140,89 @@ public class MCPHandler {
     static final String ATTR_INTERNAL_MCP_SESSION_ID = "mcp.session.id";
     static final String ATTR_INTERNAL_MCP_REQUEST_ID = "mcp.request.id";
     static final String ATTR_INTERNAL_MCP_TOOL_NAME = "mcp.tool.name";
+    static final String ATTR_INTERNAL_MCP_PROGRESS_TOKEN = "mcp.progress.token";
+    static final String ATTR_INTERNAL_MCP_TOOL_CALL_START_TIME = "mcp.tool.call.start_time";
+    static final String ATTR_INTERNAL_MCP_TOOL_CALL_TIMINGS = "mcp.tool.call.timings";
+    static final String ATTR_INTERNAL_MCP_TASK = "mcp.task";
+    static final String ATTR_INTERNAL_MCP_TASK_ID = "mcp.task.id";
+    static final String ATTR_INTERNAL_MCP_COMPOSITE_ARGUMENTS = "mcp.composite.arguments";
+    static final String ATTR_INTERNAL_MCP_TOOL_SEARCH = "mcp.tool_search";
+    static final String ATTR_INTERNAL_MCP_REPLAY_KEY = "mcp.replay.key";
+    static final String ATTR_INTERNAL_MCP_REPLAYABLE_CALL = "mcp.replay.call";
+    static final String ATTR_INTERNAL_MCP_REPLAYED_CALL = "mcp.replay.replayed";
+    static final String ATTR_INTERNAL_MCP_HEDGED_ARGUMENTS = "mcp.hedged.arguments";
+    static final String ATTR_INTERNAL_MCP_REVALIDATION_KEY = "mcp.revalidation.key";
+    static final String ATTR_INTERNAL_MCP_REVALIDATED_RESULT = "mcp.revalidation.result";
+    static final String ATTR_INTERNAL_MCP_RESOURCE_URI = "mcp.resource.uri";
+    static final String ATTR_INTERNAL_MCP_CACHED_RESOURCE = "mcp.resource.cached";
+    static final String ATTR_INTERNAL_MCP_SESSION_STREAM = "mcp.session.stream";
+    static final String ATTR_INTERNAL_MCP_PROMPT_NAME = "mcp.prompt.name";
+    static final String ATTR_INTERNAL_MCP_PROMPT_ARGUMENTS = "mcp.prompt.arguments";
+    static final String ATTR_INTERNAL_MCP_COMPLETION = "mcp.completion";
     static final String ATTR_INTERNAL_MCP_ERROR_INVALID_REQUEST = "mcp.error.invalid_request";
     static final String ATTR_INTERNAL_MCP_ERROR_PARSE_ERROR = "mcp.error.parse_error";
     static final String ATTR_INTERNAL_MCP_ERROR_INTERNAL_ERROR = "mcp.error.internal_error";
+    static final String ATTR_INTERNAL_MCP_ERROR_INVALID_PARAMS = "mcp.error.invalid_params";
+    static final String ATTR_INTERNAL_MCP_ERROR_REQUEST_TOO_LARGE = "mcp.error.request_too_large";
     static final String ATTR_INTERNAL_MCP_IS_NOTIFICATION = "mcp.is_notification";
-    private final ObjectMapper mapper;
+
+    private static final int MAX_COMPLETION_VALUES = 100;
+    private static final int MAX_COMPLETION_RESPONSE_SIZE = 64 * 1024;
+    private static final int LATENCY_SAMPLES = 256;
+    // A cached tool result is only served again to the same consumer presenting the same credentials
+    private static final List<String> CONSUMER_ATTRIBUTES = List.of(
+        ExecutionContext.ATTR_PLAN,
+        ExecutionContext.ATTR_APPLICATION,
+        ExecutionContext.ATTR_SUBSCRIPTION_ID
+    );
+    private static final List<String> CREDENTIAL_HEADERS = List.of(
+        HttpHeaderNames.AUTHORIZATION,
+        HttpHeaderNames.PROXY_AUTHORIZATION,
+        HttpHeaderNames.COOKIE
+    );
+    static final String SEARCH_TOOL_NAME = "search_tools";
+    private static final String SEARCH_TOOL_INPUT_SCHEMA =
+        "{\"type\":\"object\",\"properties\":{" +
+        "\"query\":{\"type\":\"string\",\"description\":\"Keywords describing the operation to perform\"}," +
+        "\"limit\":{\"type\":\"integer\",\"minimum\":1,\"description\":\"Maximum number of tools to return\"}" +
+        "},\"required\":[\"query\"]}";
+    private static final PreSerializedResponse EMPTY_RESULT = new PreSerializedResponse("{}".getBytes(StandardCharsets.UTF_8));
+
     private final MCPEntrypointConnectorConfiguration configuration;
     private final List<JsonRPCListResponseResultsTool> tools;
+    private final Map<String, MCPTool> toolsByName;
+    private final boolean supportsTasks;
+    private final MCPTaskStore taskStore;
+    private final ToolSearchIndex toolSearchIndex;
+    private final ToolVisibility toolVisibility;
+    private final Map<String, Integer> toolIndexes;
+    private final Map<BitSet, PreSerializedResponse> toolsListResponses;
+    private final Map<String, JsonProjection> projections;
+    private final BoundedTtlCache<String, CachedToolResult> revalidationCache;
+    private final StreamedToolResponse streamedToolResponse;
+    private final BoundedTtlCache<String, ReplayableToolCall> replayCache;
+    private final RequestHedger requestHedger;
+    private final Map<String, LatencyTracker> toolLatencies;
+    private final Map<String, MCPResource> resourcesByUri;
+    private final PreSerializedResponse resourcesListResponse;
+    private final BoundedTtlCache<String, CachedResource> resourceCache;
+    private final ResourceSubscriptionManager subscriptionManager;
+    private final Map<String, CompiledPrompt> promptsByName;
+    private final PreSerializedResponse promptsListResponse;
+    private final CompletionIndex completionIndex;
+    private final BoundedTtlCache<String, List<String>> completionCache;
+    private final boolean supportsCompletions;
+    private final Function<HttpExecutionContext, UpstreamClient> upstreamClientFactory;
+    private volatile UpstreamClient upstreamClient;
+
+    public MCPHandler(MCPEntrypointConnectorConfiguration configuration) throws JsonProcessingException {
+        this(configuration, ctx -> new VertxUpstreamClient(ctx.getComponent(Vertx.class), configuration.getUpstreamTimeout()));
+    }
 
-    public MCPHandler(MCPEntrypointConnectorConfiguration configuration) {
+    MCPHandler(MCPEntrypointConnectorConfiguration configuration, Function<HttpExecutionContext, UpstreamClient> upstreamClientFactory)
+        throws JsonProcessingException {
         this.configuration = configuration;
-        this.mapper = new ObjectMapper();
-        this.mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.upstreamClientFactory = upstreamClientFactory;
         this.tools = this.configuration.getTools()
             .stream()
             .map(mcpTool ->
@@ -87,58 +232,192 @@ public class MCPHandler {
                     .inputSchema(mcpTool.getToolDefinition().getInputSchema())
                     .outputSchema(mcpTool.getToolDefinition().getOutputSchema())
                     .annotations(mcpTool.getToolDefinition().getAnnotations())
+                    // Only composite tools run as tasks, the response of the API being handed over once it answered
+                    .execution(isComposite(mcpTool) ? mcpTool.getToolDefinition().getExecution() : null)
                     .build()
             )
             .toList();
+        this.toolsByName = this.configuration.getTools()
+            .stream()
+            .collect(Collectors.toMap(mcpTool -> mcpTool.getToolDefinition().getName(), Function.identity(), (first, second) -> first));
+        this.toolsByName.values()
+            .stream()
+            .filter(mcpTool -> !isComposite(mcpTool) && mcpTool.getToolDefinition().getExecution() != null)
+            .filter(mcpTool -> mcpTool.getToolDefinition().getExecution().getTaskSupport() != MCPToolTaskSupport.FORBIDDEN)
+            .forEach(mcpTool -> log.warn("Tool {} is mapped to the API, it cannot run as a task", mcpTool.getToolDefinition().getName()));
+        this.supportsTasks = this.toolsByName.keySet()
+            .stream()
+            .anyMatch(toolName -> toolTaskSupport(toolName) != MCPToolTaskSupport.FORBIDDEN);
+        this.taskStore = new MCPTaskStore(configuration.getMaxTasks(), configuration.getTaskTtl());
+        this.toolSearchIndex = configuration.isToolSearchEnabled() ? ToolSearchIndex.build(this.tools) : null;
+        this.toolVisibility = ToolVisibility.of(this.configuration.getTools(), this.configuration.getReadOnlyPlans());
+        this.toolIndexes = new HashMap<>();
+        for (int i = 0; i < this.tools.size(); i++) {
+            this.toolIndexes.putIfAbsent(this.tools.get(i).getName(), i);
+        }
+        // Each distinct set of visible tools is listed once, the plans seeing the same tools sharing the same response
+        this.toolsListResponses = new HashMap<>();
+        for (BitSet visibleTools : toolVisibility.distinctVisibleTools()) {
+            List<JsonRPCListResponseResultsTool> listedTools = visibleTools.stream().mapToObj(this.tools::get).toList();
+            this.toolsListResponses.put(visibleTools, listTools(toolSearchIndex != null ? pinnedTools(listedTools) : listedTools));
+        }
+        this.revalidationCache = configuration.getRevalidationCacheSize() > 0
+            ? new BoundedTtlCache<>(configuration.getRevalidationCacheSize(), Duration.ofMillis(configuration.getRevalidationCacheTtl()))
+            : null;
+        this.streamedToolResponse = new StreamedToolResponse();
+        this.replayCache = configuration.getReplayCacheTtl() > 0
+            ? new BoundedTtlCache<>(configuration.getReplayCacheSize(), Duration.ofMillis(configuration.getReplayCacheTtl()))
+            : null;
+        this.requestHedger = configuration.isHedgingEnabled()
+            ? new RequestHedger(new HedgingBudget(configuration.getHedgingBudget()), Schedulers.computation())
+            : null;
+        this.toolLatencies = new HashMap<>();
+        if (requestHedger != null) {
+            this.toolsByName.forEach((toolName, mcpTool) -> {
+                // Uploads are streamed through the invoker, not buffered to be sent twice
+                if (
+                    isReadOnly(toolName) &&
+                    mcpTool.getGatewayMapping() != null &&
+                    mcpTool.getGatewayMapping().getHttp() != null &&
+                    mcpTool.getGatewayMapping().getHttp().getUpload() == null
+                ) {
+                    toolLatencies.put(toolName, new LatencyTracker(LATENCY_SAMPLES, configuration.getHedgingPercentile()));
+                }
+            });
+        }
+        this.resourcesByUri = this.configuration.getResources()
+            .stream()
+            .collect(Collectors.toMap(MCPResource::getUri, Function.identity(), (first, second) -> first, LinkedHashMap::new));
+        this.resourcesListResponse = listResources(this.resourcesByUri.values());
+        // Expired resources are kept as long as tool results to be revalidated
+        this.resourceCache = configuration.getResourceCacheTtl() > 0
+            ? new BoundedTtlCache<>(
+                configuration.getResourceCacheSize(),
+                Duration.ofMillis(Math.max(configuration.getResourceCacheTtl(), configuration.getRevalidationCacheTtl()))
+            )
+            : null;
+        this.subscriptionManager = configuration.getResourceSubscriptionInterval() > 0 && !resourcesByUri.isEmpty()
+            ? new ResourceSubscriptionManager(
+                configuration.getResourceSubscriptionInterval(),
+                configuration.getResourceSubscriptionStreamTimeout(),
+                uri -> {
+                    if (resourceCache != null) {
+                        resourceCache.remove(uri);
+                    }
+                }
+            )
+            : null;
+        // Templates are compiled once so that prompts/get only fills in the arguments
+        this.promptsByName = this.configuration.getPrompts()
+            .stream()
+            .collect(Collectors.toMap(MCPPrompt::getName, CompiledPrompt::compile, (first, second) -> first, LinkedHashMap::new));
+        this.promptsListResponse = listPrompts(this.configuration.getPrompts());
+        this.completionIndex = CompletionIndex.build(this.configuration.getTools());
+        this.completionCache = configuration.getCompletionCacheTtl() > 0
+            ? new BoundedTtlCache<>(configuration.getCompletionCacheSize(), Duration.ofMillis(configuration.getCompletionCacheTtl()))
+            : null;
+        this.supportsCompletions =
+            !completionIndex.isEmpty() || toolsByName.values().stream().anyMatch(mcpTool -> !mcpTool.getArgumentCompletions().isEmpty());
+        this.projections = new HashMap<>();
+        this.toolsByName.forEach((toolName, mcpTool) -> {
+            JsonProjection projection = JsonProjection.compile(MCPJson.factory(), mcpTool.getProjection());
+            if (projection != null) {
+                projections.put(toolName, projection);
+            }
+        });
+    }
+
+    /**
+     * Releases the resources held by the handler once the entrypoint stops, such as the connections of the client sending the
+     * requests of the entrypoint itself.
+     */
+    public void close() {
+        UpstreamClient client;
+        synchronized (this) {
+            client = upstreamClient;
+            upstreamClient = null;
+        }
+        if (client != null) {
+            client.close();
+        }
+        if (subscriptionManager != null) {
+            subscriptionManager.close();
+        }
     }
 
     // HANDLE REQUEST
     public Completable handleRequest(HttpExecutionContext ctx) {
+        long receivedAt = System.nanoTime();
         MultiValueMap<String, String> parameters = ctx.request().parameters();
         ctx.setInternalAttribute(ATTR_INTERNAL_MCP_SESSION_ID, parameters.getFirst("sessionId"));
 
         // By Default invoker is skipped and will be enabled only for tools/call
         ctx.setInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP, Boolean.TRUE);
 
+        if (ctx.request().method() == HttpMethod.GET) {
+            log.debug("Opening the stream of session {}", parameters.getFirst("sessionId"));
+            ctx.setInternalAttribute(ATTR_INTERNAL_MCP_SESSION_STREAM, Boolean.TRUE);
+            return Completable.complete();
+        }
+
         return Completable.fromMaybe(
-            ctx
-                .request()
-                .body()
+            readRequestBody(ctx)
                 .doOnEvent((buffer, throwable) -> {
-                    if (throwable != null) {
+                    if (throwable instanceof RequestTooLargeException) {
+                        log.debug(throwable.getMessage());
+                        ctx.setInternalAttribute(ATTR_INTERNAL_MCP_ERROR_REQUEST_TOO_LARGE, Boolean.TRUE);
+                    } else if (throwable != null) {
                         log.error(throwable.getMessage(), throwable);
                         ctx.setInternalAttribute(ATTR_INTERNAL_MCP_ERROR_INTERNAL_ERROR, Boolean.TRUE);
                     } else if (buffer == null) {
                         ctx.setInternalAttribute(ATTR_INTERNAL_MCP_ERROR_PARSE_ERROR, Boolean.TRUE);
                     } else {
                         try {
-                            JsonNode jsonNode = mapper.readTree(buffer.getBytes());
+                            byte[] requestBody = buffer.getBytes();
+                            JsonNode jsonNode = MCPJson.readTree(requestBody);
                             JsonNode idNode = jsonNode.get("id");
+                            // The id is written back in the response as sent, whether a string or a number of any size
+                            JsonRPCId jsonRequestId = idNode != null ? JsonRPCId.of(idNode) : null;
                             String mcpMethod = jsonNode.at("/method").asText();
                             boolean isNotification = mcpMethod.startsWith("notifications/");
+                            if (!isNotification && jsonRequestId != null) {
+                                ctx.setInternalAttribute(ATTR_INTERNAL_MCP_REQUEST_ID, jsonRequestId);
+                            }
 
                             if (jsonNode.get("jsonrpc") == null) {
                                 ctx.setInternalAttribute(ATTR_INTERNAL_MCP_ERROR_INVALID_REQUEST, Boolean.TRUE);
-                            } else if (!isNotification && idNode == null) {
-                                // Non-notification messages require an id
+                            } else if (!isNotification && jsonRequestId == null) {
+                                // Non-notification messages require an id, either a string or a number
                                 ctx.setInternalAttribute(ATTR_INTERNAL_MCP_ERROR_INVALID_REQUEST, Boolean.TRUE);
                             } else {
                                 ctx.setInternalAttribute(ATTR_INTERNAL_MCP_METHOD, mcpMethod);
                                 if (isNotification) {
                                     ctx.setInternalAttribute(ATTR_INTERNAL_MCP_IS_NOTIFICATION, Boolean.TRUE);
-                                } else {
-                                    ctx.setInternalAttribute(ATTR_INTERNAL_MCP_REQUEST_ID, idNode.asInt());
                                 }
 
                                 log.debug("Handling request for method {}", mcpMethod);
-                                if (mcpMethod.equals("tools/call")) {
-                                    log.debug("Enable invocation of the API");
-                                    ctx.setInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP, Boolean.FALSE);
-
-                                    log.debug("Preparing call to the endpoint");
-                                    JsonRPCCallRequest callRequest = mapper.convertValue(jsonNode, JsonRPCCallRequest.class);
-                                    ctx.setInternalAttribute(ATTR_INTERNAL_MCP_TOOL_NAME, callRequest.getParams().getName());
-                                    prepareToolCallRequest(ctx, callRequest);
+                                switch (mcpMethod) {
+                                    case "tools/call" -> handleToolCallRequest(ctx, jsonNode, requestBody, receivedAt);
+                                    case "resources/read" -> handleResourceReadRequest(ctx, jsonNode.at("/params/uri").asText(null));
+                                    case "resources/subscribe", "resources/unsubscribe" -> ctx.setInternalAttribute(
+                                        ATTR_INTERNAL_MCP_RESOURCE_URI,
+                                        jsonNode.at("/params/uri").asText(null)
+                                    );
+                                    case "prompts/get" -> handlePromptGetRequest(ctx, jsonNode.path("params"));
+                                    case "completion/complete" -> ctx.setInternalAttribute(
+                                        ATTR_INTERNAL_MCP_COMPLETION,
+                                        new CompletionRequest(
+                                            jsonNode.at("/params/ref/type").asText(null),
+                                            jsonNode.at("/params/ref/name").asText(null),
+                                            jsonNode.at("/params/argument/name").asText(null),
+                                            jsonNode.at("/params/argument/value").asText("")
+                                        )
+                                    );
+                                    case "tasks/get", "tasks/result", "tasks/cancel" -> ctx.setInternalAttribute(
+                                        ATTR_INTERNAL_MCP_TASK_ID,
+                                        jsonNode.at("/params/taskId").asText(null)
+                                    );
+                                    default -> {}
                                 }
                             }
                         } catch (IOException ex) {
@@ -146,10 +425,310 @@ public class MCPHandler {
                         }
                     }
                 })
+                .onErrorComplete(RequestTooLargeException.class::isInstance)
+        );
+    }
+
+    /**
+     * Aggregates the request body, rejecting it as soon as its declared length or the chunks received so far exceed
+     * <code>maxRequestSize</code>: the remaining chunks are then neither consumed nor buffered.
+     */
+    private Maybe<Buffer> readRequestBody(HttpExecutionContext ctx) {
+        long maxRequestSize = configuration.getMaxRequestSize();
+        if (maxRequestSize <= 0) {
+            return ctx.request().body();
+        }
+
+        String contentLength = ctx.request().headers().get(HttpHeaderNames.CONTENT_LENGTH);
+        if (contentLength != null) {
+            try {
+                long length = Long.parseLong(contentLength.trim());
+                if (length > maxRequestSize) {
+                    return Maybe.error(new RequestTooLargeException(maxRequestSize));
+                }
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring invalid Content-Length header: {}", contentLength);
+            }
+        }
+
+        return ctx
+            .request()
+            .chunks()
+            .reduceWith(Buffer::buffer, (body, chunk) -> {
+                if (body.length() + chunk.length() > maxRequestSize) {
+                    throw new RequestTooLargeException(maxRequestSize);
+                }
+                return body.appendBuffer(chunk);
+            })
+            .filter(body -> body.length() > 0);
+    }
+
+    private void handleToolCallRequest(HttpExecutionContext ctx, JsonNode jsonNode, byte[] requestBody, long receivedAt) throws Exception {
+        JsonRPCCallRequest callRequest = MCPJson.treeToValue(jsonNode, JsonRPCCallRequest.class);
+        JsonRPCCallRequestParams callRequestParams = callRequest.getParams();
+        ctx.setInternalAttribute(ATTR_INTERNAL_MCP_TOOL_NAME, callRequestParams.getName());
+        ToolCallTimings timings = new ToolCallTimings(callRequestParams.getName(), receivedAt, System.nanoTime());
+        ctx.setInternalAttribute(ATTR_INTERNAL_MCP_TOOL_CALL_TIMINGS, timings);
+
+        if (toolSearchIndex != null && SEARCH_TOOL_NAME.equals(callRequestParams.getName()) && !toolsByName.containsKey(SEARCH_TOOL_NAME)) {
+            ctx.setInternalAttribute(
+                ATTR_INTERNAL_MCP_TOOL_SEARCH,
+                Objects.requireNonNullElse(callRequestParams.getArguments(), Map.<String, Object>of())
+            );
+            timings.mapped();
+            return;
+        }
+        // The plan of the consumer is only known once the security chain ran, the visibility of the tool is checked then
+        if (toolVisibility.isRestricted() && !toolIndexes.containsKey(callRequestParams.getName())) {
+            ctx.setInternalAttribute(ATTR_INTERNAL_MCP_ERROR_INVALID_PARAMS, "Unknown tool: " + callRequestParams.getName());
+            return;
+        }
+
+        MCPToolTaskSupport taskSupport = toolTaskSupport(callRequestParams.getName());
+        if (callRequestParams.getTask() != null && taskSupport != MCPToolTaskSupport.FORBIDDEN) {
+            ctx.setInternalAttribute(ATTR_INTERNAL_MCP_TASK, callRequestParams.getTask());
+        } else if (callRequestParams.getTask() == null && taskSupport == MCPToolTaskSupport.REQUIRED) {
+            ctx.setInternalAttribute(
+                ATTR_INTERNAL_MCP_ERROR_INVALID_PARAMS,
+                "Tool " + callRequestParams.getName() + " can only be called as a task"
+            );
+            return;
+        }
+
+        boolean composite = isComposite(toolsByName.get(callRequestParams.getName()));
+
+        // The invoker only hands the response over once the upstream answered, so only composite tools can report their progress
+        if (
+            composite &&
+            configuration.getProgressNotificationInterval() > 0 &&
+            callRequestParams.getMeta() != null &&
+            callRequestParams.getMeta().getProgressToken() != null
+        ) {
+            ctx.setInternalAttribute(ATTR_INTERNAL_MCP_PROGRESS_TOKEN, callRequestParams.getMeta().getProgressToken());
+            ctx.setInternalAttribute(ATTR_INTERNAL_MCP_TOOL_CALL_START_TIME, System.nanoTime());
+        } else if (callRequestParams.getMeta() != null && callRequestParams.getMeta().getProgressToken() != null) {
+            log.debug("Tool {} reports no progress, ignoring the progress token of its call", callRequestParams.getName());
+        }
+
+        // A call reporting its progress streams its response, which cannot be replayed. A retry is only recognized once the
+        // consumer is known, when invoking the API or, for a composite tool, handling the response
+        if (
+            ctx.getInternalAttribute(ATTR_INTERNAL_MCP_PROGRESS_TOKEN) == null &&
+            (composite || ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER) instanceof HttpInvoker)
+        ) {
+            String replayKey = replayKey(ctx, jsonNode);
+            if (replayKey != null) {
+                ctx.setInternalAttribute(ATTR_INTERNAL_MCP_REPLAY_KEY, replayKey);
+            }
+        }
+
+        if (composite) {
+            log.debug("Tool {} is composite, its calls are made while handling the response", callRequestParams.getName());
+            ctx.setInternalAttribute(
+                ATTR_INTERNAL_MCP_COMPOSITE_ARGUMENTS,
+                Objects.requireNonNullElse(callRequestParams.getArguments(), Map.<String, Object>of())
+            );
+            timings.mapped();
+            return;
+        }
+
+        log.debug("Enable invocation of the API");
+        ctx.setInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP, Boolean.FALSE);
+
+        log.debug("Preparing call to the endpoint");
+        prepareToolCallRequest(ctx, callRequest, requestBody);
+        if (ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER) instanceof HttpInvoker invoker) {
+            ctx.setInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER, new ToolCallInvoker(invoker, this::invokeTool));
+            if (toolLatencies.containsKey(callRequestParams.getName())) {
+                ctx.setInternalAttribute(
+                    ATTR_INTERNAL_MCP_HEDGED_ARGUMENTS,
+                    Objects.requireNonNullElse(callRequestParams.getArguments(), Map.<String, Object>of())
+                );
+            }
+        } else if (toolVisibility.isRestricted()) {
+            // Without invoking the API through the entrypoint, a tool hidden to the plan of the consumer could be called
+            log.warn("Unable to check the visibility of tool {} before invoking the API, rejecting the call", callRequestParams.getName());
+            ctx.setInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP, Boolean.TRUE);
+            ctx.setInternalAttribute(ATTR_INTERNAL_MCP_ERROR_INTERNAL_ERROR, Boolean.TRUE);
+        } else {
+            // Without invoking the API through the entrypoint, the consumer the result is cached for would not be known
+            ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_REVALIDATION_KEY);
+        }
+        timings.mapped();
+    }
+
+    /**
+     * Invokes the API for a <code>tools/call</code> once the security chain identified the consumer of the API, unless the
+     * tool is hidden to its plan.
+     */
+    private Completable invokeTool(HttpExecutionContext ctx, HttpInvoker invoker) {
+        String toolName = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_TOOL_NAME);
+        if (!isToolVisible(ctx, toolName)) {
+            log.debug("Tool {} is not visible to the plan of the consumer", toolName);
+            ctx.setInternalAttribute(ATTR_INTERNAL_MCP_ERROR_INVALID_PARAMS, "Unknown tool: " + toolName);
+            return Completable.complete();
+        }
+        if (shareToolCall(ctx)) {
+            return Completable.complete();
+        }
+        String requestKey = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_REVALIDATION_KEY);
+        if (requestKey != null) {
+            revalidate(ctx, requestKey);
+        }
+        Map<String, Object> hedgedArguments = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_HEDGED_ARGUMENTS);
+        ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_HEDGED_ARGUMENTS);
+        Completable invocation = hedgedArguments != null ? hedge(ctx, toolName, invoker.invoke(ctx), hedgedArguments) : invoker.invoke(ctx);
+        ReplayableToolCall replayableCall = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_REPLAYABLE_CALL);
+        if (replayableCall != null) {
+            // A call ended while the API is invoked never reaches the handling of its response, where it is recorded
+            return invocation.doOnError(replayableCall::fail).doOnDispose(replayableCall::cancel);
+        }
+        return invocation;
+    }
+
+    /**
+     * Invokes the API through the endpoint and, when it is slower than usual for this tool, sends the hedge directly to the
+     * target of the endpoint, without the policies of the flows nor the options of the endpoint connector, only forwarding the
+     * credentials of the AI agent. Hedging therefore only suits a read-only tool served by a plain HTTP target. A successful
+     * hedge answering first replaces the response of the invocation.
+     */
+    private Completable hedge(HttpExecutionContext ctx, String toolName, Completable invocation, Map<String, Object> arguments) {
+        MCPGatewayMappingHttp http = toolsByName.get(toolName).getGatewayMapping().getHttp();
+        Single<UpstreamResponse> hedgedRequest = Single.defer(() ->
+            upstreamClient(ctx).send(upstreamRequest(ctx, endpointTarget(ctx), arguments, http))
         );
+        return requestHedger
+            .hedge(invocation, hedgedRequest, toolLatencies.get(toolName))
+            .doOnSuccess(hedgeResponse -> {
+                log.debug("The hedge of a call of tool {} answered first", toolName);
+                ctx.response().status(hedgeResponse.status());
+                HttpHeaders headers = ctx.response().headers();
+                headers.remove(HttpHeaderNames.ETAG);
+                headers.remove(HttpHeaderNames.LAST_MODIFIED);
+                headers.remove(HttpHeaderNames.CONTENT_LENGTH);
+                if (hedgeResponse.contentType() != null) {
+                    headers.set(HttpHeaderNames.CONTENT_TYPE, hedgeResponse.contentType());
+                } else {
+                    headers.remove(HttpHeaderNames.CONTENT_TYPE);
+                }
+                if (hedgeResponse.etag() != null) {
+                    headers.set(HttpHeaderNames.ETAG, hedgeResponse.etag());
+                }
+                ctx.response().body(hedgeResponse.body());
+            })
+            .ignoreElement();
+    }
+
+    /**
+     * Completes the key of a read-only tool call with its consumer and credentials and, when a result is cached for this key,
+     * sends its validators to the upstream. That result is kept on the context so that it can be served on a
+     * <code>304 Not Modified</code> even if it is evicted in the meantime.
+     */
+    private void revalidate(HttpExecutionContext ctx, String requestKey) {
+        String revalidationKey = consumerKey(ctx, requestKey);
+        ctx.setInternalAttribute(ATTR_INTERNAL_MCP_REVALIDATION_KEY, revalidationKey);
+
+        HttpHeaders headers = ctx.request().headers();
+        headers.remove(HttpHeaderNames.IF_NONE_MATCH);
+        headers.remove(HttpHeaderNames.IF_MODIFIED_SINCE);
+        CachedToolResult cachedToolResult = revalidationCache.get(revalidationKey);
+        if (cachedToolResult != null) {
+            log.debug("Revalidating the cached result of tool {}", (Object) ctx.getInternalAttribute(ATTR_INTERNAL_MCP_TOOL_NAME));
+            ctx.setInternalAttribute(ATTR_INTERNAL_MCP_REVALIDATED_RESULT, cachedToolResult);
+            if (cachedToolResult.etag() != null) {
+                headers.set(HttpHeaderNames.IF_NONE_MATCH, cachedToolResult.etag());
+            }
+            if (cachedToolResult.lastModified() != null) {
+                headers.set(HttpHeaderNames.IF_MODIFIED_SINCE, cachedToolResult.lastModified());
+            }
+        }
+    }
+
+    /**
+     * Completes the key of a tool call not read-only with its consumer and credentials then shares the call with its retries.
+     *
+     * @return <code>true</code> when the call is the retry of a call of the same consumer, whose response is replayed.
+     */
+    private boolean shareToolCall(HttpExecutionContext ctx) {
+        String requestKey = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_REPLAY_KEY);
+        if (requestKey == null) {
+            return false;
+        }
+        ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_REPLAY_KEY);
+        String replayKey = consumerKey(ctx, requestKey);
+        ReplayableToolCall call = new ReplayableToolCall(() -> replayCache.remove(replayKey));
+        ReplayableToolCall originalCall = replayCache.putIfAbsent(replayKey, call);
+        if (originalCall != null) {
+            String toolName = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_TOOL_NAME);
+            log.debug("Call of tool {} is a retry, replaying the original call", toolName);
+            ctx.setInternalAttribute(ATTR_INTERNAL_MCP_REPLAYED_CALL, originalCall);
+            return true;
+        }
+        ctx.setInternalAttribute(ATTR_INTERNAL_MCP_REPLAYABLE_CALL, call);
+        return false;
+    }
+
+    /**
+     * @return the digest of the key of a request completed with the consumer of the API and its credentials, which are thus
+     * not kept in memory.
+     */
+    private static String consumerKey(HttpExecutionContext ctx, String requestKey) {
+        HttpHeaders headers = ctx.request().headers();
+        StringBuilder key = new StringBuilder(requestKey);
+        for (String attribute : CONSUMER_ATTRIBUTES) {
+            key.append('\n').append(attribute).append(':').append((Object) ctx.getAttribute(attribute));
+        }
+        for (String header : CREDENTIAL_HEADERS) {
+            key.append('\n').append(header).append(':').append(headers.getAll(header));
+        }
+        try {
+            return Base64.getEncoder().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8))
+            );
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
     }
 
-    private void prepareToolCallRequest(HttpExecutionContext ctx, JsonRPCCallRequest jsonRPCCallRequest) throws Exception {
+    private void handleResourceReadRequest(HttpExecutionContext ctx, String uri) {
+        ctx.setInternalAttribute(ATTR_INTERNAL_MCP_RESOURCE_URI, uri);
+        MCPResource resource = uri != null ? resourcesByUri.get(uri) : null;
+        if (resource == null) {
+            return;
+        }
+
+        CachedResource cachedResource = resourceCache != null ? resourceCache.get(uri) : null;
+        if (cachedResource != null) {
+            ctx.setInternalAttribute(ATTR_INTERNAL_MCP_CACHED_RESOURCE, cachedResource);
+            if (cachedResource.isFresh()) {
+                log.debug("Resource {} is served from cache", uri);
+                return;
+            }
+        }
+
+        log.debug("Enable invocation of the API to read resource {}", uri);
+        ctx.setInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP, Boolean.FALSE);
+
+        MutableRequest mutableRequest = ((DefaultExecutionContext) ctx).request();
+        mutableRequest.method(HttpMethod.GET);
+        mutableRequest.pathInfo(relativeToContextPath(ctx, resource.getPath()));
+        mutableRequest.body(Buffer.buffer());
+        mutableRequest.headers().remove(HttpHeaderNames.CONTENT_TYPE);
+        mutableRequest.headers().remove(HttpHeaderNames.CONTENT_LENGTH);
+        mutableRequest.headers().set(HttpHeaderNames.ACCEPT, resource.getMimeType() != null ? resource.getMimeType() : "*/*");
+        mutableRequest.headers().remove(HttpHeaderNames.IF_NONE_MATCH);
+        mutableRequest.headers().remove(HttpHeaderNames.IF_MODIFIED_SINCE);
+        if (cachedResource != null && cachedResource.etag() != null) {
+            mutableRequest.headers().set(HttpHeaderNames.IF_NONE_MATCH, cachedResource.etag());
+        }
+        if (cachedResource != null && cachedResource.lastModified() != null) {
+            mutableRequest.headers().set(HttpHeaderNames.IF_MODIFIED_SINCE, cachedResource.lastModified());
+        }
+    }
+
+    private void prepareToolCallRequest(HttpExecutionContext ctx, JsonRPCCallRequest jsonRPCCallRequest, byte[] requestBody)
+        throws Exception {
         JsonRPCCallRequestParams jsonRPCCallRequestParams = jsonRPCCallRequest.getParams();
         MCPGatewayMappingHttp mcpGatewayMappingHttp = this.configuration.getTools()
             .stream()
@@ -165,15 +744,7 @@ public class MCPHandler {
         MutableRequest mutableRequest = ((DefaultExecutionContext) ctx).request();
         mutableRequest.method(HttpMethod.valueOf(mcpGatewayMappingHttp.getMethod()));
 
-        String builtPath = buildPath(jsonRPCCallRequestParams.getArguments(), mcpGatewayMappingHttp);
-
-        String apiContextPath = ctx.getAttribute(ExecutionContext.ATTR_CONTEXT_PATH);
-        if (apiContextPath.endsWith("/")) {
-            apiContextPath = apiContextPath.substring(0, apiContextPath.length() - 1);
-        }
-        if (builtPath.startsWith(apiContextPath)) {
-            builtPath = builtPath.substring(apiContextPath.length());
-        }
+        String builtPath = relativeToContextPath(ctx, buildPath(jsonRPCCallRequestParams.getArguments(), mcpGatewayMappingHttp));
 
         log.debug("BuiltPath: {}", builtPath);
 
@@ -182,20 +753,167 @@ public class MCPHandler {
         updateRequestHeaders(mutableRequest.headers(), jsonRPCCallRequestParams.getArguments(), mcpGatewayMappingHttp.getHeaders());
 
         mutableRequest.headers().set(HttpHeaderNames.ACCEPT, "application/json");
+        // Conditional headers of the MCP request are not meant for the upstream
+        mutableRequest.headers().remove(HttpHeaderNames.IF_NONE_MATCH);
+        mutableRequest.headers().remove(HttpHeaderNames.IF_MODIFIED_SINCE);
 
-        if (jsonRPCCallRequestParams.getArguments().get("bodySchema") != null) {
-            Buffer buffer = Buffer.buffer(mapper.writeValueAsString(jsonRPCCallRequestParams.getArguments().get("bodySchema")));
+        String body = null;
+        MCPGatewayMappingUpload upload = mcpGatewayMappingHttp.getUpload();
+        if (upload != null) {
+            UploadBody uploadBody;
+            try {
+                uploadBody = uploadBody(upload, jsonRPCCallRequestParams.getArguments(), requestBody);
+            } catch (IllegalArgumentException e) {
+                log.debug("Invalid upload for tool {}: {}", jsonRPCCallRequestParams.getName(), e.getMessage());
+                ctx.setInternalAttribute(ATTR_INTERNAL_MCP_ERROR_INVALID_PARAMS, e.getMessage());
+                ctx.setInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP, Boolean.TRUE);
+                return;
+            }
+            mutableRequest.headers().set(HttpHeaderNames.CONTENT_TYPE, uploadBody.contentType());
+            mutableRequest.headers().set(HttpHeaderNames.CONTENT_LENGTH, "" + uploadBody.contentLength());
+            mutableRequest.chunks(uploadBody.chunks());
+        } else if (jsonRPCCallRequestParams.getArguments().get("bodySchema") != null) {
+            // The body is the slice of the MCP request the client sent, wrapped rather than re-encoded or copied
+            int[] range = MCPJson.rawRange(requestBody, "params", "arguments", "bodySchema");
+            int bodyLength = range[1] - range[0];
             log.debug("overriding ContentType: {}", mcpGatewayMappingHttp.getContentType());
             mutableRequest.headers().set(HttpHeaderNames.CONTENT_TYPE, mcpGatewayMappingHttp.getContentType());
-            log.debug("overriding ContentLength: {}", buffer.getBytes().length);
-            mutableRequest.headers().set(HttpHeaderNames.CONTENT_LENGTH, "" + buffer.getBytes().length);
+            log.debug("overriding ContentLength: {}", bodyLength);
+            mutableRequest.headers().set(HttpHeaderNames.CONTENT_LENGTH, "" + bodyLength);
             log.debug("overriding body");
-            mutableRequest.body(buffer);
+            mutableRequest.body(Buffer.buffer(Unpooled.wrappedBuffer(requestBody, range[0], bodyLength)));
+            // Only the key of a revalidated call needs the body as a string
+            if (revalidationCache != null && isReadOnly(jsonRPCCallRequestParams.getName())) {
+                body = new String(requestBody, range[0], bodyLength, StandardCharsets.UTF_8);
+            }
         } else {
             mutableRequest.body(Buffer.buffer());
             mutableRequest.headers().remove(HttpHeaderNames.CONTENT_TYPE);
             mutableRequest.headers().remove(HttpHeaderNames.CONTENT_LENGTH);
         }
+
+        // The key of an upload would not identify its content. It is completed with the consumer when the API is invoked
+        if (revalidationCache != null && isReadOnly(jsonRPCCallRequestParams.getName()) && upload == null) {
+            ctx.setInternalAttribute(
+                ATTR_INTERNAL_MCP_REVALIDATION_KEY,
+                revalidationKey(jsonRPCCallRequestParams.getName(), mcpGatewayMappingHttp, builtPath, mutableRequest.headers(), body)
+            );
+        }
+    }
+
+    /**
+     * Streams the base64 content of the uploaded argument from the MCP request as it is sent, without decoding it up front.
+     *
+     * @throws IllegalArgumentException if the uploaded argument is missing or is not base64.
+     */
+    private UploadBody uploadBody(MCPGatewayMappingUpload upload, Map<String, Object> arguments, byte[] requestBody) throws IOException {
+        int[] range = MCPJson.rawRange(requestBody, "params", "arguments", upload.getArgument());
+        if (range == null || requestBody[range[0]] != '"') {
+            throw new IllegalArgumentException("Argument " + upload.getArgument() + " must be a base64 string");
+        }
+        if (upload.getMode() == MCPGatewayMappingUploadMode.BINARY) {
+            return UploadBody.binary(requestBody, range[0] + 1, range[1] - 1, upload.getMediaType());
+        }
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        upload
+            .getFields()
+            .stream()
+            .filter(arguments::containsKey)
+            .forEach(field -> fields.put(field, arguments.get(field).toString()));
+        Object fileName = upload.getFileNameArgument() != null ? arguments.get(upload.getFileNameArgument()) : null;
+        return UploadBody.multipart(
+            requestBody,
+            range[0] + 1,
+            range[1] - 1,
+            fields,
+            upload.getPartName(),
+            fileName != null ? fileName.toString() : upload.getPartName(),
+            upload.getMediaType()
+        );
+    }
+
+    /**
+     * Identifies the retries of a call to a tool that is not read-only: same session, same JSON-RPC id, same tool and same
+     * arguments, then same consumer and credentials once the consumer is known.
+     *
+     * @return the key of the call or <code>null</code> when it is not replayed.
+     */
+    private String replayKey(HttpExecutionContext ctx, JsonNode jsonNode) throws NoSuchAlgorithmException {
+        String sessionId = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_SESSION_ID);
+        String toolName = jsonNode.at("/params/name").asText();
+        if (replayCache == null || sessionId == null || !toolsByName.containsKey(toolName) || isReadOnly(toolName)) {
+            return null;
+        }
+        byte[] argumentsDigest = MessageDigest.getInstance("SHA-256").digest(
+            jsonNode.at("/params/arguments").toString().getBytes(StandardCharsets.UTF_8)
+        );
+        return sessionId + '\n' + jsonNode.get("id") + '\n' + toolName + '\n' + Base64.getEncoder().encodeToString(argumentsDigest);
+    }
+
+    private static boolean isComposite(MCPTool mcpTool) {
+        return mcpTool != null && mcpTool.getGatewayMapping() != null && mcpTool.getGatewayMapping().getComposite() != null;
+    }
+
+    private boolean isReadOnly(String toolName) {
+        MCPTool mcpTool = toolsByName.get(toolName);
+        return (
+            mcpTool != null &&
+            mcpTool.getToolDefinition().getAnnotations() != null &&
+            Boolean.TRUE.equals(mcpTool.getToolDefinition().getAnnotations().getReadOnlyHint())
+        );
+    }
+
+    /**
+     * Identifies the upstream representation a read-only tool call reads: the same key means the same upstream request, the
+     * consumer and credentials aside.
+     */
+    private String revalidationKey(
+        String toolName,
+        MCPGatewayMappingHttp mcpGatewayMappingHttp,
+        String path,
+        HttpHeaders headers,
+        String body
+    ) {
+        StringBuilder key = new StringBuilder(toolName).append('\n').append(mcpGatewayMappingHttp.getMethod()).append(' ').append(path);
+        for (String header : mcpGatewayMappingHttp.getHeaders()) {
+            key.append('\n').append(header).append(':').append(headers.get(header));
+        }
+        if (body != null) {
+            key.append('\n').append(body);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Keeps the formatted result of a read-only tool when the upstream response carries validators.
+     *
+     * @return the cached result or <code>null</code> if the result cannot be revalidated.
+     */
+    private CachedToolResult cacheToolResult(String revalidationKey, String etag, String lastModified, JsonRPCCallResponseResults results)
+        throws JsonProcessingException {
+        if (revalidationKey == null || (etag == null && lastModified == null)) {
+            return null;
+        }
+        CachedToolResult cachedToolResult = new CachedToolResult(
+            etag,
+            lastModified,
+            results,
+            new PreSerializedResponse(MCPJson.writeValueAsBytes(results))
+        );
+        revalidationCache.put(revalidationKey, cachedToolResult);
+        return cachedToolResult;
+    }
+
+    private String relativeToContextPath(HttpExecutionContext ctx, String builtPath) {
+        String apiContextPath = ctx.getAttribute(ExecutionContext.ATTR_CONTEXT_PATH);
+        if (apiContextPath.endsWith("/")) {
+            apiContextPath = apiContextPath.substring(0, apiContextPath.length() - 1);
+        }
+        if (builtPath.startsWith(apiContextPath)) {
+            builtPath = builtPath.substring(apiContextPath.length());
+        }
+        return builtPath;
     }
 
     private String buildPath(Map<String, Object> arguments, MCPGatewayMappingHttp mcpGatewayMapping) {
@@ -233,10 +951,54 @@ public class MCPHandler {
 
     // HANDLE RESPONSE
     public Completable handleResponse(HttpExecutionContext ctx) {
+        ToolCallTimings timings = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_TOOL_CALL_TIMINGS);
+        if (timings == null) {
+            return sendResponse(ctx);
+        }
+        timings.responseReceived();
+        ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_TOOL_CALL_TIMINGS);
+        return sendResponse(ctx).doOnTerminate(() -> logSlowToolCall(timings));
+    }
+
+    private void logSlowToolCall(ToolCallTimings timings) {
+        timings.sent();
+        long slowCallThreshold = configuration.getSlowCallThreshold();
+        if (slowCallThreshold > 0 && timings.totalMillis() >= slowCallThreshold) {
+            log.warn("Slow call of tool {}: {}", timings.toolName(), timings);
+        } else if (log.isDebugEnabled()) {
+            log.debug("Call of tool {}: {}", timings.toolName(), timings);
+        }
+    }
+
+    private Completable sendResponse(HttpExecutionContext ctx) {
+        if (
+            ctx.getInternalAttribute(ATTR_INTERNAL_MCP_COMPOSITE_ARGUMENTS) != null &&
+            isToolVisible(ctx, ctx.getInternalAttribute(ATTR_INTERNAL_MCP_TOOL_NAME))
+        ) {
+            // A composite tool call does not go through the invoker, it is shared with its retries now that its consumer is known
+            shareToolCall(ctx);
+        }
+        ReplayableToolCall replayableCall = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_REPLAYABLE_CALL);
+        ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_REPLAYABLE_CALL);
+        JsonRPCId jsonRequestId = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_REQUEST_ID);
         return Maybe.defer(() -> {
+            Boolean isSessionStream = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_SESSION_STREAM);
+            if (isSessionStream != null && isSessionStream) {
+                String sessionId = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_SESSION_ID);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_SESSION_STREAM);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_SESSION_ID);
+                sendSessionStream(ctx, sessionId);
+                return Maybe.<byte[]>empty();
+            }
+
             Boolean isInternalError = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_ERROR_INTERNAL_ERROR);
             if (isInternalError != null && isInternalError) {
-                return Maybe.just(internalError());
+                return Maybe.just(internalError(jsonRequestId));
+            }
+
+            Boolean isRequestTooLarge = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_ERROR_REQUEST_TOO_LARGE);
+            if (isRequestTooLarge != null && isRequestTooLarge) {
+                return Maybe.just(requestTooLarge());
             }
 
             Boolean isParseError = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_ERROR_PARSE_ERROR);
@@ -246,7 +1008,7 @@ public class MCPHandler {
 
             Boolean isInvalidRequest = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_ERROR_INVALID_REQUEST);
             if (isInvalidRequest != null && isInvalidRequest) {
-                return Maybe.just(invalidRequest());
+                return Maybe.just(invalidRequest(jsonRequestId));
             }
 
             Boolean isNotification = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_IS_NOTIFICATION);
@@ -258,11 +1020,14 @@ public class MCPHandler {
             }
 
             String mcpMethod = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_METHOD);
-            Integer jsonRequestId = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_REQUEST_ID);
             String sessionId = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_SESSION_ID);
+            String taskId = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_TASK_ID);
+            String invalidParamsReason = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_ERROR_INVALID_PARAMS);
             ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_METHOD);
             ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_REQUEST_ID);
             ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_SESSION_ID);
+            ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_TASK_ID);
+            ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_ERROR_INVALID_PARAMS);
 
             log.debug(
                 "Received POST response for MCP with method: {}, request id: {} and session id: {}",
@@ -271,91 +1036,736 @@ public class MCPHandler {
                 sessionId
             );
 
+            if (invalidParamsReason != null) {
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_TOOL_NAME);
+                return Maybe.just(invalidParams(jsonRequestId, invalidParamsReason));
+            }
+
             if (mcpMethod.equals("tools/call")) {
                 String toolName = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_TOOL_NAME);
+                Object progressToken = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_PROGRESS_TOKEN);
+                Long startTime = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_TOOL_CALL_START_TIME);
+                JsonRPCTaskMetadata taskMetadata = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_TASK);
+                Map<String, Object> compositeArguments = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_COMPOSITE_ARGUMENTS);
+                String revalidationKey = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_REVALIDATION_KEY);
+                CachedToolResult revalidatedResult = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_REVALIDATED_RESULT);
+                Map<String, Object> searchArguments = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_TOOL_SEARCH);
                 ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_TOOL_NAME);
-                boolean hasOutputSchema = hasToolOutputSchema(toolName);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_PROGRESS_TOKEN);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_TOOL_CALL_START_TIME);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_TASK);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_COMPOSITE_ARGUMENTS);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_REVALIDATION_KEY);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_REVALIDATED_RESULT);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_TOOL_SEARCH);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_HEDGED_ARGUMENTS);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_REPLAY_KEY);
+                ReplayableToolCall replayedCall = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_REPLAYED_CALL);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_REPLAYED_CALL);
+                if (searchArguments != null) {
+                    return Maybe.just(toolResponse(jsonRequestId, searchTools(ctx, searchArguments)));
+                }
+                if (!isToolVisible(ctx, toolName)) {
+                    // Composite tools do not go through the invoker, their visibility is checked now the plan is known
+                    return Maybe.just(invalidParams(jsonRequestId, "Unknown tool: " + toolName));
+                }
+                if (replayedCall != null) {
+                    // The original call may also end before reaching the invoker, the retry does not wait longer than it is kept
+                    return replayedCall.replay().timeout(configuration.getReplayCacheTtl(), TimeUnit.MILLISECONDS);
+                }
+                if (compositeArguments != null) {
+                    MCPTool compositeTool = toolsByName.get(toolName);
+                    CompositeProgress compositeProgress = new CompositeProgress();
+                    Single<JsonRPCCallResponseResults> compositeResult = callCompositeTool(
+                        ctx,
+                        compositeTool,
+                        compositeArguments,
+                        compositeProgress
+                    );
+                    if (taskMetadata != null) {
+                        return Maybe.just(createTask(jsonRequestId, sessionId, taskMetadata, compositeResult));
+                    }
+                    if (progressToken != null) {
+                        int totalCalls = compositeTool.getGatewayMapping().getComposite().getCalls().size();
+                        sendToolResponseWithProgress(
+                            ctx,
+                            jsonRequestId,
+                            compositeResult,
+                            progressToken,
+                            startTime,
+                            compositeProgress,
+                            totalCalls
+                        );
+                        return Maybe.<byte[]>empty();
+                    }
+                    return compositeResult.map(results -> toolResponse(jsonRequestId, results)).toMaybe();
+                }
+                int status = ctx.response().status();
+                if (revalidationKey != null && status == HttpResponseStatus.NOT_MODIFIED.code()) {
+                    if (revalidatedResult == null) {
+                        log.warn("The API answered a call to tool {} with 304 Not Modified although no result was revalidated", toolName);
+                        return Maybe.just(internalError(jsonRequestId));
+                    }
+                    log.debug("Result of tool {} is not modified, serving the cached one", toolName);
+                    // Kept for longer, even if it was evicted while the API was invoked
+                    revalidationCache.put(revalidationKey, revalidatedResult);
+                    return sendPreSerializedResponse(ctx, jsonRequestId, revalidatedResult.response());
+                }
+                String cacheKey = status >= 200 && status < 300 ? revalidationKey : null;
+                String etag = ctx.response().headers().get(HttpHeaderNames.ETAG);
+                String lastModified = ctx.response().headers().get(HttpHeaderNames.LAST_MODIFIED);
+
+                String mimeType = ToolContentType.mimeType(ctx.response().headers().get(HttpHeaderNames.CONTENT_TYPE));
+                if (isStreamed(ctx, toolName, mimeType)) {
+                    if (replayableCall != null) {
+                        replayableCall.forget();
+                    }
+                    sendStreamedToolResponse(ctx, jsonRequestId);
+                    return Maybe.<byte[]>empty();
+                }
                 return ctx
                     .response()
                     .body()
-                    .map(body -> formatToolResponse(jsonRequestId, body, hasOutputSchema));
+                    .map(body -> {
+                        JsonRPCCallResponseResults results = formatToolResult(body, toolName, mimeType);
+                        CachedToolResult cachedToolResult = cacheToolResult(cacheKey, etag, lastModified, results);
+                        return cachedToolResult != null
+                            ? cachedToolResult.response().render(jsonRequestId)
+                            : toolResponse(jsonRequestId, results);
+                    });
+            } else if (mcpMethod.equals("tasks/result")) {
+                return taskResult(jsonRequestId, taskId, sessionId);
+            } else if (mcpMethod.equals("tools/list")) {
+                return sendPreSerializedResponse(ctx, jsonRequestId, toolsListResponses.get(visibleTools(ctx)));
+            } else if (mcpMethod.equals("resources/list")) {
+                return sendPreSerializedResponse(ctx, jsonRequestId, resourcesListResponse);
+            } else if (mcpMethod.equals("resources/read")) {
+                String uri = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_RESOURCE_URI);
+                CachedResource cachedResource = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_CACHED_RESOURCE);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_RESOURCE_URI);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_CACHED_RESOURCE);
+                return readResource(ctx, jsonRequestId, uri, cachedResource);
+            } else if (mcpMethod.equals("prompts/list")) {
+                return sendPreSerializedResponse(ctx, jsonRequestId, promptsListResponse);
+            } else if (mcpMethod.equals("prompts/get")) {
+                String promptName = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_PROMPT_NAME);
+                Map<String, String> promptArguments = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_PROMPT_ARGUMENTS);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_PROMPT_NAME);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_PROMPT_ARGUMENTS);
+                return getPrompt(ctx, jsonRequestId, promptName, promptArguments);
+            } else if (mcpMethod.equals("completion/complete")) {
+                CompletionRequest completionRequest = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_COMPLETION);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_COMPLETION);
+                return complete(ctx, jsonRequestId, completionRequest);
+            } else if (mcpMethod.equals("resources/subscribe") || mcpMethod.equals("resources/unsubscribe")) {
+                String uri = ctx.getInternalAttribute(ATTR_INTERNAL_MCP_RESOURCE_URI);
+                ctx.removeInternalAttribute(ATTR_INTERNAL_MCP_RESOURCE_URI);
+                return Maybe.just(updateSubscription(ctx, jsonRequestId, sessionId, mcpMethod, uri));
             } else {
                 byte[] data = switch (mcpMethod) {
                     case "initialize" -> {
                         Api api = ctx.getComponent(Api.class);
                         yield initialize(jsonRequestId, api.getName(), api.getApiVersion());
                     }
-                    case "tools/list" -> listTools(jsonRequestId, this.tools);
+                    case "tasks/get" -> getTask(jsonRequestId, taskId, sessionId);
+                    case "tasks/cancel" -> cancelTask(jsonRequestId, taskId, sessionId);
                     default -> notSupportedMethod(jsonRequestId, mcpMethod);
                 };
                 return Maybe.just(data);
             }
         })
+            .compose(response -> replayableCall != null ? replayableCall.record(response) : response)
             .onErrorResumeNext(throwable -> {
                 log.error(throwable.getMessage(), throwable);
-                return Maybe.just(internalError());
+                return Maybe.just(internalError(jsonRequestId));
             })
             .flatMapCompletable(data -> {
                 if (data.length != 0) {
-                    Buffer buffer = Buffer.buffer(data);
-                    log.debug("Sending buffer: {}", buffer);
-                    ctx.response().headers().set(HttpHeaderNames.CONTENT_TYPE, MediaType.APPLICATION_JSON);
-                    ctx.response().headers().set(HttpHeaderNames.CONTENT_LENGTH, buffer.length() + "");
-                    ctx.response().status(HttpResponseStatus.OK.code());
-                    ctx.response().body(buffer);
+                    ContentEncoding contentEncoding = data.length >= configuration.getCompressionThreshold()
+                        ? negotiateContentEncoding(ctx)
+                        : null;
+                    if (contentEncoding == null) {
+                        log.debug("Sending buffer: {}", Buffer.buffer(data));
+                        sendJsonResponse(ctx, data, null);
+                    } else {
+                        sendJsonResponse(ctx, ResponseCompressor.compress(data, contentEncoding), contentEncoding);
+                    }
                 }
                 return Completable.complete();
             });
     }
 
-    private byte[] initialize(Integer jsonRequestId, String apiName, String apiVersion) throws JsonProcessingException {
+    private Maybe<byte[]> sendPreSerializedResponse(HttpExecutionContext ctx, JsonRPCId jsonRequestId, PreSerializedResponse response) {
+        ContentEncoding contentEncoding = response.length() >= configuration.getCompressionThreshold()
+            ? negotiateContentEncoding(ctx)
+            : null;
+        if (contentEncoding == null) {
+            return Maybe.just(response.render(jsonRequestId));
+        }
+        sendJsonResponse(ctx, response.render(jsonRequestId, contentEncoding), contentEncoding);
+        return Maybe.empty();
+    }
+
+    private ContentEncoding negotiateContentEncoding(HttpExecutionContext ctx) {
+        if (!configuration.isCompressionEnabled()) {
+            return null;
+        }
+        return ContentEncoding.negotiate(
+            ctx.request().headers().get(HttpHeaderNames.ACCEPT_ENCODING),
+            ResponseCompressor.isZstdAvailable()
+        );
+    }
+
+    private void sendJsonResponse(HttpExecutionContext ctx, byte[] data, ContentEncoding contentEncoding) {
+        Buffer buffer = Buffer.buffer(data);
+        ctx.response().headers().set(HttpHeaderNames.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+        if (contentEncoding != null) {
+            log.debug("Sending {} bytes encoded with {}", buffer.length(), contentEncoding.getValue());
+            ctx.response().headers().set(HttpHeaderNames.CONTENT_ENCODING, contentEncoding.getValue());
+            ctx.response().headers().add(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+        } else {
+            // The body sent to the client is never the one of the backend, so is its encoding
+            ctx.response().headers().remove(HttpHeaderNames.CONTENT_ENCODING);
+        }
+        ctx.response().headers().set(HttpHeaderNames.CONTENT_LENGTH, buffer.length() + "");
+        ctx.response().status(HttpResponseStatus.OK.code());
+        ctx.response().body(buffer);
+    }
+
+    /**
+     * @return whether the text result of a tool is streamed: the upstream response is declared large enough and its text is
+     * sent as is, without projection nor output schema. Responses of unknown size are aggregated.
+     */
+    private boolean isStreamed(HttpExecutionContext ctx, String toolName, String mimeType) {
+        long threshold = configuration.getResponseStreamingThreshold();
+        if (
+            threshold <= 0 ||
+            ToolContentType.of(mimeType) != ToolContentType.TEXT ||
+            projections.containsKey(toolName) ||
+            hasToolOutputSchema(toolName)
+        ) {
+            return false;
+        }
+        String contentLength = ctx.response().headers().get(HttpHeaderNames.CONTENT_LENGTH);
+        if (contentLength == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(contentLength) >= threshold;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sends the text result of a tool as the upstream chunks are received. The status and headers are sent first, so that
+     * an upstream failure midway can only interrupt the response.
+     */
+    private void sendStreamedToolResponse(HttpExecutionContext ctx, JsonRPCId jsonRequestId) {
+        Flowable<Buffer> chunks = streamedToolResponse.render(jsonRequestId, ctx.response().chunks());
+        ctx.response().headers().set(HttpHeaderNames.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+        ctx.response().headers().remove(HttpHeaderNames.CONTENT_LENGTH);
+        ctx.response().headers().remove(HttpHeaderNames.CONTENT_ENCODING);
+        ctx.response().status(HttpResponseStatus.OK.code());
+        ctx.response().chunks(chunks);
+    }
+
+    private byte[] initialize(JsonRPCId jsonRequestId, String apiName, String apiVersion) throws JsonProcessingException {
         JsonRPCInitializeResponse initializeResponse = new JsonRPCInitializeResponse();
         initializeResponse.setId(jsonRequestId);
 
         JsonRPCInitializeResponseResults responseResults = new JsonRPCInitializeResponseResults();
-        responseResults.setCapabilities(Map.of("tools", Map.of()));
+        responseResults.setCapabilities(capabilities());
         responseResults.setServerInfo(JsonRPCInitializeResponseServerInfo.builder().name(apiName).version(apiVersion).build());
         initializeResponse.setResult(responseResults);
         log.debug("Initialize response: {}", initializeResponse);
 
-        return mapper.writeValueAsString(initializeResponse).getBytes();
+        return MCPJson.writeValueAsBytes(initializeResponse);
+    }
+
+    private Map<String, Object> capabilities() {
+        Map<String, Object> capabilities = new LinkedHashMap<>();
+        capabilities.put("tools", Map.of());
+        if (!resourcesByUri.isEmpty()) {
+            capabilities.put("resources", subscriptionManager != null ? Map.of("subscribe", true) : Map.of());
+        }
+        if (!promptsByName.isEmpty()) {
+            capabilities.put("prompts", Map.of());
+        }
+        if (supportsCompletions) {
+            capabilities.put("completions", Map.of());
+        }
+        if (supportsTasks) {
+            Map<String, Object> tasksCapability = new LinkedHashMap<>();
+            tasksCapability.put("cancel", Map.of());
+            tasksCapability.put("requests", Map.of("tools", Map.of("call", Map.of())));
+            capabilities.put("tasks", tasksCapability);
+        }
+        return capabilities;
+    }
+
+    private BitSet visibleTools(HttpExecutionContext ctx) {
+        return toolVisibility.visibleTools(ctx.getAttribute(ExecutionContext.ATTR_PLAN));
+    }
+
+    private boolean isToolVisible(HttpExecutionContext ctx, String toolName) {
+        if (!toolVisibility.isRestricted()) {
+            return true;
+        }
+        Integer toolIndex = toolName != null ? toolIndexes.get(toolName) : null;
+        return toolIndex != null && visibleTools(ctx).get(toolIndex);
     }
 
-    private byte[] listTools(Integer jsonRequestId, List<JsonRPCListResponseResultsTool> tools) throws JsonProcessingException {
-        JsonRPCListResponse listResponse = new JsonRPCListResponse();
-        listResponse.setId(jsonRequestId);
+    /**
+     * @return the pinned tools among the listed ones, followed by the tool searching all the others.
+     */
+    private List<JsonRPCListResponseResultsTool> pinnedTools(List<JsonRPCListResponseResultsTool> listedTools)
+        throws JsonProcessingException {
+        List<JsonRPCListResponseResultsTool> pinnedTools = new ArrayList<>();
+        listedTools.stream().filter(tool -> configuration.getPinnedTools().contains(tool.getName())).forEach(pinnedTools::add);
+        pinnedTools.add(
+            JsonRPCListResponseResultsTool.builder()
+                .name(SEARCH_TOOL_NAME)
+                .description(
+                    "Searches the tools of this API by keywords matched against their name, description and parameters, and returns " +
+                    "the definitions of the best matching ones. Call a returned tool by its name."
+                )
+                .inputSchema(MCPJson.readTree(SEARCH_TOOL_INPUT_SCHEMA))
+                .annotations(MCPToolAnnotations.builder().title("Search tools").readOnlyHint(true).openWorldHint(false).build())
+                .build()
+        );
+        return pinnedTools;
+    }
 
+    private JsonRPCCallResponseResults searchTools(HttpExecutionContext ctx, Map<String, Object> arguments) throws JsonProcessingException {
+        Object query = arguments.get("query");
+        int limit = arguments.get("limit") instanceof Number requestedLimit
+            ? Math.max(1, Math.min(requestedLimit.intValue(), configuration.getToolSearchLimit()))
+            : configuration.getToolSearchLimit();
+        int[] matchingTools = toolSearchIndex.search(
+            query != null ? query.toString() : null,
+            limit,
+            toolVisibility.isRestricted() ? visibleTools(ctx) : null
+        );
+
+        List<JsonRPCListResponseResultsTool> foundTools = new ArrayList<>(matchingTools.length);
+        for (int matchingTool : matchingTools) {
+            foundTools.add(tools.get(matchingTool));
+        }
+        log.debug("Tool search for '{}' found {} tools", query, foundTools.size());
+
+        Map<String, Object> foundContent = Map.of("tools", foundTools);
+        JsonRPCCallResponseResults results = new JsonRPCCallResponseResults();
+        results.setContent(
+            List.of(JsonRPCCallResponseResultsContent.builder().type("text").text(MCPJson.writeValueAsString(foundContent)).build())
+        );
+        results.setStructuredContent(foundContent);
+        return results;
+    }
+
+    private PreSerializedResponse listTools(List<JsonRPCListResponseResultsTool> tools) throws JsonProcessingException {
         JsonRPCListResponseResults responseResults = new JsonRPCListResponseResults();
         responseResults.setTools(tools);
-        listResponse.setResult(responseResults);
 
-        log.debug("Tools/list response: {}", listResponse);
+        log.debug("Tools/list response results: {}", responseResults);
 
-        return mapper.writeValueAsString(listResponse).getBytes();
+        return new PreSerializedResponse(MCPJson.writeValueAsBytes(responseResults));
     }
 
-    private boolean hasToolOutputSchema(String toolName) {
-        return this.configuration.getTools()
+    private PreSerializedResponse listResources(Collection<MCPResource> resources) throws JsonProcessingException {
+        JsonRPCResourcesListResponseResults responseResults = new JsonRPCResourcesListResponseResults();
+        responseResults.setResources(
+            resources
+                .stream()
+                .map(resource ->
+                    JsonRPCResourcesListResponseResultsResource.builder()
+                        .uri(resource.getUri())
+                        .name(resource.getName())
+                        .title(resource.getTitle())
+                        .description(resource.getDescription())
+                        .mimeType(resource.getMimeType())
+                        .build()
+                )
+                .toList()
+        );
+
+        return new PreSerializedResponse(MCPJson.writeValueAsBytes(responseResults));
+    }
+
+    private PreSerializedResponse listPrompts(List<MCPPrompt> prompts) throws JsonProcessingException {
+        JsonRPCPromptsListResponseResults responseResults = new JsonRPCPromptsListResponseResults();
+        responseResults.setPrompts(
+            prompts
+                .stream()
+                .map(prompt ->
+                    JsonRPCPromptsListResponseResultsPrompt.builder()
+                        .name(prompt.getName())
+                        .title(prompt.getTitle())
+                        .description(prompt.getDescription())
+                        .arguments(
+                            prompt
+                                .getArguments()
+                                .stream()
+                                .map(argument ->
+                                    JsonRPCPromptsListResponseResultsPromptArgument.builder()
+                                        .name(argument.getName())
+                                        .description(argument.getDescription())
+                                        .required(argument.isRequired())
+                                        .build()
+                                )
+                                .toList()
+                        )
+                        .build()
+                )
+                .toList()
+        );
+
+        return new PreSerializedResponse(MCPJson.writeValueAsBytes(responseResults));
+    }
+
+    private void handlePromptGetRequest(HttpExecutionContext ctx, JsonNode params) {
+        Map<String, String> arguments = new HashMap<>();
+        params
+            .path("arguments")
+            .fields()
+            .forEachRemaining(argument -> {
+                JsonNode value = argument.getValue();
+                arguments.put(argument.getKey(), value.isTextual() ? value.asText() : value.toString());
+            });
+        ctx.setInternalAttribute(ATTR_INTERNAL_MCP_PROMPT_NAME, params.path("name").asText(null));
+        ctx.setInternalAttribute(ATTR_INTERNAL_MCP_PROMPT_ARGUMENTS, arguments);
+    }
+
+    private Maybe<byte[]> getPrompt(HttpExecutionContext ctx, JsonRPCId jsonRequestId, String promptName, Map<String, String> arguments)
+        throws JsonProcessingException {
+        CompiledPrompt prompt = promptName != null ? promptsByName.get(promptName) : null;
+        if (prompt == null) {
+            return Maybe.just(invalidParams(jsonRequestId, "Unknown prompt: " + promptName));
+        }
+        Map<String, String> values = arguments != null ? arguments : Map.of();
+        String missingArgument = prompt.missingArgument(values);
+        if (missingArgument != null) {
+            return Maybe.just(invalidParams(jsonRequestId, "Missing required argument: " + missingArgument));
+        }
+
+        List<JsonRPCPromptsGetResponseResultsMessage> messages = new ArrayList<>(prompt.templates().size());
+        for (int i = 0; i < prompt.templates().size(); i++) {
+            String text = prompt.templates().get(i).render(values);
+            messages.add(
+                JsonRPCPromptsGetResponseResultsMessage.builder()
+                    .role(prompt.definition().getMessages().get(i).getRole())
+                    .content(JsonRPCCallResponseResultsContent.builder().type("text").text(text).build())
+                    .build()
+            );
+        }
+        JsonRPCPromptsGetResponseResults responseResults = new JsonRPCPromptsGetResponseResults();
+        responseResults.setDescription(prompt.definition().getDescription());
+        responseResults.setMessages(messages);
+        return sendPreSerializedResponse(ctx, jsonRequestId, new PreSerializedResponse(MCPJson.writeValueAsBytes(responseResults)));
+    }
+
+    /**
+     * Completes a tool argument with the values returned by the API when it has an argument completion, otherwise with the
+     * values of its input schema starting with the value typed so far. Prompt arguments have no known values.
+     */
+    private Maybe<byte[]> complete(HttpExecutionContext ctx, JsonRPCId jsonRequestId, CompletionRequest request) throws IOException {
+        if ("ref/prompt".equals(request.refType()) && promptsByName.containsKey(request.refName())) {
+            return Maybe.just(completion(jsonRequestId, List.of(), 0));
+        }
+        MCPTool mcpTool = "ref/tool".equals(request.refType()) && request.refName() != null ? toolsByName.get(request.refName()) : null;
+        if (mcpTool == null || !isToolVisible(ctx, request.refName())) {
+            return Maybe.just(invalidParams(jsonRequestId, "Unknown reference: " + request.refType() + " " + request.refName()));
+        }
+
+        MCPToolArgumentCompletion argumentCompletion = mcpTool
+            .getArgumentCompletions()
             .stream()
-            .filter(mcpTool -> mcpTool.getToolDefinition().getName().equals(toolName))
+            .filter(candidate -> candidate.getArgument().equals(request.argument()))
             .findFirst()
+            .orElse(null);
+        if (argumentCompletion != null) {
+            return completeFromApi(ctx, jsonRequestId, request, argumentCompletion);
+        }
+
+        PrefixIndex index = completionIndex.get(request.refName(), request.argument());
+        if (index == null) {
+            return Maybe.just(completion(jsonRequestId, List.of(), 0));
+        }
+        PrefixIndex.Completion completion = index.complete(request.value(), MAX_COMPLETION_VALUES);
+        return Maybe.just(completion(jsonRequestId, completion.values(), completion.total()));
+    }
+
+    private Maybe<byte[]> completeFromApi(
+        HttpExecutionContext ctx,
+        JsonRPCId jsonRequestId,
+        CompletionRequest request,
+        MCPToolArgumentCompletion argumentCompletion
+    ) throws IOException {
+        String cacheKey = request.refName() + '\u0000' + request.argument() + '\u0000' + request.value();
+        List<String> cachedValues = completionCache != null ? completionCache.get(cacheKey) : null;
+        if (cachedValues != null) {
+            return Maybe.just(completion(jsonRequestId, cachedValues, cachedValues.size()));
+        }
+
+        String uri =
+            endpointUri(ctx, argumentCompletion.getPath()) +
+            (argumentCompletion.getPath().contains("?") ? "&" : "?") +
+            argumentCompletion.getQueryParam() +
+            "=" +
+            URLEncoder.encode(request.value(), StandardCharsets.UTF_8).replace("+", "%20");
+        // A completion is only a suggestion, so an API failing to answer in time or as expected completes nothing
+        return upstreamClient(ctx)
+            .send(new UpstreamRequest("GET", uri, Map.of(HttpHeaderNames.ACCEPT, MediaType.APPLICATION_JSON), null))
+            .timeout(configuration.getUpstreamTimeout(), TimeUnit.MILLISECONDS)
+            .map(response -> {
+                List<String> values = completionValues(request, response);
+                if (values == null) {
+                    return completion(jsonRequestId, List.of(), 0);
+                }
+                if (completionCache != null) {
+                    completionCache.put(cacheKey, values);
+                }
+                return completion(jsonRequestId, values, values.size());
+            })
+            .onErrorReturn(throwable -> {
+                log.warn("Unable to complete argument {} of tool {}", request.argument(), request.refName(), throwable);
+                return completion(jsonRequestId, List.of(), 0);
+            })
+            .toMaybe();
+    }
+
+    /**
+     * @return the scalar values of the JSON array answered by the API, or <code>null</code> when the API did not answer with
+     * a JSON array of at most {@value #MAX_COMPLETION_RESPONSE_SIZE} bytes.
+     */
+    private List<String> completionValues(CompletionRequest request, UpstreamResponse response) throws IOException {
+        if (!response.isSuccessful()) {
+            log.warn(
+                "Unable to complete argument {} of tool {}, the API responded with status {}",
+                request.argument(),
+                request.refName(),
+                response.status()
+            );
+            return null;
+        }
+        if (response.body().length() > MAX_COMPLETION_RESPONSE_SIZE) {
+            log.warn(
+                "Unable to complete argument {} of tool {}, the API response exceeds {} bytes",
+                request.argument(),
+                request.refName(),
+                MAX_COMPLETION_RESPONSE_SIZE
+            );
+            return null;
+        }
+        JsonNode suggestions = MCPJson.readTree(response.body().getBytes());
+        if (suggestions == null || !suggestions.isArray()) {
+            log.warn(
+                "Unable to complete argument {} of tool {}, the API did not respond with a JSON array",
+                request.argument(),
+                request.refName()
+            );
+            return null;
+        }
+        List<String> values = new ArrayList<>(suggestions.size());
+        suggestions.forEach(value -> {
+            if (value.isValueNode() && !value.isNull()) {
+                values.add(value.asText());
+            }
+        });
+        return List.copyOf(values);
+    }
+
+    private byte[] completion(JsonRPCId jsonRequestId, List<String> values, int total) throws JsonProcessingException {
+        List<String> returnedValues = values.size() > MAX_COMPLETION_VALUES ? values.subList(0, MAX_COMPLETION_VALUES) : values;
+        JsonRPCCompleteResponseResults responseResults = new JsonRPCCompleteResponseResults();
+        responseResults.setCompletion(
+            JsonRPCCompleteResponseResultsCompletion.builder()
+                .values(returnedValues)
+                .total(total)
+                .hasMore(total > returnedValues.size())
+                .build()
+        );
+        return new PreSerializedResponse(MCPJson.writeValueAsBytes(responseResults)).render(jsonRequestId);
+    }
+
+    /**
+     * Answers a <code>resources/read</code> from the cached content when it is still fresh or when the upstream tells it is
+     * not modified, otherwise from the upstream response which is then cached.
+     */
+    private Maybe<byte[]> readResource(HttpExecutionContext ctx, JsonRPCId jsonRequestId, String uri, CachedResource cachedResource)
+        throws JsonProcessingException {
+        MCPResource resource = uri != null ? resourcesByUri.get(uri) : null;
+        if (resource == null) {
+            return Maybe.just(resourceNotFound(jsonRequestId, uri));
+        }
+        if (cachedResource != null && Boolean.TRUE.equals(ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP))) {
+            return sendPreSerializedResponse(ctx, jsonRequestId, cachedResource.response());
+        }
+
+        long ttlNanos = TimeUnit.MILLISECONDS.toNanos(configuration.getResourceCacheTtl());
+        int status = ctx.response().status();
+        if (cachedResource != null && status == HttpResponseStatus.NOT_MODIFIED.code()) {
+            log.debug("Resource {} is not modified", uri);
+            CachedResource refreshedResource = cachedResource.refresh(ttlNanos);
+            resourceCache.put(uri, refreshedResource);
+            return sendPreSerializedResponse(ctx, jsonRequestId, refreshedResource.response());
+        }
+        if (status < 200 || status >= 300) {
+            return Maybe.just(resourceUnavailable(jsonRequestId, uri, status));
+        }
+
+        String mimeType = resource.getMimeType() != null
+            ? resource.getMimeType()
+            : ToolContentType.mimeType(ctx.response().headers().get(HttpHeaderNames.CONTENT_TYPE));
+        String etag = ctx.response().headers().get(HttpHeaderNames.ETAG);
+        String lastModified = ctx.response().headers().get(HttpHeaderNames.LAST_MODIFIED);
+        return ctx
+            .response()
+            .body()
+            .defaultIfEmpty(Buffer.buffer())
+            .flatMapMaybe(body -> {
+                PreSerializedResponse response = new PreSerializedResponse(
+                    MCPJson.writeValueAsBytes(resourceContents(uri, mimeType, body))
+                );
+                if (resourceCache != null) {
+                    CachedResource newResource = new CachedResource(etag, lastModified, response, System.nanoTime() + ttlNanos);
+                    if (newResource.canBeRevalidated()) {
+                        resourceCache.put(uri, newResource);
+                    } else {
+                        resourceCache.put(uri, newResource, Duration.ofNanos(ttlNanos));
+                    }
+                }
+                return sendPreSerializedResponse(ctx, jsonRequestId, response);
+            });
+    }
+
+    private byte[] updateSubscription(HttpExecutionContext ctx, JsonRPCId jsonRequestId, String sessionId, String mcpMethod, String uri)
+        throws IOException {
+        if (subscriptionManager == null) {
+            return notSupportedMethod(jsonRequestId, mcpMethod);
+        }
+        MCPResource resource = uri != null ? resourcesByUri.get(uri) : null;
+        if (resource == null) {
+            return resourceNotFound(jsonRequestId, uri);
+        }
+        if (sessionId == null) {
+            return invalidParams(jsonRequestId, "A session is required to subscribe to resources");
+        }
+
+        if (mcpMethod.equals("resources/subscribe")) {
+            String resourceUri = endpointUri(ctx, resource.getPath());
+            String accept = resource.getMimeType() != null ? resource.getMimeType() : "*/*";
+            UpstreamClient client = upstreamClient(ctx);
+            subscriptionManager.subscribe(sessionId, uri, etag -> {
+                Map<String, String> headers = new LinkedHashMap<>();
+                headers.put(HttpHeaderNames.ACCEPT, accept);
+                if (etag != null) {
+                    headers.put(HttpHeaderNames.IF_NONE_MATCH, etag);
+                }
+                return client.send(new UpstreamRequest("GET", resourceUri, headers, null));
+            });
+        } else {
+            subscriptionManager.unsubscribe(sessionId, uri);
+        }
+        return EMPTY_RESULT.render(jsonRequestId);
+    }
+
+    /**
+     * Streams the notifications of the resources the session subscribed to, until the client closes the stream.
+     */
+    private void sendSessionStream(HttpExecutionContext ctx, String sessionId) {
+        Flowable<Buffer> notifications = subscriptionManager == null || sessionId == null
+            ? Flowable.empty()
+            : subscriptionManager.updates(sessionId).map(uri -> sseMessage(resourceUpdatedNotification(uri)));
+
+        ctx.response().headers().set(HttpHeaderNames.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM);
+        ctx.response().headers().remove(HttpHeaderNames.CONTENT_LENGTH);
+        ctx.response().status(HttpResponseStatus.OK.code());
+        ctx.response().chunks(notifications);
+    }
+
+    private byte[] resourceUpdatedNotification(String uri) throws JsonProcessingException {
+        JsonRPCResourceUpdatedNotification notification = new JsonRPCResourceUpdatedNotification();
+        notification.setParams(JsonRPCResourceUpdatedNotificationParams.builder().uri(uri).build());
+        return MCPJson.writeValueAsBytes(notification);
+    }
+
+    private JsonRPCResourcesReadResponseResults resourceContents(String uri, String mimeType, Buffer body) {
+        JsonRPCResourcesReadResponseResultsContent.JsonRPCResourcesReadResponseResultsContentBuilder content =
+            JsonRPCResourcesReadResponseResultsContent.builder().uri(uri).mimeType(mimeType);
+        if (ToolContentType.of(mimeType) == ToolContentType.TEXT) {
+            content.text(body.toString());
+        } else {
+            content.blob(body);
+        }
+
+        JsonRPCResourcesReadResponseResults results = new JsonRPCResourcesReadResponseResults();
+        results.setContents(List.of(content.build()));
+        return results;
+    }
+
+    private boolean hasToolOutputSchema(String toolName) {
+        return Optional.ofNullable(toolName)
+            .map(toolsByName::get)
             .map(mcpTool -> mcpTool.getToolDefinition().getOutputSchema() != null)
             .orElse(false);
     }
 
-    private byte[] formatToolResponse(Integer jsonRequestId, Buffer buffer, boolean hasOutputSchema) throws IOException {
-        JsonRPCCallResponse callResponse = new JsonRPCCallResponse();
-        callResponse.setId(jsonRequestId);
+    private MCPToolTaskSupport toolTaskSupport(String toolName) {
+        return Optional.ofNullable(toolName)
+            .map(toolsByName::get)
+            .filter(MCPHandler::isComposite)
+            .map(mcpTool -> mcpTool.getToolDefinition().getExecution())
+            .map(MCPToolExecution::getTaskSupport)
+            .orElse(MCPToolTaskSupport.FORBIDDEN);
+    }
 
+    private byte[] formatToolResponse(JsonRPCId jsonRequestId, Buffer buffer, String toolName, String mimeType) throws IOException {
+        return toolResponse(jsonRequestId, formatToolResult(buffer, toolName, mimeType));
+    }
+
+    /**
+     * Maps the upstream response to the tool result according to its content type: <code>image/*</code> and
+     * <code>audio/*</code> bodies become <code>image</code> and <code>audio</code> contents, other binary bodies embedded
+     * resources, and textual bodies <code>text</code> contents. Binary bodies are kept as buffers and only base64-encoded
+     * while the response is serialized.
+     */
+    private JsonRPCCallResponseResults formatToolResult(Buffer buffer, String toolName, String mimeType) throws IOException {
         JsonRPCCallResponseResults jsonRPCCallResponseResults = new JsonRPCCallResponseResults();
 
-        if (hasOutputSchema) {
-            JsonNode bodyContent = mapper.readTree(buffer.getBytes());
+        ToolContentType contentType = ToolContentType.of(mimeType);
+        if (contentType == ToolContentType.TEXT) {
+            buffer = project(toolName, mimeType, buffer);
+        }
+
+        if (contentType == ToolContentType.IMAGE || contentType == ToolContentType.AUDIO) {
+            jsonRPCCallResponseResults.setContent(
+                List.of(
+                    JsonRPCCallResponseResultsContent.builder()
+                        .type(contentType == ToolContentType.IMAGE ? "image" : "audio")
+                        .data(buffer)
+                        .mimeType(mimeType)
+                        .build()
+                )
+            );
+        } else if (contentType == ToolContentType.RESOURCE) {
+            jsonRPCCallResponseResults.setContent(
+                List.of(
+                    JsonRPCCallResponseResultsContent.builder()
+                        .type("resource")
+                        .resource(
+                            JsonRPCCallResponseResultsResource.builder().uri("tool://" + toolName).mimeType(mimeType).blob(buffer).build()
+                        )
+                        .build()
+                )
+            );
+        } else if (hasToolOutputSchema(toolName)) {
+            JsonNode bodyContent = MCPJson.readTree(buffer.getBytes());
             var encapsulatedContent = Map.of("bodySchema", bodyContent);
 
             jsonRPCCallResponseResults.setContent(
                 List.of(
-                    JsonRPCCallResponseResultsContent.builder().type("text").text(mapper.writeValueAsString(encapsulatedContent)).build()
+                    JsonRPCCallResponseResultsContent.builder().type("text").text(MCPJson.writeValueAsString(encapsulatedContent)).build()
                 )
             );
             jsonRPCCallResponseResults.setStructuredContent(encapsulatedContent);
@@ -365,31 +1775,439 @@ public class MCPHandler {
             );
         }
 
+        return jsonRPCCallResponseResults;
+    }
+
+    /**
+     * Makes concurrently all the HTTP calls of a composite tool and merges their results under their key, so that the tool
+     * call lasts as long as the slowest of them. A failed call is reported under its key and flags the whole result as an error.
+     * Each call is counted in <code>progress</code> once done, whatever its outcome, along with the bytes it received.
+     */
+    private Single<JsonRPCCallResponseResults> callCompositeTool(
+        HttpExecutionContext ctx,
+        MCPTool tool,
+        Map<String, Object> arguments,
+        CompositeProgress progress
+    ) throws IOException {
+        MCPGatewayMappingComposite composite = tool.getGatewayMapping().getComposite();
+        String target = compositeTarget(ctx, composite);
+        UpstreamClient client = upstreamClient(ctx);
+
+        List<Single<CompositeCallResult>> calls = new ArrayList<>(composite.getCalls().size());
+        for (MCPGatewayMappingCompositeCall call : composite.getCalls()) {
+            UpstreamRequest upstreamRequest = upstreamRequest(ctx, target, arguments, call.getHttp());
+            log.debug(
+                "Composite tool {} calls {} {} for {}",
+                tool.getToolDefinition().getName(),
+                upstreamRequest.method(),
+                upstreamRequest.uri(),
+                call.getKey()
+            );
+            calls.add(
+                client
+                    .send(upstreamRequest)
+                    .timeout(composite.getTimeout(), TimeUnit.MILLISECONDS)
+                    .doOnSuccess(response -> progress.receivedBytes.addAndGet(response.body().length()))
+                    .map(response -> compositeCallResult(call.getKey(), response))
+                    .onErrorReturn(throwable -> {
+                        log.warn("Call {} of composite tool {} failed", call.getKey(), tool.getToolDefinition().getName(), throwable);
+                        Map<String, Object> error = new LinkedHashMap<>();
+                        error.put("error", Objects.requireNonNullElse(throwable.getMessage(), throwable.getClass().getSimpleName()));
+                        return new CompositeCallResult(call.getKey(), error, true);
+                    })
+                    .doOnSuccess(result -> progress.completedCalls.incrementAndGet())
+            );
+        }
+        if (calls.isEmpty()) {
+            return Single.just(mergeCompositeResults(new Object[0]));
+        }
+        return Single.zip(calls, this::mergeCompositeResults);
+    }
+
+    private CompositeCallResult compositeCallResult(String key, UpstreamResponse response) {
+        Object value = response.body().toString();
+        String mimeType = ToolContentType.mimeType(response.contentType());
+        if (mimeType != null && mimeType.endsWith("json") && response.body().length() > 0) {
+            try {
+                value = MCPJson.readTree(response.body().getBytes());
+            } catch (IOException e) {
+                log.debug("Response of composite call {} is not valid JSON, keeping it as text", key);
+            }
+        }
+        if (response.isSuccessful()) {
+            return new CompositeCallResult(key, value, false);
+        }
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("status", response.status());
+        error.put("error", value);
+        return new CompositeCallResult(key, error, true);
+    }
+
+    private JsonRPCCallResponseResults mergeCompositeResults(Object[] callResults) throws JsonProcessingException {
+        Map<String, Object> merged = new LinkedHashMap<>();
+        boolean isError = false;
+        for (Object callResult : callResults) {
+            CompositeCallResult compositeCallResult = (CompositeCallResult) callResult;
+            merged.put(compositeCallResult.key(), compositeCallResult.value());
+            isError |= compositeCallResult.failed();
+        }
+
+        JsonRPCCallResponseResults jsonRPCCallResponseResults = new JsonRPCCallResponseResults();
+        jsonRPCCallResponseResults.setContent(
+            List.of(JsonRPCCallResponseResultsContent.builder().type("text").text(MCPJson.writeValueAsString(merged)).build())
+        );
+        jsonRPCCallResponseResults.setStructuredContent(merged);
+        jsonRPCCallResponseResults.setError(isError);
+        return jsonRPCCallResponseResults;
+    }
+
+    /**
+     * Builds the request of a tool HTTP mapping sent directly to the upstream, outside of the API invoker. The credentials of
+     * the AI agent are forwarded, the flows of the API not running for this request.
+     */
+    private UpstreamRequest upstreamRequest(
+        HttpExecutionContext ctx,
+        String target,
+        Map<String, Object> arguments,
+        MCPGatewayMappingHttp http
+    ) throws JsonProcessingException {
+        String path = relativeToContextPath(ctx, buildPath(arguments, http));
+        String uri = (target.endsWith("/") ? target.substring(0, target.length() - 1) : target) + path;
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        HttpHeaders requestHeaders = ctx.request().headers();
+        for (String header : CREDENTIAL_HEADERS) {
+            List<String> values = requestHeaders.getAll(header);
+            if (values != null && !values.isEmpty()) {
+                headers.put(header, String.join(HttpHeaderNames.COOKIE.equals(header) ? "; " : ", ", values));
+            }
+        }
+        http
+            .getHeaders()
+            .stream()
+            .filter(header -> arguments.get(header) != null)
+            .forEach(header -> headers.put(header, arguments.get(header).toString()));
+        headers.put(HttpHeaderNames.ACCEPT, MediaType.APPLICATION_JSON);
+
+        Buffer body = null;
+        if (arguments.get("bodySchema") != null) {
+            body = Buffer.buffer(MCPJson.writeValueAsBytes(arguments.get("bodySchema")));
+            headers.put(HttpHeaderNames.CONTENT_TYPE, http.getContentType());
+        }
+        return new UpstreamRequest(http.getMethod(), uri, headers, body);
+    }
+
+    /**
+     * @return the configured target of the composite tool or, by default, the target of the first endpoint of the API.
+     */
+    private String compositeTarget(HttpExecutionContext ctx, MCPGatewayMappingComposite composite) throws IOException {
+        if (composite.getTarget() != null && !composite.getTarget().isBlank()) {
+            return composite.getTarget();
+        }
+        return endpointTarget(ctx);
+    }
+
+    /**
+     * @return the uri of a path of the API on its first endpoint.
+     */
+    private String endpointUri(HttpExecutionContext ctx, String path) throws IOException {
+        String target = endpointTarget(ctx);
+        if (target.endsWith("/")) {
+            target = target.substring(0, target.length() - 1);
+        }
+        return target + relativeToContextPath(ctx, path);
+    }
+
+    /**
+     * @return the target of the first endpoint of the API, for the calls made by the entrypoint itself.
+     */
+    private String endpointTarget(HttpExecutionContext ctx) throws IOException {
+        Api api = ctx.getComponent(Api.class);
+        String endpointConfiguration = api
+            .getDefinition()
+            .getEndpointGroups()
+            .stream()
+            .flatMap(endpointGroup -> endpointGroup.getEndpoints().stream())
+            .map(endpoint -> endpoint.getConfiguration())
+            .filter(Objects::nonNull)
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("No endpoint to call"));
+        return MCPJson.readTree(endpointConfiguration).path("target").asText();
+    }
+
+    private UpstreamClient upstreamClient(HttpExecutionContext ctx) {
+        UpstreamClient client = upstreamClient;
+        if (client == null) {
+            synchronized (this) {
+                if (upstreamClient == null) {
+                    upstreamClient = upstreamClientFactory.apply(ctx);
+                }
+                client = upstreamClient;
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Applies the projection of the tool, if any, to a JSON upstream response. A response which is not valid JSON is kept as is.
+     */
+    private Buffer project(String toolName, String mimeType, Buffer buffer) {
+        JsonProjection projection = toolName == null ? null : projections.get(toolName);
+        if (projection == null || (mimeType != null && !mimeType.endsWith("json"))) {
+            return buffer;
+        }
+        try {
+            return Buffer.buffer(projection.apply(buffer.getBytes()));
+        } catch (IOException e) {
+            log.debug("Response of tool {} is not valid JSON, it is not projected", toolName);
+            return buffer;
+        }
+    }
+
+    private byte[] toolResponse(JsonRPCId jsonRequestId, JsonRPCCallResponseResults jsonRPCCallResponseResults)
+        throws JsonProcessingException {
+        JsonRPCCallResponse callResponse = new JsonRPCCallResponse();
+        callResponse.setId(jsonRequestId);
         callResponse.setResult(jsonRPCCallResponseResults);
         log.debug("Tools/call response: {}", callResponse);
 
-        return mapper.writeValueAsString(callResponse).getBytes();
+        return MCPJson.writeValueAsBytes(callResponse);
     }
 
-    private byte[] notSupportedMethod(Integer jsonRequestId, String method) throws JsonProcessingException {
-        return mapper
-            .writeValueAsString(JsonRPCResponseError.newError(jsonRequestId, McpErrorCodes.METHOD_NOT_FOUND, "Method not found: " + method))
-            .getBytes();
+    /**
+     * Accepts the tool call as a task: the tool result is awaited in the background while the task handle is returned right
+     * away to the client, which then polls <code>tasks/get</code> or fetches the result with <code>tasks/result</code>.
+     */
+    private byte[] createTask(
+        JsonRPCId jsonRequestId,
+        String sessionId,
+        JsonRPCTaskMetadata taskMetadata,
+        Single<JsonRPCCallResponseResults> toolResult
+    ) throws JsonProcessingException {
+        MCPTask task = taskStore.create(sessionId, taskMetadata.getTtl());
+        log.debug("Tool call is running as task {}", task.getTaskId());
+        task.runWith(toolResult);
+
+        JsonRPCCreateTaskResponse createTaskResponse = new JsonRPCCreateTaskResponse();
+        createTaskResponse.setId(jsonRequestId);
+
+        JsonRPCCreateTaskResponseResults responseResults = new JsonRPCCreateTaskResponseResults();
+        responseResults.setTask(toJsonRPCTask(task));
+        createTaskResponse.setResult(responseResults);
+
+        return MCPJson.writeValueAsBytes(createTaskResponse);
+    }
+
+    private byte[] getTask(JsonRPCId jsonRequestId, String taskId, String sessionId) throws JsonProcessingException {
+        MCPTask task = taskStore.get(taskId, sessionId);
+        if (task == null) {
+            return invalidParams(jsonRequestId, "Task not found: " + taskId);
+        }
+        return taskResponse(jsonRequestId, task);
     }
 
-    private byte[] invalidRequest() throws JsonProcessingException {
-        return mapper
-            .writeValueAsString(JsonRPCResponseError.newError(-1, McpErrorCodes.INVALID_REQUEST, "Json is not a valid request"))
-            .getBytes();
+    private byte[] cancelTask(JsonRPCId jsonRequestId, String taskId, String sessionId) throws JsonProcessingException {
+        MCPTask task = taskStore.get(taskId, sessionId);
+        if (task == null) {
+            return invalidParams(jsonRequestId, "Task not found: " + taskId);
+        }
+        if (!task.cancel()) {
+            return invalidParams(jsonRequestId, "Task " + taskId + " is already " + task.getStatus().getValue());
+        }
+        return taskResponse(jsonRequestId, task);
+    }
+
+    /**
+     * Waits for the task to reach a terminal status, bounded by its time-to-live, and returns the result of the tool call.
+     */
+    private Maybe<byte[]> taskResult(JsonRPCId jsonRequestId, String taskId, String sessionId) {
+        MCPTask task = taskStore.get(taskId, sessionId);
+        if (task == null) {
+            return Maybe.fromCallable(() -> invalidParams(jsonRequestId, "Task not found: " + taskId));
+        }
+        return task
+            .completion()
+            .timeout(task.getTtl(), TimeUnit.MILLISECONDS)
+            .andThen(Maybe.fromCallable(() -> terminatedTaskResult(jsonRequestId, task)));
+    }
+
+    private byte[] terminatedTaskResult(JsonRPCId jsonRequestId, MCPTask task) throws JsonProcessingException {
+        return switch (task.getStatus()) {
+            case COMPLETED -> toolResponse(jsonRequestId, task.getResult());
+            case FAILED -> MCPJson.writeValueAsBytes(
+                JsonRPCResponseError.newError(
+                    jsonRequestId,
+                    McpErrorCodes.INTERNAL_ERROR,
+                    "Task " + task.getTaskId() + " failed: " + task.getStatusMessage()
+                )
+            );
+            default -> invalidParams(jsonRequestId, "Task " + task.getTaskId() + " is " + task.getStatus().getValue());
+        };
+    }
+
+    private byte[] taskResponse(JsonRPCId jsonRequestId, MCPTask task) throws JsonProcessingException {
+        JsonRPCTaskResponse taskResponse = new JsonRPCTaskResponse();
+        taskResponse.setId(jsonRequestId);
+
+        JsonRPCTaskResponseResults responseResults = new JsonRPCTaskResponseResults();
+        responseResults.setTask(toJsonRPCTask(task));
+        taskResponse.setResult(responseResults);
+        log.debug("Task response: {}", taskResponse);
+
+        return MCPJson.writeValueAsBytes(taskResponse);
+    }
+
+    private JsonRPCTask toJsonRPCTask(MCPTask task) {
+        return JsonRPCTask.builder()
+            .taskId(task.getTaskId())
+            .status(task.getStatus().getValue())
+            .statusMessage(task.getStatusMessage())
+            .createdAt(task.getCreatedAt().toString())
+            .lastUpdatedAt(task.getLastUpdatedAt().toString())
+            .ttl(task.getTtl())
+            .pollInterval(configuration.getTaskPollInterval())
+            .build();
+    }
+
+    /**
+     * Streams the response of a composite tool as Server-Sent Events: a <code>notifications/progress</code> message is emitted every
+     * <code>progressNotificationInterval</code> milliseconds (on the shared computation scheduler) while its calls run, then the
+     * <code>tools/call</code> response is sent as the last message of the stream. The calls only start once the stream is
+     * subscribed, so the agent is notified for the whole wait.
+     */
+    private void sendToolResponseWithProgress(
+        HttpExecutionContext ctx,
+        JsonRPCId jsonRequestId,
+        Single<JsonRPCCallResponseResults> toolResult,
+        Object progressToken,
+        long startTime,
+        CompositeProgress progress,
+        int totalCalls
+    ) {
+        long interval = configuration.getProgressNotificationInterval();
+
+        Single<Buffer> toolResponse = toolResult
+            .map(results -> sseMessage(toolResponse(jsonRequestId, results)))
+            .onErrorReturn(throwable -> {
+                log.error(throwable.getMessage(), throwable);
+                return sseMessage(internalError(jsonRequestId));
+            })
+            .cache();
+
+        Flowable<Buffer> progressNotifications = Flowable.interval(interval, interval, TimeUnit.MILLISECONDS)
+            .map(tick -> sseMessage(progressNotification(progressToken, startTime, progress, totalCalls)))
+            .takeUntil(toolResponse.toFlowable());
+
+        ctx.response().headers().set(HttpHeaderNames.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM);
+        ctx.response().headers().remove(HttpHeaderNames.CONTENT_LENGTH);
+        ctx.response().status(HttpResponseStatus.OK.code());
+        ctx.response().chunks(Flowable.merge(progressNotifications, toolResponse.toFlowable()));
+    }
+
+    private byte[] progressNotification(Object progressToken, long startTime, CompositeProgress progress, int totalCalls)
+        throws JsonProcessingException {
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        // The progress must increase with each notification, which the number of completed calls does not
+        JsonRPCProgressNotification progressNotification = new JsonRPCProgressNotification();
+        progressNotification.setParams(
+            JsonRPCProgressNotificationParams.builder()
+                .progressToken(progressToken)
+                .progress(elapsed)
+                .message(
+                    String.format(
+                        "%d of %d calls completed, %d bytes received, %d ms elapsed",
+                        progress.completedCalls.get(),
+                        totalCalls,
+                        progress.receivedBytes.get(),
+                        elapsed
+                    )
+                )
+                .build()
+        );
+        log.debug("Progress notification: {}", progressNotification);
+
+        return MCPJson.writeValueAsBytes(progressNotification);
+    }
+
+    private Buffer sseMessage(byte[] data) {
+        return Buffer.buffer(SseEvent.builder().event("message").data(data).build().format());
+    }
+
+    private byte[] notSupportedMethod(JsonRPCId jsonRequestId, String method) throws JsonProcessingException {
+        return MCPJson.writeValueAsBytes(
+            JsonRPCResponseError.newError(jsonRequestId, McpErrorCodes.METHOD_NOT_FOUND, "Method not found: " + method)
+        );
+    }
+
+    private byte[] invalidParams(JsonRPCId jsonRequestId, String reason) throws JsonProcessingException {
+        return MCPJson.writeValueAsBytes(JsonRPCResponseError.newError(jsonRequestId, McpErrorCodes.INVALID_PARAMS, reason));
+    }
+
+    private byte[] resourceNotFound(JsonRPCId jsonRequestId, String uri) throws JsonProcessingException {
+        return MCPJson.writeValueAsBytes(
+            JsonRPCResponseError.newError(jsonRequestId, McpErrorCodes.RESOURCE_NOT_FOUND, "Resource not found: " + uri)
+        );
+    }
+
+    private byte[] resourceUnavailable(JsonRPCId jsonRequestId, String uri, int status) throws JsonProcessingException {
+        return MCPJson.writeValueAsBytes(
+            JsonRPCResponseError.newError(
+                jsonRequestId,
+                McpErrorCodes.INTERNAL_ERROR,
+                "Unable to read resource " + uri + ", the API responded with status " + status
+            )
+        );
+    }
+
+    private byte[] invalidRequest(JsonRPCId jsonRequestId) throws JsonProcessingException {
+        return MCPJson.writeValueAsBytes(
+            JsonRPCResponseError.newError(
+                Objects.requireNonNullElse(jsonRequestId, JsonRPCId.NULL),
+                McpErrorCodes.INVALID_REQUEST,
+                "Json is not a valid request"
+            )
+        );
+    }
+
+    private byte[] requestTooLarge() throws JsonProcessingException {
+        return MCPJson.writeValueAsBytes(
+            JsonRPCResponseError.newError(
+                JsonRPCId.NULL,
+                McpErrorCodes.INVALID_REQUEST,
+                "Request body exceeds the maximum size of " + configuration.getMaxRequestSize() + " bytes"
+            )
+        );
     }
 
     private byte[] parseError() throws JsonProcessingException {
-        return mapper.writeValueAsString(JsonRPCResponseError.newError(-1, McpErrorCodes.PARSE_ERROR, "Json body is not valid")).getBytes();
+        return MCPJson.writeValueAsBytes(
+            JsonRPCResponseError.newError(JsonRPCId.NULL, McpErrorCodes.PARSE_ERROR, "Json body is not valid")
+        );
+    }
+
+    private byte[] internalError(JsonRPCId jsonRequestId) throws JsonProcessingException {
+        return MCPJson.writeValueAsBytes(
+            JsonRPCResponseError.newError(
+                Objects.requireNonNullElse(jsonRequestId, JsonRPCId.NULL),
+                McpErrorCodes.INTERNAL_ERROR,
+                "Error occurred during request handling"
+            )
+        );
     }
 
-    private byte[] internalError() throws JsonProcessingException {
-        return mapper
-            .writeValueAsString(JsonRPCResponseError.newError(-1, McpErrorCodes.INTERNAL_ERROR, "Error occurred during request handling"))
-            .getBytes();
+    private record CompositeCallResult(String key, Object value, boolean failed) {}
+
+    private static class CompositeProgress {
+
+        private final AtomicInteger completedCalls = new AtomicInteger();
+        private final AtomicLong receivedBytes = new AtomicLong();
+    }
+
+    private static class RequestTooLargeException extends RuntimeException {
+
+        RequestTooLargeException(long maxRequestSize) {
+            super("MCP request body exceeds the maximum size of " + maxRequestSize + " bytes");
+        }
     }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service;
+
+import io.gravitee.entrypoint.mcp.model.JsonRPCId;
+import io.gravitee.entrypoint.mcp.service.compression.ContentEncoding;
+import io.gravitee.entrypoint.mcp.service.compression.ResponseCompressor;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A JSON-RPC response whose <code>result</code> is serialized once: only the request id changes from one response to another.
+ * The part following the id is also compressed once per content encoding, on first use.
+ */
+class PreSerializedResponse {
+
+    private static final byte[] HEAD = "{\"jsonrpc\":\"2.0\",\"id\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RESULT_START = ",\"result\":".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] tail;
+    private final Map<ContentEncoding, ResponseCompressor.CompressedTail> compressedTails = new ConcurrentHashMap<>();
+
+    PreSerializedResponse(byte[] result) {
+        this.tail = new byte[RESULT_START.length + result.length + 1];
+        System.arraycopy(RESULT_START, 0, tail, 0, RESULT_START.length);
+        System.arraycopy(result, 0, tail, RESULT_START.length, result.length);
+        tail[tail.length - 1] = '}';
+    }
+
+    /**
+     * @return the length of the uncompressed response, ignoring the id.
+     */
+    int length() {
+        return HEAD.length + tail.length;
+    }
+
+    byte[] render(JsonRPCId jsonRequestId) {
+        byte[] id = jsonRequestId.bytes();
+        byte[] response = new byte[HEAD.length + id.length + tail.length];
+        System.arraycopy(HEAD, 0, response, 0, HEAD.length);
+        System.arraycopy(id, 0, response, HEAD.length, id.length);
+        System.arraycopy(tail, 0, response, HEAD.length + id.length, tail.length);
+        return response;
+    }
+
+    byte[] render(JsonRPCId jsonRequestId, ContentEncoding contentEncoding) {
+        byte[] id = jsonRequestId.bytes();
+        byte[] head = new byte[HEAD.length + id.length];
+        System.arraycopy(HEAD, 0, head, 0, HEAD.length);
+        System.arraycopy(id, 0, head, HEAD.length, id.length);
+        ResponseCompressor.CompressedTail compressedTail = compressedTails.computeIfAbsent(contentEncoding, encoding ->
+            ResponseCompressor.compressTail(tail, encoding)
+        );
+        return ResponseCompressor.compress(head, compressedTail, contentEncoding);
+    }
+}
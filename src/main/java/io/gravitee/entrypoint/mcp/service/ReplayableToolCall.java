@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service;
+
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.subjects.MaybeSubject;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Response of a <code>tools/call</code> shared with the retries of the same call: a retry arriving while the call is in
+ * flight waits for its response, a later one gets the response right away.
+ */
+final class ReplayableToolCall {
+
+    private final MaybeSubject<byte[]> response = MaybeSubject.create();
+    private final Runnable onFailure;
+
+    /**
+     * @param onFailure called when the call fails or is cancelled, its retries failing too.
+     */
+    ReplayableToolCall(Runnable onFailure) {
+        this.onFailure = onFailure;
+    }
+
+    /**
+     * @return the response of the call, shared with its retries once emitted.
+     */
+    Maybe<byte[]> record(Maybe<byte[]> callResponse) {
+        return callResponse
+            .doOnSuccess(response::onSuccess)
+            .doOnComplete(response::onComplete)
+            .doOnError(this::fail)
+            .doOnDispose(this::cancel);
+    }
+
+    Maybe<byte[]> replay() {
+        return response.hide();
+    }
+
+    /**
+     * Stops sharing a call whose response is not recorded, e.g. because it is streamed: its retries call the API again.
+     */
+    void forget() {
+        fail(new IllegalStateException("Response of the tool call is not recorded"));
+    }
+
+    /**
+     * Fails a call cancelled before its response is recorded, e.g. while the API is invoked.
+     */
+    void cancel() {
+        fail(new CancellationException("Tool call cancelled"));
+    }
+
+    /**
+     * Fails a call unless its response is recorded already: its retries fail too and the later ones call the API again.
+     */
+    void fail(Throwable throwable) {
+        if (response.hasValue() || response.hasComplete() || response.hasThrowable()) {
+            return;
+        }
+        onFailure.run();
+        response.onError(throwable);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.gravitee.entrypoint.mcp.model.JsonRPCId;
+import io.gravitee.entrypoint.mcp.model.call.JsonRPCCallResponseResults;
+import io.gravitee.entrypoint.mcp.model.call.JsonRPCCallResponseResultsContent;
+import io.gravitee.entrypoint.mcp.service.json.MCPJson;
+import io.gravitee.gateway.api.buffer.Buffer;
+import io.reactivex.rxjava3.core.Flowable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A <code>tools/call</code> response whose text content is written as the upstream chunks are received: the start of the
+ * response up to the text, each chunk escaped as a part of a JSON string, then the end of the response. JSON escapes only
+ * concern ASCII bytes, which never occur within a multibyte UTF-8 sequence, so that chunks are escaped independently of
+ * where they were split.
+ */
+class StreamedToolResponse {
+
+    private static final byte[] HEAD = "{\"jsonrpc\":\"2.0\",\"id\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RESULT_START = ",\"result\":".getBytes(StandardCharsets.UTF_8);
+    private static final String TEXT_PLACEHOLDER = "TEXT_PLACEHOLDER";
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] beforeText;
+    private final byte[] afterText;
+
+    StreamedToolResponse() throws JsonProcessingException {
+        // The result is serialized once around a placeholder so that its fields stay those of a non-streamed result
+        JsonRPCCallResponseResults results = new JsonRPCCallResponseResults();
+        results.setContent(List.of(JsonRPCCallResponseResultsContent.builder().type("text").text(TEXT_PLACEHOLDER).build()));
+        String result = new String(MCPJson.writeValueAsBytes(results), StandardCharsets.UTF_8);
+        int placeholder = result.indexOf(TEXT_PLACEHOLDER);
+
+        byte[] resultStart = result.substring(0, placeholder).getBytes(StandardCharsets.UTF_8);
+        this.beforeText = Arrays.copyOf(RESULT_START, RESULT_START.length + resultStart.length);
+        System.arraycopy(resultStart, 0, beforeText, RESULT_START.length, resultStart.length);
+        this.afterText = (result.substring(placeholder + TEXT_PLACEHOLDER.length()) + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    Flowable<Buffer> render(JsonRPCId jsonRequestId, Flowable<Buffer> chunks) {
+        return Flowable.concat(
+            Flowable.fromCallable(() -> head(jsonRequestId)),
+            chunks.map(StreamedToolResponse::escape),
+            Flowable.fromCallable(() -> Buffer.buffer(afterText))
+        );
+    }
+
+    private Buffer head(JsonRPCId jsonRequestId) {
+        byte[] id = jsonRequestId.bytes();
+        byte[] head = new byte[HEAD.length + id.length + beforeText.length];
+        System.arraycopy(HEAD, 0, head, 0, HEAD.length);
+        System.arraycopy(id, 0, head, HEAD.length, id.length);
+        System.arraycopy(beforeText, 0, head, HEAD.length + id.length, beforeText.length);
+        return Buffer.buffer(head);
+    }
+
+    /**
+     * Escapes a chunk the way Jackson escapes a string: quotes, backslashes and control characters. Unlike Jackson,
+     * characters outside the Basic Multilingual Plane are kept as UTF-8 rather than escaped as surrogate pairs. A chunk with
+     * nothing to escape is returned as is.
+     */
+    static Buffer escape(Buffer chunk) {
+        byte[] bytes = chunk.getBytes();
+        int extraLength = 0;
+        for (byte b : bytes) {
+            if (b == '"' || b == '\\') {
+                extraLength += 1;
+            } else if (b >= 0 && b < 0x20) {
+                extraLength += shortEscape(b) != 0 ? 1 : 5;
+            }
+        }
+        if (extraLength == 0) {
+            return chunk;
+        }
+
+        byte[] escaped = new byte[bytes.length + extraLength];
+        int position = 0;
+        for (byte b : bytes) {
+            if (b == '"' || b == '\\') {
+                escaped[position++] = '\\';
+                escaped[position++] = b;
+            } else if (b >= 0 && b < 0x20) {
+                escaped[position++] = '\\';
+                byte shortEscape = shortEscape(b);
+                if (shortEscape != 0) {
+                    escaped[position++] = shortEscape;
+                } else {
+                    escaped[position++] = 'u';
+                    escaped[position++] = '0';
+                    escaped[position++] = '0';
+                    escaped[position++] = HEX_DIGITS[b >> 4];
+                    escaped[position++] = HEX_DIGITS[b & 0xF];
+                }
+            } else {
+                escaped[position++] = b;
+            }
+        }
+        return Buffer.buffer(escaped);
+    }
+
+    private static byte shortEscape(byte b) {
+        return switch (b) {
+            case '\b' -> 'b';
+            case '\t' -> 't';
+            case '\n' -> 'n';
+            case '\f' -> 'f';
+            case '\r' -> 'r';
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service;
+
+import io.gravitee.gateway.reactive.api.context.http.HttpExecutionContext;
+import io.gravitee.gateway.reactive.api.invoker.HttpInvoker;
+import io.reactivex.rxjava3.core.Completable;
+
+/**
+ * Wraps the invoker of the gateway for a <code>tools/call</code>. The entrypoint handles the request before the security
+ * chain identifies the consumer of the API, so what depends on it can only be decided here, right before the API is called.
+ */
+class ToolCallInvoker implements HttpInvoker {
+
+    /**
+     * Invokes the API with the invoker of the gateway, deciding beforehand what depends on the consumer.
+     */
+    @FunctionalInterface
+    interface Interceptor {
+        Completable invoke(HttpExecutionContext ctx, HttpInvoker invoker) throws Exception;
+    }
+
+    private final HttpInvoker delegate;
+    private final Interceptor interceptor;
+
+    ToolCallInvoker(HttpInvoker delegate, Interceptor interceptor) {
+        this.delegate = delegate;
+        this.interceptor = interceptor;
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public Completable invoke(HttpExecutionContext ctx) {
+        return Completable.defer(() -> interceptor.invoke(ctx, delegate));
+    }
+}
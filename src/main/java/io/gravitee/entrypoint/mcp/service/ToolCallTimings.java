@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monotonic timestamps taken at the phase boundaries of a <code>tools/call</code>: reading and parsing the MCP request,
+ * mapping it to the upstream request, waiting for the upstream response, then formatting and sending the MCP response.
+ * Recording a phase is a single {@link System#nanoTime()} read. The phases of slow calls are logged, not reported as tracing
+ * spans: the tracer of the gateway starts its spans from the Vert.x context of the request, which the entrypoint does not own.
+ */
+class ToolCallTimings {
+
+    private final String toolName;
+    private final long received;
+    private final long parsed;
+    private long mapped;
+    private long responseReceived;
+    private long sent;
+
+    ToolCallTimings(String toolName, long received, long parsed) {
+        this.toolName = toolName;
+        this.received = received;
+        this.parsed = parsed;
+        this.mapped = parsed;
+    }
+
+    String toolName() {
+        return toolName;
+    }
+
+    void mapped() {
+        mapped = System.nanoTime();
+    }
+
+    void responseReceived() {
+        responseReceived = System.nanoTime();
+    }
+
+    void sent() {
+        sent = System.nanoTime();
+    }
+
+    long totalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(sent - received);
+    }
+
+    @Override
+    public String toString() {
+        long upstreamEnd = responseReceived != 0 ? responseReceived : sent;
+        return String.format(
+            Locale.ROOT,
+            "total=%.1fms parse=%.1fms mapping=%.1fms upstream=%.1fms response=%.1fms",
+            millis(sent - received),
+            millis(parsed - received),
+            millis(mapped - parsed),
+            millis(upstreamEnd - mapped),
+            millis(sent - upstreamEnd)
+        );
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service;
+
+import java.util.Locale;
+
+/**
+ * Kind of MCP content a tool result is mapped to, according to the content type of the upstream response.
+ */
+enum ToolContentType {
+    TEXT,
+    IMAGE,
+    AUDIO,
+    RESOURCE;
+
+    static ToolContentType of(String mimeType) {
+        if (mimeType == null) {
+            return TEXT;
+        }
+        if (mimeType.startsWith("image/")) {
+            return IMAGE;
+        }
+        if (mimeType.startsWith("audio/")) {
+            return AUDIO;
+        }
+        if (
+            mimeType.startsWith("text/") ||
+            mimeType.endsWith("json") ||
+            mimeType.endsWith("xml") ||
+            mimeType.endsWith("yaml") ||
+            mimeType.equals("application/javascript") ||
+            mimeType.equals("application/x-www-form-urlencoded")
+        ) {
+            return TEXT;
+        }
+        return RESOURCE;
+    }
+
+    /**
+     * @return the media type of a <code>Content-Type</code> header, without its parameters, or <code>null</code> if the header is absent.
+     */
+    static String mimeType(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return null;
+        }
+        int parametersStart = contentType.indexOf(';');
+        return (parametersStart < 0 ? contentType : contentType.substring(0, parametersStart)).trim().toLowerCase(Locale.ROOT);
+    }
+}
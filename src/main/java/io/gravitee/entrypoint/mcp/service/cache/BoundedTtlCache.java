@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Small in-memory cache bounded both in size and in time: entries expire after their time-to-live and the eldest entries
+ * are evicted once <code>maxSize</code> is exceeded. An optional listener is told about the values evicted that way, for instance
+ * to release what they hold.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maxSize;
+    private final long defaultTtlNanos;
+    private final Consumer<V> evictionListener;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public BoundedTtlCache(int maxSize, Duration defaultTtl) {
+        this(maxSize, defaultTtl, value -> {});
+    }
+
+    /**
+     * @param evictionListener called, while holding the lock of the cache, with each value evicted because the cache is full or
+     *                         because it expired. Values removed or replaced explicitly are not reported.
+     */
+    public BoundedTtlCache(int maxSize, Duration defaultTtl, Consumer<V> evictionListener) {
+        this.maxSize = maxSize;
+        this.defaultTtlNanos = defaultTtl.toNanos();
+        this.evictionListener = evictionListener;
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                boolean evicted = size() > BoundedTtlCache.this.maxSize || eldest.getValue().isExpired(System.nanoTime());
+                if (evicted) {
+                    evictionListener.accept(eldest.getValue().value());
+                }
+                return evicted;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(key);
+            evictionListener.accept(entry.value());
+            return null;
+        }
+        return entry.value();
+    }
+
+    public void put(K key, V value) {
+        put(key, value, defaultTtlNanos);
+    }
+
+    public void put(K key, V value, Duration ttl) {
+        put(key, value, Math.min(ttl.toNanos(), defaultTtlNanos));
+    }
+
+    /**
+     * Puts the value unless the key is mapped to an entry not expired yet.
+     *
+     * @return the value the key is already mapped to, or <code>null</code> when the value was put.
+     */
+    public synchronized V putIfAbsent(K key, V value) {
+        V existingValue = get(key);
+        if (existingValue != null) {
+            return existingValue;
+        }
+        put(key, value, defaultTtlNanos);
+        return null;
+    }
+
+    public synchronized V remove(K key) {
+        Entry<V> entry = entries.remove(key);
+        return entry == null ? null : entry.value();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void put(K key, V value, long ttlNanos) {
+        // Remove first so that a refreshed entry moves to the end of the eviction order
+        entries.remove(key);
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
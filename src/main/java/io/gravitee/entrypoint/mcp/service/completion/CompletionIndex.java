@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.completion;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.entrypoint.mcp.configuration.MCPTool;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Values known upfront for the arguments of each tool, taken from the <code>enum</code>, <code>const</code> and
+ * <code>examples</code> of their input schema, or of the items of an array argument.
+ */
+public final class CompletionIndex {
+
+    private final Map<String, Map<String, PrefixIndex>> indexesByTool;
+
+    private CompletionIndex(Map<String, Map<String, PrefixIndex>> indexesByTool) {
+        this.indexesByTool = indexesByTool;
+    }
+
+    public static CompletionIndex build(List<MCPTool> tools) {
+        Map<String, Map<String, PrefixIndex>> indexesByTool = new HashMap<>();
+        for (MCPTool tool : tools) {
+            JsonNode properties = tool.getToolDefinition().getInputSchema() != null
+                ? tool.getToolDefinition().getInputSchema().path("properties")
+                : null;
+            if (properties == null || !properties.isObject()) {
+                continue;
+            }
+
+            Map<String, PrefixIndex> indexes = new HashMap<>();
+            properties
+                .fields()
+                .forEachRemaining(property -> {
+                    Set<String> values = new LinkedHashSet<>();
+                    collectValues(property.getValue(), values);
+                    collectValues(property.getValue().path("items"), values);
+                    if (!values.isEmpty()) {
+                        indexes.put(property.getKey(), PrefixIndex.of(values));
+                    }
+                });
+            if (!indexes.isEmpty()) {
+                indexesByTool.putIfAbsent(tool.getToolDefinition().getName(), indexes);
+            }
+        }
+        return new CompletionIndex(indexesByTool);
+    }
+
+    /**
+     * @return the index of the values of an argument, or <code>null</code> when none is known.
+     */
+    public PrefixIndex get(String toolName, String argumentName) {
+        Map<String, PrefixIndex> indexes = indexesByTool.get(toolName);
+        return indexes != null ? indexes.get(argumentName) : null;
+    }
+
+    public boolean isEmpty() {
+        return indexesByTool.isEmpty();
+    }
+
+    private static void collectValues(JsonNode schema, Set<String> values) {
+        schema.path("enum").forEach(value -> addValue(value, values));
+        schema.path("examples").forEach(value -> addValue(value, values));
+        addValue(schema.path("const"), values);
+    }
+
+    private static void addValue(JsonNode value, Set<String> values) {
+        if (value.isValueNode() && !value.isNull()) {
+            values.add(value.asText());
+        }
+    }
+}
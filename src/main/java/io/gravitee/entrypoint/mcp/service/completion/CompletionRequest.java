@@ -0,0 +1,26 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.completion;
+
+/**
+ * Parameters of a <code>completion/complete</code> request.
+ *
+ * @param refType the type of the completed reference, <code>ref/tool</code> or <code>ref/prompt</code>.
+ * @param refName the name of the tool or prompt.
+ * @param argument the name of the completed argument.
+ * @param value the value of the argument typed so far.
+ */
+public record CompletionRequest(String refType, String refName, String argument, String value) {}
@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.completion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Values sorted case-insensitively, so the values starting with a prefix are found with a binary search for the first
+ * of them followed by a scan of the next ones.
+ */
+public final class PrefixIndex {
+
+    private final String[] values;
+
+    private PrefixIndex(String[] values) {
+        this.values = values;
+    }
+
+    public static PrefixIndex of(Collection<String> values) {
+        TreeSet<String> sortedValues = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        sortedValues.addAll(values);
+        return new PrefixIndex(sortedValues.toArray(String[]::new));
+    }
+
+    /**
+     * @param prefix the prefix of the values, compared ignoring case.
+     * @param maxValues the maximum number of values returned.
+     */
+    public Completion complete(String prefix, int maxValues) {
+        String start = prefix != null ? prefix : "";
+        int from = Arrays.binarySearch(values, start, String.CASE_INSENSITIVE_ORDER);
+        if (from < 0) {
+            from = -from - 1;
+        }
+        int to = from;
+        while (to < values.length && values[to].regionMatches(true, 0, start, 0, start.length())) {
+            to++;
+        }
+
+        List<String> matches = new ArrayList<>(Math.min(to - from, maxValues));
+        for (int i = from; i < to && matches.size() < maxValues; i++) {
+            matches.add(values[i]);
+        }
+        return new Completion(matches, to - from);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @param values the first values matching the prefix.
+     * @param total the number of values matching the prefix.
+     */
+    public record Completion(List<String> values, int total) {
+        public boolean hasMore() {
+            return total > values.size();
+        }
+    }
+}
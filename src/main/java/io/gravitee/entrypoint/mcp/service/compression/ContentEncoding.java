@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.compression;
+
+import lombok.Getter;
+
+/**
+ * Content encodings the entrypoint is able to produce, by order of preference.
+ */
+@Getter
+public enum ContentEncoding {
+    ZSTD("zstd"),
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    private static final ContentEncoding[] VALUES = values();
+
+    private final String value;
+
+    ContentEncoding(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Selects the content encoding to use from an <code>Accept-Encoding</code> header: the supported encoding with the highest
+     * quality value wins, ties being broken by order of preference.
+     *
+     * @param acceptEncoding the <code>Accept-Encoding</code> header sent by the client, may be <code>null</code>.
+     * @param zstdAvailable whether zstd compression is available on the classpath.
+     * @return the selected encoding or <code>null</code> when the response must not be compressed.
+     */
+    public static ContentEncoding negotiate(String acceptEncoding, boolean zstdAvailable) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+
+        float[] qualities = { -1f, -1f, -1f };
+        float wildcardQuality = -1f;
+
+        int start = 0;
+        int length = acceptEncoding.length();
+        while (start < length) {
+            int end = acceptEncoding.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            int parametersStart = acceptEncoding.indexOf(';', start);
+            int codingEnd = parametersStart < 0 || parametersStart > end ? end : parametersStart;
+            float quality = codingEnd == end ? 1f : quality(acceptEncoding, codingEnd + 1, end);
+
+            int codingStart = skipWhitespaces(acceptEncoding, start, codingEnd);
+            int codingLength = trimmedLength(acceptEncoding, codingStart, codingEnd);
+            if (codingLength == 1 && acceptEncoding.charAt(codingStart) == '*') {
+                wildcardQuality = quality;
+            } else {
+                for (ContentEncoding contentEncoding : VALUES) {
+                    String value = contentEncoding.value;
+                    if (codingLength == value.length() && acceptEncoding.regionMatches(true, codingStart, value, 0, codingLength)) {
+                        qualities[contentEncoding.ordinal()] = quality;
+                    }
+                }
+            }
+            start = end + 1;
+        }
+
+        ContentEncoding selected = null;
+        float selectedQuality = 0f;
+        for (ContentEncoding contentEncoding : VALUES) {
+            if (contentEncoding == ZSTD && !zstdAvailable) {
+                continue;
+            }
+            float quality = qualities[contentEncoding.ordinal()] >= 0 ? qualities[contentEncoding.ordinal()] : wildcardQuality;
+            if (quality > selectedQuality) {
+                selected = contentEncoding;
+                selectedQuality = quality;
+            }
+        }
+        return selected;
+    }
+
+    private static float quality(String header, int start, int end) {
+        int parameterStart = skipWhitespaces(header, start, end);
+        if (end - parameterStart < 2 || Character.toLowerCase(header.charAt(parameterStart)) != 'q' || header.charAt(parameterStart + 1) != '=') {
+            return 1f;
+        }
+        int valueStart = parameterStart + 2;
+        try {
+            return Float.parseFloat(header.substring(valueStart, valueStart + trimmedLength(header, valueStart, end)));
+        } catch (NumberFormatException e) {
+            return 0f;
+        }
+    }
+
+    private static int skipWhitespaces(String header, int start, int end) {
+        while (start < end && Character.isWhitespace(header.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimmedLength(String header, int start, int end) {
+        while (end > start && Character.isWhitespace(header.charAt(end - 1))) {
+            end--;
+        }
+        return end - start;
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses JSON-RPC response bodies.
+ *
+ * <p>
+ * Besides plain compression, it supports responses made of a small head changing on every request (e.g. the JSON-RPC id)
+ * followed by a large tail computed once: the tail is compressed once into a {@link CompressedTail} and each response only
+ * costs a stored deflate block for the head and the combination of both checksums.
+ * </p>
+ */
+public final class ResponseCompressor {
+
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+    private static final byte[] ZLIB_HEADER = { 0x78, (byte) 0x9c };
+    private static final int STORED_BLOCK_HEADER_LENGTH = 5;
+    private static final int MAX_STORED_BLOCK_LENGTH = 0xffff;
+    private static final long CRC32_POLYNOMIAL = 0xedb88320L;
+    private static final long ADLER32_BASE = 65521;
+    private static final int ZSTD_LEVEL = 3;
+    private static final Method ZSTD_COMPRESS = zstdCompressMethod();
+
+    private ResponseCompressor() {}
+
+    /**
+     * @return <code>true</code> if zstd-jni is available on the classpath.
+     */
+    public static boolean isZstdAvailable() {
+        return ZSTD_COMPRESS != null;
+    }
+
+    public static byte[] compress(byte[] data, ContentEncoding contentEncoding) {
+        return switch (contentEncoding) {
+            case GZIP -> {
+                ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+                try (GZIPOutputStream gzipOutput = new GZIPOutputStream(output)) {
+                    gzipOutput.write(data);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                yield output.toByteArray();
+            }
+            case DEFLATE -> {
+                ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+                try (DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(output)) {
+                    deflaterOutput.write(data);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                yield output.toByteArray();
+            }
+            case ZSTD -> zstd(data);
+        };
+    }
+
+    /**
+     * Compresses once the tail of responses sharing the same content after their head.
+     */
+    public static CompressedTail compressTail(byte[] tail, ContentEncoding contentEncoding) {
+        return switch (contentEncoding) {
+            case GZIP -> {
+                CRC32 crc32 = new CRC32();
+                crc32.update(tail);
+                yield new CompressedTail(rawDeflate(tail), tail.length, crc32.getValue(), crc32ShiftOperator(tail.length));
+            }
+            case DEFLATE -> {
+                Adler32 adler32 = new Adler32();
+                adler32.update(tail);
+                yield new CompressedTail(rawDeflate(tail), tail.length, adler32.getValue(), null);
+            }
+            case ZSTD -> new CompressedTail(zstd(tail), tail.length, 0, null);
+        };
+    }
+
+    /**
+     * Produces the compressed form of <code>head</code> followed by the uncompressed content of <code>tail</code>.
+     */
+    public static byte[] compress(byte[] head, CompressedTail tail, ContentEncoding contentEncoding) {
+        return switch (contentEncoding) {
+            case GZIP -> {
+                CRC32 crc32 = new CRC32();
+                crc32.update(head);
+                long checksum = gf2MatrixTimes(tail.crc32Shift(), crc32.getValue()) ^ tail.checksum();
+
+                ByteBuffer output = ByteBuffer.allocate(
+                    GZIP_HEADER.length + STORED_BLOCK_HEADER_LENGTH + head.length + tail.data().length + 8
+                ).order(ByteOrder.LITTLE_ENDIAN);
+                output.put(GZIP_HEADER);
+                putStoredBlock(output, head);
+                output.put(tail.data());
+                output.putInt((int) checksum);
+                output.putInt((int) (head.length + tail.length()));
+                yield output.array();
+            }
+            case DEFLATE -> {
+                Adler32 adler32 = new Adler32();
+                adler32.update(head);
+                long checksum = adler32Combine(adler32.getValue(), tail.checksum(), tail.length());
+
+                ByteBuffer output = ByteBuffer.allocate(ZLIB_HEADER.length + STORED_BLOCK_HEADER_LENGTH + head.length + tail.data().length + 4);
+                output.put(ZLIB_HEADER);
+                putStoredBlock(output, head);
+                output.put(tail.data());
+                output.putInt((int) checksum);
+                yield output.array();
+            }
+            case ZSTD -> {
+                // A zstd content is a sequence of frames, decompressed one after the other
+                byte[] compressedHead = zstd(head);
+                byte[] output = new byte[compressedHead.length + tail.data().length];
+                System.arraycopy(compressedHead, 0, output, 0, compressedHead.length);
+                System.arraycopy(tail.data(), 0, output, compressedHead.length, tail.data().length);
+                yield output;
+            }
+        };
+    }
+
+    /**
+     * Writes <code>data</code> as a non-final stored deflate block, leaving the stream aligned on a byte boundary so that an
+     * independently compressed deflate stream can follow it.
+     */
+    private static void putStoredBlock(ByteBuffer output, byte[] data) {
+        if (data.length > MAX_STORED_BLOCK_LENGTH) {
+            throw new IllegalArgumentException("Head is too large to be stored in a single deflate block: " + data.length);
+        }
+        // BFINAL = 0, BTYPE = 00 then padding to the byte boundary
+        output.put((byte) 0);
+        // LEN and NLEN, always little endian
+        output.put((byte) data.length);
+        output.put((byte) (data.length >>> 8));
+        output.put((byte) ~data.length);
+        output.put((byte) (~data.length >>> 8));
+        output.put(data);
+    }
+
+    private static byte[] rawDeflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                output.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] zstd(byte[] data) {
+        if (ZSTD_COMPRESS == null) {
+            throw new IllegalStateException("zstd compression is not available");
+        }
+        try {
+            return (byte[]) ZSTD_COMPRESS.invoke(null, data, ZSTD_LEVEL);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Unable to compress with zstd", e);
+        }
+    }
+
+    private static Method zstdCompressMethod() {
+        try {
+            return Class.forName("com.github.luben.zstd.Zstd", true, ResponseCompressor.class.getClassLoader()).getMethod(
+                "compress",
+                byte[].class,
+                int.class
+            );
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Builds the GF(2) operator appending <code>length</code> bytes to a CRC-32, so that
+     * <code>crc(a + b) = shift(crc(a)) ^ crc(b)</code> where <code>b</code> is <code>length</code> bytes long.
+     */
+    private static long[] crc32ShiftOperator(long length) {
+        long[] operator = new long[32];
+        for (int n = 0; n < 32; n++) {
+            operator[n] = crc32Shift(1L << n, length);
+        }
+        return operator;
+    }
+
+    /**
+     * Appends <code>length</code> zero bytes to the CRC-32 register <code>crc</code>, as zlib <code>crc32_combine</code> does.
+     */
+    private static long crc32Shift(long crc, long length) {
+        long[] even = new long[32];
+        long[] odd = new long[32];
+
+        // Operator for one zero bit
+        odd[0] = CRC32_POLYNOMIAL;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        // Operators for two then four zero bits
+        gf2MatrixSquare(even, odd);
+        gf2MatrixSquare(odd, even);
+
+        // Apply length zero bytes, one bit of length at a time, starting with one zero byte
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((length & 1) != 0) {
+                crc = gf2MatrixTimes(even, crc);
+            }
+            length >>= 1;
+            if (length == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((length & 1) != 0) {
+                crc = gf2MatrixTimes(odd, crc);
+            }
+            length >>= 1;
+        } while (length != 0);
+        return crc;
+    }
+
+    private static long gf2MatrixTimes(long[] matrix, long vector) {
+        long sum = 0;
+        int n = 0;
+        while (vector != 0) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[n];
+            }
+            vector >>>= 1;
+            n++;
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(matrix, matrix[n]);
+        }
+    }
+
+    /**
+     * Same as zlib <code>adler32_combine</code>.
+     */
+    private static long adler32Combine(long adler1, long adler2, long length2) {
+        long remainder = length2 % ADLER32_BASE;
+        long sum1 = adler1 & 0xffff;
+        long sum2 = (remainder * sum1) % ADLER32_BASE;
+        sum1 += (adler2 & 0xffff) + ADLER32_BASE - 1;
+        sum2 += ((adler1 >> 16) & 0xffff) + ((adler2 >> 16) & 0xffff) + ADLER32_BASE - remainder;
+        if (sum1 >= ADLER32_BASE) {
+            sum1 -= ADLER32_BASE;
+        }
+        if (sum1 >= ADLER32_BASE) {
+            sum1 -= ADLER32_BASE;
+        }
+        if (sum2 >= (ADLER32_BASE << 1)) {
+            sum2 -= (ADLER32_BASE << 1);
+        }
+        if (sum2 >= ADLER32_BASE) {
+            sum2 -= ADLER32_BASE;
+        }
+        return (sum2 << 16) | sum1;
+    }
+
+    /**
+     * The tail of a response compressed once for a given content encoding.
+     *
+     * @param data the compressed tail: a final raw deflate stream for gzip and deflate, a zstd frame for zstd.
+     * @param length the length of the uncompressed tail.
+     * @param checksum the CRC-32 (gzip) or Adler-32 (deflate) of the uncompressed tail.
+     * @param crc32Shift the operator appending the tail length to a CRC-32 (gzip only).
+     */
+    public record CompressedTail(byte[] data, int length, long checksum, long[] crc32Shift) {}
+}
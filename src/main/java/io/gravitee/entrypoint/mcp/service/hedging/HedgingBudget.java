@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the hedged requests to a share of the calls: each call deposits that share of a request in the budget and each
+ * hedged request withdraws a whole one. The balance is bounded so that a quiet period does not allow a burst of hedges.
+ */
+public class HedgingBudget {
+
+    private static final long REQUEST = 1000;
+    private static final long MAX_BALANCE = 10 * REQUEST;
+
+    private final long deposit;
+    private final AtomicLong balance = new AtomicLong();
+
+    /**
+     * @param percent the share in percent of the calls that can be hedged.
+     */
+    public HedgingBudget(int percent) {
+        this.deposit = percent * REQUEST / 100;
+    }
+
+    public void deposit() {
+        balance.accumulateAndGet(deposit, (current, amount) -> Math.min(current + amount, MAX_BALANCE));
+    }
+
+    /**
+     * @return whether a hedged request is allowed, which is then withdrawn from the budget.
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < REQUEST) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - REQUEST));
+        return true;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.hedging;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of the last calls of a tool, kept in a ring of fixed size. The tracked percentile is computed again every
+ * few recorded calls rather than each time it is read.
+ */
+public class LatencyTracker {
+
+    static final int MIN_SAMPLES = 20;
+    private static final int RECOMPUTE_INTERVAL = 16;
+
+    private final long[] samples;
+    private final int percentile;
+    private int count;
+    private int next;
+    private volatile long percentileNanos = -1;
+
+    public LatencyTracker(int capacity, int percentile) {
+        this.samples = new long[Math.max(capacity, MIN_SAMPLES)];
+        this.percentile = percentile;
+    }
+
+    public synchronized void record(long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        if (count >= MIN_SAMPLES && (percentileNanos < 0 || next % RECOMPUTE_INTERVAL == 0)) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            percentileNanos = sorted[Math.max(rank, 0)];
+        }
+    }
+
+    /**
+     * @return the tracked percentile of the latencies in nanoseconds, or -1 while too few calls were recorded.
+     */
+    public long percentileNanos() {
+        return percentileNanos;
+    }
+}
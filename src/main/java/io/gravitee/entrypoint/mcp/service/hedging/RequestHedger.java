@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.hedging;
+
+import io.gravitee.entrypoint.mcp.service.upstream.UpstreamResponse;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a primary invocation and, when it did not complete within the tracked percentile of its latency, sends a hedged
+ * request, budget permitting. The first to finish wins and the other one is cancelled, a hedged request only winning with a
+ * successful response: when it fails, the primary invocation keeps running.
+ */
+@Slf4j
+public class RequestHedger {
+
+    private final HedgingBudget budget;
+    private final Scheduler scheduler;
+
+    public RequestHedger(HedgingBudget budget, Scheduler scheduler) {
+        this.budget = budget;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @return the response of the hedged request when it won, nothing when the primary invocation completed first.
+     */
+    public Maybe<UpstreamResponse> hedge(Completable primary, Single<UpstreamResponse> hedgedRequest, LatencyTracker latencies) {
+        return Maybe.defer(() -> {
+            budget.deposit();
+            long start = System.nanoTime();
+            Maybe<UpstreamResponse> primaryResult = primary
+                .doOnComplete(() -> latencies.record(System.nanoTime() - start))
+                // An invocation cancelled for the hedged request was at least that slow, which still accounts for the tail
+                .doOnDispose(() -> latencies.record(System.nanoTime() - start))
+                .toMaybe();
+
+            long hedgeDelay = latencies.percentileNanos();
+            if (hedgeDelay < 0) {
+                return primaryResult;
+            }
+            Maybe<UpstreamResponse> hedge = Maybe.defer(() -> {
+                if (!budget.tryWithdraw()) {
+                    return Maybe.<UpstreamResponse>never();
+                }
+                log.debug("No response after {}µs, hedging the request", hedgeDelay / 1000);
+                return hedgedRequest
+                    .filter(UpstreamResponse::isSuccessful)
+                    .doOnComplete(() -> log.debug("The hedged request was not successful, waiting for the primary invocation"))
+                    .doOnError(throwable -> log.debug("The hedged request failed, waiting for the primary invocation", throwable))
+                    .onErrorComplete()
+                    .switchIfEmpty(Maybe.never());
+            }).delaySubscription(hedgeDelay, TimeUnit.NANOSECONDS, scheduler);
+            return Maybe.ambArray(primaryResult, hedge);
+        });
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.json;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JSON reading and writing shared by the handlers of all the APIs deployed with the MCP entrypoint, so that serializers and
+ * deserializers are built and cached once for the plugin rather than once per API. Readers and writers are immutable and
+ * resolved once per type. The Blackbird module, which generates the accessors of the models, is used when on the classpath.
+ */
+@Slf4j
+public final class MCPJson {
+
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+
+    private static final ObjectMapper MAPPER = createMapper();
+    private static final ObjectReader READER = MAPPER.reader();
+    private static final ClassValue<ObjectWriter> WRITERS = new ClassValue<>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return MAPPER.writerFor(type);
+        }
+    };
+    private static final ClassValue<ObjectReader> READERS = new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return MAPPER.readerFor(type);
+        }
+    };
+
+    private MCPJson() {}
+
+    private static ObjectMapper createMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        try {
+            mapper.registerModule((Module) Class.forName(BLACKBIRD_MODULE).getDeclaredConstructor().newInstance());
+            log.debug("MCP models are serialized with generated accessors");
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.debug("Blackbird module is not available, MCP models are serialized with reflection");
+        }
+        return mapper;
+    }
+
+    public static JsonFactory factory() {
+        return MAPPER.getFactory();
+    }
+
+    public static JsonNode readTree(byte[] content) throws IOException {
+        return READER.readTree(content);
+    }
+
+    public static JsonNode readTree(String content) throws JsonProcessingException {
+        return READER.readTree(content);
+    }
+
+    public static <T> T treeToValue(JsonNode node, Class<T> type) throws IOException {
+        return READERS.get(type).readValue(node);
+    }
+
+    /**
+     * Finds a value by the names of the fields leading to it, only tokenizing the document and skipping the other values.
+     *
+     * @return the start, inclusive, and the end, exclusive, of the value in the document, quotes included for a string, or
+     * <code>null</code> when the document has no such value.
+     */
+    public static int[] rawRange(byte[] content, String... fieldNames) throws IOException {
+        try (JsonParser parser = MAPPER.getFactory().createParser(content)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            int depth = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!fieldName.equals(fieldNames[depth])) {
+                    parser.skipChildren();
+                } else if (depth == fieldNames.length - 1) {
+                    int start = (int) parser.currentTokenLocation().getByteOffset();
+                    if (value == JsonToken.VALUE_STRING) {
+                        // Strings are only read on demand, looking for the closing quote spares decoding large ones
+                        return new int[] { start, closingQuote(parser, content, start + 1) + 1 };
+                    }
+                    parser.skipChildren();
+                    parser.finishToken();
+                    return new int[] { start, (int) parser.currentLocation().getByteOffset() };
+                } else if (value == JsonToken.START_OBJECT) {
+                    depth++;
+                } else {
+                    return null;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static int closingQuote(JsonParser parser, byte[] content, int from) throws IOException {
+        for (int i = from; i < content.length; i++) {
+            if (content[i] == '\\') {
+                i++;
+            } else if (content[i] == '"') {
+                return i;
+            }
+        }
+        throw new JsonParseException(parser, "Unexpected end-of-input in a string");
+    }
+
+    public static byte[] writeValueAsBytes(Object value) throws JsonProcessingException {
+        return WRITERS.get(value.getClass()).writeValueAsBytes(value);
+    }
+
+    public static String writeValueAsString(Object value) throws JsonProcessingException {
+        return WRITERS.get(value.getClass()).writeValueAsString(value);
+    }
+}
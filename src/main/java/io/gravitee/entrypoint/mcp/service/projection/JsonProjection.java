@@ -0,0 +1,94 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.projection;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import io.gravitee.entrypoint.mcp.configuration.MCPToolProjection;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A tool projection compiled once into a tree of pointer segments, applied as a streaming filter over the tokens of a JSON
+ * document: the document is copied token by token to the output, skipping the values not selected, without building a tree.
+ */
+public class JsonProjection {
+
+    private final JsonFactory jsonFactory;
+    private final ProjectionNode root;
+    private final boolean includeAll;
+
+    private JsonProjection(JsonFactory jsonFactory, ProjectionNode root, boolean includeAll) {
+        this.jsonFactory = jsonFactory;
+        this.root = root;
+        this.includeAll = includeAll;
+    }
+
+    /**
+     * @return the compiled projection or <code>null</code> if it neither includes nor excludes anything.
+     */
+    public static JsonProjection compile(JsonFactory jsonFactory, MCPToolProjection projection) {
+        if (projection == null) {
+            return null;
+        }
+        List<String> include = projection.getInclude() == null ? List.of() : projection.getInclude();
+        List<String> exclude = projection.getExclude() == null ? List.of() : projection.getExclude();
+        if (include.isEmpty() && exclude.isEmpty()) {
+            return null;
+        }
+
+        ProjectionNode root = new ProjectionNode();
+        include.forEach(pointer -> root.add(segments(pointer)).included = true);
+        exclude.forEach(pointer -> root.add(segments(pointer)).excluded = true);
+        return new JsonProjection(jsonFactory, root, include.isEmpty());
+    }
+
+    /**
+     * Applies the projection to a JSON document.
+     *
+     * @throws IOException if the document is not valid JSON.
+     */
+    public byte[] apply(byte[] json) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(Math.min(json.length, 8192));
+        try (
+            JsonParser parser = new FilteringParserDelegate(
+                jsonFactory.createParser(json),
+                new ProjectionFilter(root, includeAll),
+                TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH,
+                true
+            );
+            JsonGenerator generator = jsonFactory.createGenerator(output)
+        ) {
+            if (parser.nextToken() != null) {
+                generator.copyCurrentStructure(parser);
+            }
+        }
+        return output.toByteArray();
+    }
+
+    private static String[] segments(String pointer) {
+        String path = pointer.startsWith("/") ? pointer.substring(1) : pointer;
+        String[] segments = path.split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = segments[i].replace("~1", "/").replace("~0", "~");
+        }
+        return segments;
+    }
+}
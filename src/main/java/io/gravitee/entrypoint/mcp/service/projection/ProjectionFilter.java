@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.projection;
+
+import com.fasterxml.jackson.core.filter.TokenFilter;
+
+/**
+ * Jackson {@link TokenFilter} walking the compiled pointers of a projection along with the parsed document.
+ */
+class ProjectionFilter extends TokenFilter {
+
+    private final ProjectionNode node;
+    private final boolean included;
+
+    ProjectionFilter(ProjectionNode node, boolean included) {
+        this.node = node;
+        this.included = included;
+    }
+
+    @Override
+    public TokenFilter includeProperty(String name) {
+        return filterFor(node.child(name));
+    }
+
+    @Override
+    public TokenFilter includeElement(int index) {
+        if (node.isLeaf()) {
+            return filterFor(null);
+        }
+        ProjectionNode wildcard = node.children.get(ProjectionNode.WILDCARD);
+        if (wildcard != null && node.children.size() == 1) {
+            // Avoid formatting the index when only the wildcard can match
+            return filterFor(wildcard);
+        }
+        ProjectionNode child = node.children.get(Integer.toString(index));
+        return filterFor(child != null ? child : wildcard);
+    }
+
+    @Override
+    public TokenFilter includeRootValue(int index) {
+        return this;
+    }
+
+    @Override
+    protected boolean _includeScalar() {
+        return included;
+    }
+
+    private TokenFilter filterFor(ProjectionNode child) {
+        if (child == null) {
+            return included ? TokenFilter.INCLUDE_ALL : null;
+        }
+        if (child.excluded) {
+            return null;
+        }
+        boolean childIncluded = included || child.included;
+        if (childIncluded && child.isLeaf()) {
+            return TokenFilter.INCLUDE_ALL;
+        }
+        return new ProjectionFilter(child, childIncluded);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.projection;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A segment of the compiled pointers of a projection.
+ */
+class ProjectionNode {
+
+    static final String WILDCARD = "*";
+
+    final Map<String, ProjectionNode> children = new HashMap<>();
+    boolean included;
+    boolean excluded;
+
+    ProjectionNode add(String[] segments) {
+        ProjectionNode node = this;
+        for (String segment : segments) {
+            node = node.children.computeIfAbsent(segment, key -> new ProjectionNode());
+        }
+        return node;
+    }
+
+    ProjectionNode child(String name) {
+        ProjectionNode child = children.get(name);
+        return child != null ? child : children.get(WILDCARD);
+    }
+
+    boolean isLeaf() {
+        return children.isEmpty();
+    }
+}
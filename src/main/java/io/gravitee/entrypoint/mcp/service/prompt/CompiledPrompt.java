@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.prompt;
+
+import io.gravitee.entrypoint.mcp.configuration.MCPPrompt;
+import io.gravitee.entrypoint.mcp.configuration.MCPPromptArgument;
+import io.gravitee.entrypoint.mcp.configuration.MCPPromptMessage;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A prompt whose messages are compiled into templates, in the order of {@link MCPPrompt#getMessages()}.
+ */
+public record CompiledPrompt(MCPPrompt definition, List<PromptTemplate> templates) {
+    public static CompiledPrompt compile(MCPPrompt prompt) {
+        return new CompiledPrompt(
+            prompt,
+            prompt
+                .getMessages()
+                .stream()
+                .map(MCPPromptMessage::getText)
+                .map(PromptTemplate::compile)
+                .toList()
+        );
+    }
+
+    /**
+     * @return the name of the first required argument without a value, or <code>null</code> when all of them are given.
+     */
+    public String missingArgument(Map<String, String> values) {
+        return definition
+            .getArguments()
+            .stream()
+            .filter(MCPPromptArgument::isRequired)
+            .map(MCPPromptArgument::getName)
+            .filter(name -> values.get(name) == null)
+            .findFirst()
+            .orElse(null);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.prompt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template compiled once into the literal segments surrounding its <code>{{argument}}</code> placeholders, so rendering it
+ * appends each segment in turn to a buffer sized upfront instead of searching the placeholders again.
+ * A placeholder without a value is rendered as an empty string, an unclosed <code>{{</code> is kept as is.
+ */
+public final class PromptTemplate {
+
+    private static final String OPENING = "{{";
+    private static final String CLOSING = "}}";
+
+    /**
+     * One more literal than arguments: <code>literals[i]</code> precedes <code>arguments[i]</code>.
+     */
+    private final String[] literals;
+    private final String[] arguments;
+    private final int literalsLength;
+
+    private PromptTemplate(String[] literals, String[] arguments) {
+        this.literals = literals;
+        this.arguments = arguments;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalsLength = length;
+    }
+
+    public static PromptTemplate compile(String template) {
+        String text = template != null ? template : "";
+        List<String> literals = new ArrayList<>();
+        List<String> arguments = new ArrayList<>();
+        int start = 0;
+        int opening = text.indexOf(OPENING);
+        while (opening >= 0) {
+            int closing = text.indexOf(CLOSING, opening + OPENING.length());
+            if (closing < 0) {
+                break;
+            }
+            literals.add(text.substring(start, opening));
+            arguments.add(text.substring(opening + OPENING.length(), closing).trim());
+            start = closing + CLOSING.length();
+            opening = text.indexOf(OPENING, start);
+        }
+        literals.add(text.substring(start));
+        return new PromptTemplate(literals.toArray(String[]::new), arguments.toArray(String[]::new));
+    }
+
+    public String render(Map<String, String> values) {
+        if (arguments.length == 0) {
+            return literals[0];
+        }
+
+        String[] renderedValues = new String[arguments.length];
+        int length = literalsLength;
+        for (int i = 0; i < arguments.length; i++) {
+            String value = values.get(arguments[i]);
+            renderedValues[i] = value != null ? value : "";
+            length += renderedValues[i].length();
+        }
+
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < arguments.length; i++) {
+            builder.append(literals[i]).append(renderedValues[i]);
+        }
+        return builder.append(literals[arguments.length]).toString();
+    }
+
+    /**
+     * @return the names of the arguments referenced by the template, in order of appearance.
+     */
+    public List<String> argumentNames() {
+        return List.of(arguments);
+    }
+}
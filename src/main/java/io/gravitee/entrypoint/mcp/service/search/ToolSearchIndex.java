@@ -0,0 +1,216 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.gravitee.entrypoint.mcp.model.list.JsonRPCListResponseResultsTool;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index of the words of the tool names, parameter names and descriptions, built once from the tool list.
+ * <p>
+ * Words are split on non alphanumeric characters and on camel case, lower-cased, and a trailing <code>s</code> is dropped
+ * from the words longer than three characters. The terms are kept in an open-addressing table hashed on their characters
+ * so that the words of a query are looked up in place, without creating a string for each of them.
+ * A tool scores {@value #NAME_WEIGHT} for each query word found in its name, {@value #PARAMETER_WEIGHT} in a parameter name
+ * and {@value #DESCRIPTION_WEIGHT} in its description.
+ */
+public final class ToolSearchIndex {
+
+    static final int NAME_WEIGHT = 3;
+    static final int PARAMETER_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int[] NO_RESULTS = new int[0];
+
+    private final int toolCount;
+    private final int mask;
+    private final char[][] terms;
+    private final int[][] postings;
+    private final int[][] weights;
+
+    private ToolSearchIndex(int toolCount, Map<String, Map<Integer, Integer>> weightsByTerm) {
+        this.toolCount = toolCount;
+        int capacity = Integer.highestOneBit(Math.max(weightsByTerm.size(), 1) * 2) << 1;
+        this.mask = capacity - 1;
+        this.terms = new char[capacity][];
+        this.postings = new int[capacity][];
+        this.weights = new int[capacity][];
+        weightsByTerm.forEach((term, toolWeights) -> {
+            int slot = hash(term, 0, term.length()) & mask;
+            while (terms[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            terms[slot] = term.toCharArray();
+            postings[slot] = toolWeights.keySet().stream().mapToInt(Integer::intValue).toArray();
+            weights[slot] = Arrays.stream(postings[slot]).map(toolWeights::get).toArray();
+        });
+    }
+
+    public static ToolSearchIndex build(List<JsonRPCListResponseResultsTool> tools) {
+        Map<String, Map<Integer, Integer>> weightsByTerm = new HashMap<>();
+        for (int tool = 0; tool < tools.size(); tool++) {
+            JsonRPCListResponseResultsTool definition = tools.get(tool);
+            index(weightsByTerm, tool, definition.getName(), NAME_WEIGHT);
+            index(weightsByTerm, tool, definition.getDescription(), DESCRIPTION_WEIGHT);
+            JsonNode properties = definition.getInputSchema() != null ? definition.getInputSchema().path("properties") : null;
+            if (properties != null && properties.isObject()) {
+                int toolIndex = tool;
+                properties.fieldNames().forEachRemaining(parameter -> index(weightsByTerm, toolIndex, parameter, PARAMETER_WEIGHT));
+            }
+        }
+        return new ToolSearchIndex(tools.size(), weightsByTerm);
+    }
+
+    /**
+     * @return the indexes of the tools best matching the words of the query, best first then in the order of the tools.
+     */
+    public int[] search(String query, int limit) {
+        return search(query, limit, null);
+    }
+
+    /**
+     * @param visibleTools the indexes of the tools that can be returned, all of them when <code>null</code>.
+     * @return the indexes of the visible tools best matching the words of the query, best first then in the order of the tools.
+     */
+    public int[] search(String query, int limit, BitSet visibleTools) {
+        if (query == null || limit <= 0) {
+            return NO_RESULTS;
+        }
+
+        int[] scores = new int[toolCount];
+        int[] matches = new int[1];
+        tokenize(query, (start, end) -> {
+            int slot = find(query, start, end);
+            if (slot >= 0) {
+                int[] tools = postings[slot];
+                int[] toolWeights = weights[slot];
+                for (int i = 0; i < tools.length; i++) {
+                    if (visibleTools != null && !visibleTools.get(tools[i])) {
+                        continue;
+                    }
+                    if (scores[tools[i]] == 0) {
+                        matches[0]++;
+                    }
+                    scores[tools[i]] += toolWeights[i];
+                }
+            }
+        });
+
+        int[] results = new int[Math.min(limit, matches[0])];
+        int found = 0;
+        for (int tool = 0; tool < toolCount; tool++) {
+            int score = scores[tool];
+            if (score == 0 || (found == results.length && score <= scores[results[found - 1]])) {
+                continue;
+            }
+            // Insertion into the results sorted by decreasing score, keeping the first tool on ties
+            int position = Math.min(found, results.length - 1);
+            while (position > 0 && scores[results[position - 1]] < score) {
+                results[position] = results[position - 1];
+                position--;
+            }
+            results[position] = tool;
+            found = Math.min(found + 1, results.length);
+        }
+        return results;
+    }
+
+    private int find(CharSequence text, int start, int end) {
+        int slot = hash(text, start, end) & mask;
+        char[] term;
+        while ((term = terms[slot]) != null) {
+            if (matches(term, text, start, end)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static void index(Map<String, Map<Integer, Integer>> weightsByTerm, int tool, String text, int weight) {
+        if (text == null) {
+            return;
+        }
+        // A word counts once per field, the weights of the fields of a tool adding up
+        Set<String> fieldTerms = new HashSet<>();
+        tokenize(text, (start, end) -> fieldTerms.add(normalize(text, start, end)));
+        fieldTerms.forEach(term -> weightsByTerm.computeIfAbsent(term, t -> new HashMap<>()).merge(tool, weight, Integer::sum));
+    }
+
+    private static String normalize(CharSequence text, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = Character.toLowerCase(text.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static boolean matches(char[] term, CharSequence text, int start, int end) {
+        if (term.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < term.length; i++) {
+            if (term[i] != Character.toLowerCase(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + Character.toLowerCase(text.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Calls the consumer with the bounds of each word of the text, dropping the trailing <code>s</code> of the long ones.
+     */
+    private static void tokenize(CharSequence text, WordConsumer consumer) {
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            boolean wordChar = Character.isLetterOrDigit(c);
+            boolean camelCaseBoundary = wordChar && start >= 0 && Character.isUpperCase(c) && Character.isLowerCase(text.charAt(i - 1));
+            if (start >= 0 && (!wordChar || camelCaseBoundary)) {
+                int end = i;
+                if (end - start > 3 && Character.toLowerCase(text.charAt(end - 1)) == 's') {
+                    end--;
+                }
+                consumer.accept(start, end);
+                start = -1;
+            }
+            if (wordChar && start < 0) {
+                start = i;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface WordConsumer {
+        void accept(int start, int end);
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.subscription;
+
+import io.gravitee.entrypoint.mcp.service.upstream.UpstreamResponse;
+import io.reactivex.rxjava3.core.BackpressureOverflowStrategy;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.processors.FlowableProcessor;
+import io.reactivex.rxjava3.processors.PublishProcessor;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Polls each subscribed resource once per interval, whatever the number of sessions subscribed to it, and publishes the uri
+ * of a resource whose content changed to the updates of every subscribed session.
+ * A change is detected when the upstream no longer answers <code>304 Not Modified</code> to the last <code>ETag</code> and
+ * the digest of the content differs from the previous one. A poll lasting longer than the interval is abandoned.
+ * <p>
+ * Updates are kept until the session opens its stream, up to {@value #MAX_PENDING_UPDATES} resources. A session that does
+ * not open its stream within the stream timeout is unsubscribed from all its resources.
+ */
+@Slf4j
+public class ResourceSubscriptionManager {
+
+    private static final int MAX_PENDING_UPDATES = 256;
+
+    private final long interval;
+    private final long streamTimeout;
+    private final Consumer<String> changeListener;
+    private final Map<String, PolledResource> resources = new HashMap<>();
+    private final Map<String, Session> sessions = new HashMap<>();
+
+    /**
+     * @param interval the polling interval in milliseconds.
+     * @param streamTimeout the delay in milliseconds within which a subscribed session must open its stream.
+     * @param changeListener notified with the uri of a resource whose content changed, before the sessions.
+     */
+    public ResourceSubscriptionManager(long interval, long streamTimeout, Consumer<String> changeListener) {
+        this.interval = interval;
+        this.streamTimeout = streamTimeout;
+        this.changeListener = changeListener;
+    }
+
+    /**
+     * Subscribes a session to a resource, starting to poll it if it is its first subscriber.
+     *
+     * @param poller reads the resource, passed the <code>ETag</code> of the last read to make a conditional request.
+     */
+    public synchronized void subscribe(String sessionId, String uri, Function<String, Single<UpstreamResponse>> poller) {
+        session(sessionId).uris.add(uri);
+        PolledResource resource = resources.get(uri);
+        if (resource == null) {
+            resource = new PolledResource();
+            resources.put(uri, resource);
+            resource.polling = poll(uri, resource, poller);
+            log.debug("Start polling resource {}", uri);
+        }
+        resource.sessionIds.add(sessionId);
+    }
+
+    public synchronized void unsubscribe(String sessionId, String uri) {
+        Session session = sessions.get(sessionId);
+        if (session != null) {
+            session.uris.remove(uri);
+        }
+        PolledResource resource = resources.get(uri);
+        if (resource != null && resource.sessionIds.remove(sessionId) && resource.sessionIds.isEmpty()) {
+            log.debug("Stop polling resource {}", uri);
+            resources.remove(uri);
+            resource.polling.dispose();
+        }
+    }
+
+    /**
+     * @return the uris of the updated resources the session is subscribed to. Cancelling it unsubscribes the session from all
+     * its resources.
+     */
+    public Flowable<String> updates(String sessionId) {
+        Session session;
+        synchronized (this) {
+            session = session(sessionId);
+        }
+        // The processor is subscribed first, so that no update falls between the pending ones and the next ones
+        return session.updates
+            .mergeWith(Flowable.defer(() -> openStream(session)))
+            .onBackpressureBuffer(MAX_PENDING_UPDATES, null, BackpressureOverflowStrategy.DROP_OLDEST)
+            .doFinally(() -> close(sessionId));
+    }
+
+    /**
+     * @return the number of resources being polled.
+     */
+    public synchronized int polledResources() {
+        return resources.size();
+    }
+
+    /**
+     * Stops polling all the resources and ends the streams of all the sessions.
+     */
+    public synchronized void close() {
+        resources.values().forEach(resource -> resource.polling.dispose());
+        resources.clear();
+        List<Session> closedSessions = List.copyOf(sessions.values());
+        sessions.clear();
+        closedSessions.forEach(session -> {
+            session.expiry.dispose();
+            session.updates.onComplete();
+        });
+    }
+
+    private Session session(String sessionId) {
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            Session newSession = new Session();
+            newSession.expiry = Completable.timer(streamTimeout, TimeUnit.MILLISECONDS).subscribe(() -> expire(sessionId, newSession));
+            sessions.put(sessionId, newSession);
+            session = newSession;
+        }
+        return session;
+    }
+
+    private synchronized Flowable<String> openStream(Session session) {
+        session.streaming = true;
+        session.expiry.dispose();
+        List<String> pendingUpdates = List.copyOf(session.pendingUpdates);
+        session.pendingUpdates.clear();
+        return Flowable.fromIterable(pendingUpdates);
+    }
+
+    private synchronized void expire(String sessionId, Session session) {
+        if (sessions.get(sessionId) == session && !session.streaming) {
+            log.debug("Session {} did not open its stream within {} ms, unsubscribing it", sessionId, streamTimeout);
+            close(sessionId);
+        }
+    }
+
+    private synchronized void close(String sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session != null) {
+            session.expiry.dispose();
+            List.copyOf(session.uris).forEach(uri -> unsubscribe(sessionId, uri));
+        }
+    }
+
+    private Disposable poll(String uri, PolledResource resource, Function<String, Single<UpstreamResponse>> poller) {
+        return Flowable.interval(0, interval, TimeUnit.MILLISECONDS)
+            .onBackpressureDrop()
+            .concatMapMaybe(tick ->
+                poller
+                    .apply(resource.etag)
+                    .timeout(interval, TimeUnit.MILLISECONDS)
+                    .toMaybe()
+                    .doOnError(throwable -> log.warn("Unable to poll resource {}", uri, throwable))
+                    .onErrorComplete()
+            )
+            .subscribe(
+                response -> onPolled(uri, resource, response),
+                throwable -> log.error("Polling of resource {} stopped", uri, throwable)
+            );
+    }
+
+    private void onPolled(String uri, PolledResource resource, UpstreamResponse response) throws NoSuchAlgorithmException {
+        if (response.status() == 304) {
+            return;
+        }
+        if (!response.isSuccessful()) {
+            log.debug("Polling resource {} returned status {}", uri, response.status());
+            return;
+        }
+
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(response.body().getBytes());
+        boolean changed = resource.digest != null && !Arrays.equals(resource.digest, digest);
+        resource.digest = digest;
+        resource.etag = response.etag();
+        if (changed) {
+            log.debug("Resource {} changed", uri);
+            changeListener.accept(uri);
+            publish(uri, resource);
+        }
+    }
+
+    private synchronized void publish(String uri, PolledResource resource) {
+        for (String sessionId : resource.sessionIds) {
+            Session session = sessions.get(sessionId);
+            if (session == null) {
+                continue;
+            }
+            if (session.streaming) {
+                session.updates.onNext(uri);
+            } else if (session.pendingUpdates.add(uri) && session.pendingUpdates.size() > MAX_PENDING_UPDATES) {
+                Iterator<String> eldest = session.pendingUpdates.iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    private static class PolledResource {
+
+        private final Set<String> sessionIds = new HashSet<>();
+        private Disposable polling;
+        private volatile String etag;
+        private volatile byte[] digest;
+    }
+
+    private static class Session {
+
+        private final Set<String> uris = new HashSet<>();
+        private final FlowableProcessor<String> updates = PublishProcessor.<String>create().toSerialized();
+        private final Set<String> pendingUpdates = new LinkedHashSet<>();
+        private boolean streaming;
+        private Disposable expiry;
+    }
+}
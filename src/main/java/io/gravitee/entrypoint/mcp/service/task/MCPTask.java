@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.task;
+
+import io.gravitee.entrypoint.mcp.model.call.JsonRPCCallResponseResults;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.subjects.CompletableSubject;
+import java.time.Instant;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A <code>tools/call</code> of a composite tool accepted as a task: its calls keep running in the background and the result is
+ * kept here until the task expires.
+ */
+@Slf4j
+@Getter
+public class MCPTask {
+
+    private final String taskId;
+    private final String sessionId;
+    private final Instant createdAt;
+    private final long ttl;
+    private volatile Instant lastUpdatedAt;
+    private volatile MCPTaskStatus status = MCPTaskStatus.WORKING;
+    private volatile String statusMessage;
+    private volatile JsonRPCCallResponseResults result;
+
+    @Getter(AccessLevel.NONE)
+    private final CompletableSubject completion = CompletableSubject.create();
+
+    @Getter(AccessLevel.NONE)
+    private volatile Disposable execution;
+
+    MCPTask(String taskId, String sessionId, long ttl) {
+        this.taskId = taskId;
+        this.sessionId = sessionId;
+        this.ttl = ttl;
+        this.createdAt = Instant.now();
+        this.lastUpdatedAt = createdAt;
+    }
+
+    /**
+     * Subscribes to the tool invocation in the background.
+     */
+    public void runWith(Single<JsonRPCCallResponseResults> invocation) {
+        this.execution = invocation.subscribe(this::complete, this::fail);
+    }
+
+    /**
+     * @return a {@link Completable} completing as soon as the task reaches a terminal status.
+     */
+    public Completable completion() {
+        return completion;
+    }
+
+    public boolean cancel() {
+        if (!terminate(MCPTaskStatus.CANCELLED, "The task was cancelled", null)) {
+            return false;
+        }
+        Disposable current = execution;
+        if (current != null) {
+            current.dispose();
+        }
+        return true;
+    }
+
+    private void complete(JsonRPCCallResponseResults results) {
+        terminate(MCPTaskStatus.COMPLETED, null, results);
+    }
+
+    private void fail(Throwable throwable) {
+        log.error("Task {} failed", taskId, throwable);
+        terminate(MCPTaskStatus.FAILED, throwable.getMessage(), null);
+    }
+
+    private boolean terminate(MCPTaskStatus terminalStatus, String message, JsonRPCCallResponseResults results) {
+        synchronized (this) {
+            if (status != MCPTaskStatus.WORKING) {
+                return false;
+            }
+            this.result = results;
+            this.statusMessage = message;
+            this.lastUpdatedAt = Instant.now();
+            this.status = terminalStatus;
+        }
+        completion.onComplete();
+        return true;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.task;
+
+import io.gravitee.entrypoint.mcp.service.cache.BoundedTtlCache;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Keeps the tasks of an API in memory, bounded by <code>maxTasks</code> and evicted once their time-to-live has elapsed.
+ * A task is only visible from the MCP session that created it, and is cancelled when evicted so that its invocation stops.
+ */
+public class MCPTaskStore {
+
+    private final BoundedTtlCache<String, MCPTask> tasks;
+    private final long maxTtl;
+
+    public MCPTaskStore(int maxTasks, long maxTtl) {
+        this.tasks = new BoundedTtlCache<>(maxTasks, Duration.ofMillis(maxTtl), MCPTask::cancel);
+        this.maxTtl = maxTtl;
+    }
+
+    /**
+     * Creates a new task, its time-to-live being capped to the configured maximum.
+     */
+    public MCPTask create(String sessionId, Long requestedTtl) {
+        long ttl = requestedTtl == null || requestedTtl <= 0 ? maxTtl : Math.min(requestedTtl, maxTtl);
+        MCPTask task = new MCPTask(UUID.randomUUID().toString(), sessionId, ttl);
+        tasks.put(task.getTaskId(), task, Duration.ofMillis(ttl));
+        return task;
+    }
+
+    public MCPTask get(String taskId, String sessionId) {
+        if (taskId == null) {
+            return null;
+        }
+        MCPTask task = tasks.get(taskId);
+        if (task == null || !Objects.equals(task.getSessionId(), sessionId)) {
+            return null;
+        }
+        return task;
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.upload;
+
+import io.gravitee.gateway.api.buffer.Buffer;
+import io.reactivex.rxjava3.core.Flowable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Upstream body of an upload, decoding the base64 content of a JSON string chunk by chunk as it is sent. Its length and the
+ * boundaries of a multipart body are computed beforehand, so that neither the decoded content nor the whole body is ever held in
+ * memory.
+ * <p>
+ * The base64 content may use the standard or the URL-safe alphabet, be split into lines and have some of its characters escaped
+ * by the JSON serializer of the client.
+ */
+public class UploadBody {
+
+    /**
+     * Decoded bytes per chunk, i.e. 64 KiB of base64 content.
+     */
+    static final int CHUNK_SIZE = 48 * 1024;
+
+    private static final byte INVALID = -1;
+    private static final byte WHITESPACE = -2;
+    private static final byte PADDING = -3;
+    private static final byte[] SEXTETS = new byte[128];
+
+    static {
+        Arrays.fill(SEXTETS, INVALID);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        for (int i = 0; i < alphabet.length(); i++) {
+            SEXTETS[alphabet.charAt(i)] = (byte) i;
+        }
+        SEXTETS['+'] = SEXTETS['-'] = 62;
+        SEXTETS['/'] = SEXTETS['_'] = 63;
+        SEXTETS[' '] = SEXTETS['\t'] = SEXTETS['\r'] = SEXTETS['\n'] = WHITESPACE;
+        SEXTETS['='] = PADDING;
+    }
+
+    private final byte[] document;
+    private final int from;
+    private final int to;
+    private final byte[] head;
+    private final byte[] tail;
+    private final String contentType;
+    private final long contentLength;
+    private final long decodedLength;
+
+    private UploadBody(byte[] document, int from, int to, String contentType, String head, String tail) {
+        this.document = document;
+        this.from = from;
+        this.to = to;
+        this.contentType = contentType;
+        this.head = head.getBytes(StandardCharsets.UTF_8);
+        this.tail = tail.getBytes(StandardCharsets.UTF_8);
+        this.decodedLength = decodedLength();
+        this.contentLength = this.head.length + decodedLength + this.tail.length;
+    }
+
+    /**
+     * The decoded content as the whole body.
+     *
+     * @param document the JSON document holding the base64 content.
+     * @param from the start, inclusive, of the base64 content in the document, after the opening quote.
+     * @param to the end, exclusive, of the base64 content in the document, before the closing quote.
+     * @throws IllegalArgumentException if the content is not valid base64.
+     */
+    public static UploadBody binary(byte[] document, int from, int to, String mediaType) {
+        return new UploadBody(document, from, to, mediaType, "", "");
+    }
+
+    /**
+     * A <code>multipart/form-data</code> body made of text fields followed by the decoded content as a file part.
+     *
+     * @see #binary(byte[], int, int, String)
+     */
+    public static UploadBody multipart(
+        byte[] document,
+        int from,
+        int to,
+        Map<String, String> fields,
+        String partName,
+        String fileName,
+        String mediaType
+    ) {
+        String boundary = "gravitee-mcp-" + UUID.randomUUID().toString().replace("-", "");
+        StringBuilder head = new StringBuilder();
+        fields.forEach((name, value) ->
+            head
+                .append("--")
+                .append(boundary)
+                .append("\r\nContent-Disposition: form-data; name=\"")
+                .append(quoted(name))
+                .append("\"\r\n\r\n")
+                .append(value)
+                .append("\r\n")
+        );
+        head
+            .append("--")
+            .append(boundary)
+            .append("\r\nContent-Disposition: form-data; name=\"")
+            .append(quoted(partName))
+            .append("\"; filename=\"")
+            .append(quoted(fileName))
+            .append("\"\r\nContent-Type: ")
+            .append(mediaType)
+            .append("\r\n\r\n");
+        return new UploadBody(
+            document,
+            from,
+            to,
+            "multipart/form-data; boundary=" + boundary,
+            head.toString(),
+            "\r\n--" + boundary + "--\r\n"
+        );
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public long contentLength() {
+        return contentLength;
+    }
+
+    /**
+     * @return the body, decoded on demand: a chunk is only decoded once requested by the upstream connection.
+     */
+    public Flowable<Buffer> chunks() {
+        Flowable<Buffer> content = Flowable.generate(Decoder::new, (decoder, emitter) -> {
+            int size = (int) Math.min(CHUNK_SIZE, decodedLength - decoder.decoded);
+            if (size == 0) {
+                emitter.onComplete();
+                return;
+            }
+            byte[] chunk = new byte[size];
+            for (int i = 0; i < size; i++) {
+                chunk[i] = decoder.next();
+            }
+            emitter.onNext(Buffer.buffer(chunk));
+        });
+        return Flowable.concat(
+            head.length > 0 ? Flowable.just(Buffer.buffer(head)) : Flowable.empty(),
+            content,
+            tail.length > 0 ? Flowable.just(Buffer.buffer(tail)) : Flowable.empty()
+        );
+    }
+
+    /**
+     * Validates the content while counting its sextets, without decoding it.
+     */
+    private long decodedLength() {
+        Decoder decoder = new Decoder();
+        long sextets = 0;
+        while (decoder.sextet() >= 0) {
+            sextets++;
+        }
+        if (sextets % 4 == 1) {
+            throw new IllegalArgumentException("Truncated base64 content");
+        }
+        return sextets / 4 * 3 + Math.max(0, sextets % 4 - 1);
+    }
+
+    /**
+     * Quotes a name of a multipart body the way browsers do.
+     */
+    private static String quoted(String name) {
+        return name.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+    }
+
+    private class Decoder {
+
+        private int position = from;
+        private boolean padded;
+        private int bits;
+        private int bitCount;
+        private long decoded;
+
+        private byte next() {
+            if (bitCount < 8) {
+                bits = (bits << 6) | sextet();
+                bitCount += 6;
+            }
+            if (bitCount < 8) {
+                bits = (bits << 6) | sextet();
+                bitCount += 6;
+            }
+            bitCount -= 8;
+            decoded++;
+            return (byte) (bits >>> bitCount);
+        }
+
+        /**
+         * @return the next sextet of the content, or <code>-1</code> at its end.
+         */
+        private int sextet() {
+            while (position < to) {
+                int c = document[position++] & 0xff;
+                if (c == '\\') {
+                    c = unescaped();
+                }
+                int sextet = c < SEXTETS.length ? SEXTETS[c] : INVALID;
+                if (sextet >= 0 && !padded) {
+                    return sextet;
+                } else if (sextet == PADDING) {
+                    padded = true;
+                } else if (sextet != WHITESPACE) {
+                    throw new IllegalArgumentException("Invalid base64 content at offset " + (position - from - 1));
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return the character of a JSON escape sequence: the escaped solidus, the line breaks or a unicode escape.
+         */
+        private int unescaped() {
+            int c = document[position++];
+            return switch (c) {
+                case 'n' -> '\n';
+                case 'r' -> '\r';
+                case 't' -> '\t';
+                case 'u' -> {
+                    int codePoint = Integer.parseInt(new String(document, position, 4, StandardCharsets.US_ASCII), 16);
+                    position += 4;
+                    yield codePoint;
+                }
+                default -> c;
+            };
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.upstream;
+
+import io.reactivex.rxjava3.core.Single;
+
+/**
+ * Sends HTTP requests the entrypoint makes on its own, e.g. the calls of a composite tool.
+ */
+public interface UpstreamClient {
+    Single<UpstreamResponse> send(UpstreamRequest request);
+
+    /**
+     * Releases the connections of the client, which cannot be used anymore.
+     */
+    void close();
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.upstream;
+
+import io.gravitee.gateway.api.buffer.Buffer;
+import java.util.Map;
+
+/**
+ * HTTP request sent by the entrypoint itself to an upstream, outside of the API invoker.
+ *
+ * @param method the HTTP method.
+ * @param uri the absolute URI, including the query string.
+ * @param headers the request headers.
+ * @param body the request body, <code>null</code> if there is none.
+ */
+public record UpstreamRequest(String method, String uri, Map<String, String> headers, Buffer body) {}
@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.upstream;
+
+import io.gravitee.gateway.api.buffer.Buffer;
+
+/**
+ * @param status the HTTP status.
+ * @param contentType the <code>Content-Type</code> header of the response, may be <code>null</code>.
+ * @param etag the <code>ETag</code> header of the response, may be <code>null</code>.
+ * @param body the response body.
+ */
+public record UpstreamResponse(int status, String contentType, String etag, Buffer body) {
+    public UpstreamResponse(int status, String contentType, Buffer body) {
+        this(status, contentType, null, body);
+    }
+
+    public boolean isSuccessful() {
+        return status >= 200 && status < 300;
+    }
+}
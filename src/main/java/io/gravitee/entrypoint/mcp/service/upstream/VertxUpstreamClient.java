@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.upstream;
+
+import io.gravitee.gateway.api.buffer.Buffer;
+import io.gravitee.gateway.api.http.HttpHeaderNames;
+import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.rxjava3.core.Vertx;
+import io.vertx.rxjava3.core.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UpstreamClient} relying on a pooled Vert.x HTTP client created from the Vert.x instance of the gateway. The timeout
+ * bounds both the connection to the upstream and the wait between two reads of its response.
+ */
+public class VertxUpstreamClient implements UpstreamClient {
+
+    private final HttpClient httpClient;
+
+    public VertxUpstreamClient(Vertx vertx, long timeout) {
+        this.httpClient = vertx.createHttpClient(
+            new HttpClientOptions()
+                .setKeepAlive(true)
+                .setTryUseCompression(true)
+                .setConnectTimeout((int) timeout)
+                .setIdleTimeout((int) timeout)
+                .setIdleTimeoutUnit(TimeUnit.MILLISECONDS)
+        );
+    }
+
+    @Override
+    public Single<UpstreamResponse> send(UpstreamRequest request) {
+        RequestOptions options = new RequestOptions().setMethod(HttpMethod.valueOf(request.method())).setAbsoluteURI(request.uri());
+        request.headers().forEach(options::addHeader);
+
+        return httpClient
+            .rxRequest(options)
+            .flatMap(clientRequest ->
+                request.body() == null
+                    ? clientRequest.rxSend()
+                    : clientRequest.rxSend(io.vertx.rxjava3.core.buffer.Buffer.buffer(request.body().getBytes()))
+            )
+            .flatMap(response ->
+                response
+                    .rxBody()
+                    .map(body ->
+                        new UpstreamResponse(
+                            response.statusCode(),
+                            response.getHeader(HttpHeaderNames.CONTENT_TYPE),
+                            response.getHeader(HttpHeaderNames.ETAG),
+                            Buffer.buffer(body.getBytes())
+                        )
+                    )
+            );
+    }
+
+    @Override
+    public void close() {
+        httpClient.close();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service.visibility;
+
+import io.gravitee.entrypoint.mcp.configuration.MCPTool;
+import io.gravitee.entrypoint.mcp.configuration.MCPToolAnnotations;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tools visible to each plan, as the set of their indexes in the tool list.
+ * <p>
+ * A tool restricted to some plans is only visible to them, and a read-only plan only sees the tools annotated as read-only.
+ * Every plan the configuration does not mention sees the same tools, so the visibility of all the plans is computed once
+ * and the plans seeing the same tools share the same set. Once some tools are restricted, a consumer whose plan is unknown
+ * sees none.
+ */
+public final class ToolVisibility {
+
+    private final boolean restricted;
+    private final Map<String, BitSet> visibleToolsByPlan;
+    private final BitSet defaultVisibleTools;
+    private final BitSet noVisibleTools = new BitSet();
+
+    private ToolVisibility(boolean restricted, Map<String, BitSet> visibleToolsByPlan, BitSet defaultVisibleTools) {
+        this.restricted = restricted;
+        this.visibleToolsByPlan = visibleToolsByPlan;
+        this.defaultVisibleTools = defaultVisibleTools;
+    }
+
+    public static ToolVisibility of(List<MCPTool> tools, List<String> readOnlyPlans) {
+        Set<String> plans = new LinkedHashSet<>(readOnlyPlans);
+        tools.forEach(tool -> plans.addAll(tool.getPlans()));
+
+        BitSet defaultVisibleTools = visibleTools(tools, null, false);
+        Map<BitSet, BitSet> distinctVisibleTools = new HashMap<>();
+        distinctVisibleTools.put(defaultVisibleTools, defaultVisibleTools);
+        Map<String, BitSet> visibleToolsByPlan = new HashMap<>();
+        for (String plan : plans) {
+            BitSet visibleTools = visibleTools(tools, plan, readOnlyPlans.contains(plan));
+            visibleToolsByPlan.put(plan, distinctVisibleTools.computeIfAbsent(visibleTools, bitSet -> bitSet));
+        }
+        return new ToolVisibility(!plans.isEmpty(), visibleToolsByPlan, defaultVisibleTools);
+    }
+
+    /**
+     * @return whether some tools are hidden to some plans.
+     */
+    public boolean isRestricted() {
+        return restricted;
+    }
+
+    /**
+     * @return the indexes of the tools visible to the plan, not to be modified.
+     */
+    public BitSet visibleTools(String plan) {
+        if (plan == null) {
+            return restricted ? noVisibleTools : defaultVisibleTools;
+        }
+        return visibleToolsByPlan.getOrDefault(plan, defaultVisibleTools);
+    }
+
+    /**
+     * @return the distinct sets of visible tools among all the plans.
+     */
+    public Collection<BitSet> distinctVisibleTools() {
+        Set<BitSet> distinctVisibleTools = new LinkedHashSet<>(visibleToolsByPlan.values());
+        distinctVisibleTools.add(defaultVisibleTools);
+        if (restricted) {
+            distinctVisibleTools.add(noVisibleTools);
+        }
+        return distinctVisibleTools;
+    }
+
+    private static BitSet visibleTools(List<MCPTool> tools, String plan, boolean readOnlyPlan) {
+        BitSet visibleTools = new BitSet(tools.size());
+        for (int i = 0; i < tools.size(); i++) {
+            MCPTool tool = tools.get(i);
+            boolean visibleToPlan = tool.getPlans().isEmpty() || (plan != null && tool.getPlans().contains(plan));
+            if (visibleToPlan && (!readOnlyPlan || isReadOnly(tool))) {
+                visibleTools.set(i);
+            }
+        }
+        return visibleTools;
+    }
+
+    private static boolean isReadOnly(MCPTool tool) {
+        MCPToolAnnotations annotations = tool.getToolDefinition().getAnnotations();
+        return annotations != null && Boolean.TRUE.equals(annotations.getReadOnlyHint());
+    }
+}
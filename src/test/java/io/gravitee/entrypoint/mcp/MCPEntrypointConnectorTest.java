@@ -18,12 +18,14 @@ package io.gravitee.entrypoint.mcp;
 import static io.gravitee.gateway.api.ExecutionContext.ATTR_CONTEXT_PATH;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import io.gravitee.common.http.HttpMethod;
 import io.gravitee.common.util.LinkedMultiValueMap;
 import io.gravitee.entrypoint.mcp.configuration.MCPEntrypointConnectorConfiguration;
+import io.gravitee.entrypoint.mcp.configuration.MCPResource;
 import io.gravitee.entrypoint.mcp.service.MCPHandler;
 import io.gravitee.gateway.api.http.HttpHeaderNames;
 import io.gravitee.gateway.api.http.HttpHeaders;
@@ -35,9 +37,12 @@ import io.gravitee.gateway.reactive.api.context.Request;
 import io.gravitee.gateway.reactive.api.context.Response;
 import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Maybe;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -89,6 +94,14 @@ class MCPEntrypointConnectorTest {
         assertThat(cut.supportedListenerType()).isEqualTo(ListenerType.HTTP);
     }
 
+    @Test
+    void shouldCloseHandlerWhenStopped() throws Exception {
+        cut.start();
+        cut.stop();
+
+        verify(mcpHandler).close();
+    }
+
     @Test
     void shouldSupportRequestResponseMode() {
         assertThat(cut.supportedModes()).containsOnly(ConnectorMode.REQUEST_RESPONSE);
@@ -100,7 +113,7 @@ class MCPEntrypointConnectorTest {
     }
 
     @Test
-    void shouldMatchesWithValidContext() {
+    void shouldMatchesWithValidContext() throws JsonProcessingException {
         HttpHeaders httpHeaders = HttpHeaders.create();
         httpHeaders.set(HttpHeaderNames.ACCEPT, "text/event-stream; application/json");
         when(request.headers()).thenReturn(httpHeaders);
@@ -109,6 +122,7 @@ class MCPEntrypointConnectorTest {
         when(ctx.getAttribute(ATTR_CONTEXT_PATH)).thenReturn("/contextPath");
 
         cutConfiguration.setMcpPath("/myMCP");
+        cut = new MCPEntrypointConnector(cutConfiguration, mcpHandler);
         boolean matches = cut.matches(ctx);
 
         assertThat(matches).isTrue();
@@ -139,6 +153,34 @@ class MCPEntrypointConnectorTest {
         assertThat(matches).isFalse();
     }
 
+    @Test
+    void shouldMatchesSessionStreamWhenResourcesCanBeSubscribed() throws JsonProcessingException {
+        HttpHeaders httpHeaders = HttpHeaders.create();
+        httpHeaders.set(HttpHeaderNames.ACCEPT, "text/event-stream");
+        when(request.headers()).thenReturn(httpHeaders);
+        when(request.method()).thenReturn(HttpMethod.GET);
+        when(request.path()).thenReturn("/contextPath/mcp");
+        when(ctx.getAttribute(ATTR_CONTEXT_PATH)).thenReturn("/contextPath");
+
+        cutConfiguration.setResources(List.of(MCPResource.builder().uri("docs://catalog").name("catalog").path("/catalog").build()));
+        cut = new MCPEntrypointConnector(cutConfiguration, mcpHandler);
+        boolean matches = cut.matches(ctx);
+
+        assertThat(matches).isTrue();
+    }
+
+    @Test
+    void shouldNotMatchesSessionStreamWithoutResources() {
+        HttpHeaders httpHeaders = HttpHeaders.create();
+        httpHeaders.set(HttpHeaderNames.ACCEPT, "text/event-stream");
+        when(request.headers()).thenReturn(httpHeaders);
+        when(request.method()).thenReturn(HttpMethod.GET);
+
+        boolean matches = cut.matches(ctx);
+
+        assertThat(matches).isFalse();
+    }
+
     @Test
     void shouldNotMatchesWithBadPath() {
         when(ctx.request()).thenReturn(request);
@@ -177,4 +219,51 @@ class MCPEntrypointConnectorTest {
 
         assertThat(matches).isFalse();
     }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = {
+            "application/json, text/event-stream", "Application/JSON;q=0.9, TEXT/EVENT-STREAM", "text/html, application/json , text/event-stream;q=1",
+        }
+    )
+    void shouldMatchesWithAcceptedMediaRanges(String accept) throws JsonProcessingException {
+        HttpHeaders httpHeaders = HttpHeaders.create();
+        httpHeaders.set(HttpHeaderNames.ACCEPT, accept);
+        when(request.headers()).thenReturn(httpHeaders);
+        when(request.method()).thenReturn(HttpMethod.POST);
+        when(request.path()).thenReturn("/contextPath/mcp");
+        when(ctx.getAttribute(ATTR_CONTEXT_PATH)).thenReturn("/contextPath/");
+
+        boolean matches = cut.matches(ctx);
+
+        assertThat(matches).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+        strings = { "application/json, text/event-stream;q=0", "application/json;q=0.0, text/event-stream", "application/jsonx, text/event-stream", "*/*" }
+    )
+    void shouldNotMatchesWithRefusedMediaRanges(String accept) {
+        HttpHeaders httpHeaders = HttpHeaders.create();
+        httpHeaders.set(HttpHeaderNames.ACCEPT, accept);
+        when(request.headers()).thenReturn(httpHeaders);
+
+        boolean matches = cut.matches(ctx);
+
+        assertThat(matches).isFalse();
+    }
+
+    @Test
+    void shouldNotMatchesWithLongerPath() {
+        HttpHeaders httpHeaders = HttpHeaders.create();
+        httpHeaders.set(HttpHeaderNames.ACCEPT, "application/json, text/event-stream");
+        when(request.headers()).thenReturn(httpHeaders);
+        when(request.method()).thenReturn(HttpMethod.POST);
+        when(request.path()).thenReturn("/contextPath/mcp/other");
+        when(ctx.getAttribute(ATTR_CONTEXT_PATH)).thenReturn("/contextPath");
+
+        boolean matches = cut.matches(ctx);
+
+        assertThat(matches).isFalse();
+    }
 }
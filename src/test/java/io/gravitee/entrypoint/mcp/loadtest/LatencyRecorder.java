@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps every recorded latency so that percentiles are exact. A recorder is not thread-safe: each session records into its
+ * own and recorders are merged once the run is over.
+ *
+ * @author GraviteeSource Team
+ */
+class LatencyRecorder {
+
+    private long[] latencies;
+    private int count;
+
+    LatencyRecorder(int expectedCount) {
+        this.latencies = new long[Math.max(16, expectedCount)];
+    }
+
+    void record(long nanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+    }
+
+    void merge(LatencyRecorder other) {
+        if (count + other.count > latencies.length) {
+            latencies = Arrays.copyOf(latencies, Math.max(count + other.count, latencies.length * 2));
+        }
+        System.arraycopy(other.latencies, 0, latencies, count, other.count);
+        count += other.count;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100.
+     * @return the latency in microseconds under which <code>percentile</code> percent of the recorded latencies are.
+     */
+    long percentileMicros(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * count) - 1;
+        return TimeUnit.NANOSECONDS.toMicros(sorted[Math.min(Math.max(rank, 0), count - 1)]);
+    }
+}
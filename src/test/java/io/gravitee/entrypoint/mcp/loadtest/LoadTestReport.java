@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a load test run.
+ *
+ * @param requests the number of MCP requests sent.
+ * @param errors the number of MCP requests answered with a JSON-RPC error or a tool error.
+ * @param upstreamRequests the number of requests received by the stub upstream.
+ * @param duration the wall-clock duration of the run.
+ * @param p50Micros the median latency of an MCP request, in microseconds.
+ * @param p99Micros the 99th percentile latency of an MCP request, in microseconds.
+ * @param p999Micros the 99.9th percentile latency of an MCP request, in microseconds.
+ * @param allocatedBytes the bytes allocated by the connector while handling the MCP requests, upstream calls excluded, as
+ *                       measured on each session thread by {@link com.sun.management.ThreadMXBean}.
+ *
+ * @author GraviteeSource Team
+ */
+record LoadTestReport(
+    long requests,
+    long errors,
+    long upstreamRequests,
+    Duration duration,
+    long p50Micros,
+    long p99Micros,
+    long p999Micros,
+    long allocatedBytes
+) {
+    double throughput() {
+        return duration.isZero() ? 0 : requests * 1000d / duration.toMillis();
+    }
+
+    long allocatedBytesPerRequest() {
+        return requests == 0 ? 0 : allocatedBytes / requests;
+    }
+
+    /**
+     * @return the bytes allocated by the connector per second of the run, in MB/s.
+     */
+    double allocationRate() {
+        return duration.isZero() ? 0 : allocatedBytes * 1000d / duration.toMillis() / (1024 * 1024);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "requests=%d errors=%d upstreamRequests=%d duration=%dms throughput=%.1f req/s p50=%dus p99=%dus p999=%dus " +
+            "alloc=%d B/req allocRate=%.1f MB/s",
+            requests,
+            errors,
+            upstreamRequests,
+            duration.toMillis(),
+            throughput(),
+            p50Micros,
+            p99Micros,
+            p999Micros,
+            allocatedBytesPerRequest(),
+            allocationRate()
+        );
+    }
+}
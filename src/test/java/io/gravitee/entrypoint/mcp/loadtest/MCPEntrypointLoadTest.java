@@ -0,0 +1,69 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * End-to-end load test of the entrypoint against an in-process stub upstream. It only runs when <code>mcp.loadtest</code> is
+ * set to <code>true</code>, e.g. <code>mvn test -Dtest=MCPEntrypointLoadTest -Dmcp.loadtest=true</code>, and is tuned with:
+ * <ul>
+ *     <li><code>mcp.loadtest.sessions</code>: number of simulated MCP sessions (default 500)</li>
+ *     <li><code>mcp.loadtest.warmupSessions</code>: number of sessions run before measuring (default 100)</li>
+ *     <li><code>mcp.loadtest.concurrency</code>: number of sessions running at the same time (default 32)</li>
+ *     <li><code>mcp.loadtest.callsPerSession</code>: number of requests sent by a session after <code>initialize</code> and
+ *     <code>tools/list</code> (default 50)</li>
+ *     <li><code>mcp.loadtest.upstreamLatency</code>: latency of the stub upstream in milliseconds (default 5)</li>
+ *     <li><code>mcp.loadtest.payloadSize</code>: size of the stub upstream responses in bytes (default 2048)</li>
+ *     <li><code>mcp.loadtest.maxP99Micros</code>: p99 latency above which the test fails, 0 to only report it (default 0)</li>
+ * </ul>
+ *
+ * @author GraviteeSource Team
+ */
+@EnabledIfSystemProperty(named = "mcp.loadtest", matches = "true")
+class MCPEntrypointLoadTest {
+
+    @Test
+    void shouldSustainConcurrentSessions() throws Exception {
+        int concurrency = Integer.getInteger("mcp.loadtest.concurrency", 32);
+        int sessions = Integer.getInteger("mcp.loadtest.sessions", 500);
+        int callsPerSession = Integer.getInteger("mcp.loadtest.callsPerSession", 50);
+
+        try (
+            StubUpstream upstream = new StubUpstream(
+                Long.getLong("mcp.loadtest.upstreamLatency", 5),
+                Integer.getInteger("mcp.loadtest.payloadSize", 2048),
+                concurrency
+            )
+        ) {
+            MCPLoadDriver driver = new MCPLoadDriver(upstream);
+            driver.run(Integer.getInteger("mcp.loadtest.warmupSessions", 100), concurrency, callsPerSession);
+            LoadTestReport report = driver.run(sessions, concurrency, callsPerSession);
+            System.out.println("MCP load test: " + report);
+
+            assertThat(report.requests()).isEqualTo((long) sessions * (callsPerSession + 2));
+            assertThat(report.errors()).isZero();
+            assertThat(report.upstreamRequests()).isPositive();
+            long maxP99Micros = Long.getLong("mcp.loadtest.maxP99Micros", 0);
+            if (maxP99Micros > 0) {
+                assertThat(report.p99Micros()).isLessThanOrEqualTo(maxP99Micros);
+            }
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.loadtest;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+import io.gravitee.common.http.HttpMethod;
+import io.gravitee.common.util.LinkedMultiValueMap;
+import io.gravitee.entrypoint.mcp.MCPEntrypointConnector;
+import io.gravitee.entrypoint.mcp.configuration.MCPEntrypointConnectorConfiguration;
+import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMapping;
+import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMappingHttp;
+import io.gravitee.entrypoint.mcp.configuration.MCPTool;
+import io.gravitee.entrypoint.mcp.configuration.MCPToolDefinition;
+import io.gravitee.entrypoint.mcp.service.MCPHandler;
+import io.gravitee.gateway.api.buffer.Buffer;
+import io.gravitee.gateway.api.http.HttpHeaderNames;
+import io.gravitee.gateway.api.http.HttpHeaders;
+import io.gravitee.gateway.core.component.CustomComponentProvider;
+import io.gravitee.gateway.reactive.api.context.ContextAttributes;
+import io.gravitee.gateway.reactive.api.context.InternalContextAttributes;
+import io.gravitee.gateway.reactive.core.context.DefaultExecutionContext;
+import io.gravitee.gateway.reactive.core.context.MutableRequest;
+import io.gravitee.gateway.reactive.core.context.MutableResponse;
+import io.gravitee.gateway.reactive.handlers.api.v4.Api;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Drives simulated MCP sessions through {@link MCPEntrypointConnector} the way the gateway does: the connector handles the
+ * request, the upstream is invoked unless the connector skipped it, then the connector handles the response.
+ * Each session initializes, lists the tools then sends a mix of <code>tools/call</code> and <code>tools/list</code> requests.
+ * The mocked requests and responses are created and stubbed before the run starts, one per concurrent session, so that
+ * neither the measured latencies nor the measured allocations include them.
+ *
+ * @author GraviteeSource Team
+ */
+class MCPLoadDriver {
+
+    private static final String CONTEXT_PATH = "/loadtest";
+    private static final String MCP_PATH = "/mcp";
+    private static final String INITIALIZE_PARAMS =
+        "{\"protocolVersion\":\"2025-06-18\",\"capabilities\":{},\"clientInfo\":{\"name\":\"LoadTest\",\"version\":\"1.0.0\"}}";
+
+    private final StubUpstream upstream;
+    private final MCPEntrypointConnector connector;
+    private final CustomComponentProvider componentProvider;
+    private final HttpClient httpClient;
+    private final ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    MCPLoadDriver(StubUpstream upstream) throws JsonProcessingException {
+        this.upstream = upstream;
+        MCPEntrypointConnectorConfiguration configuration = configuration();
+        this.connector = new MCPEntrypointConnector(configuration, new MCPHandler(configuration));
+        this.componentProvider = new CustomComponentProvider();
+        this.componentProvider.add(
+            Api.class,
+            new Api(io.gravitee.definition.model.v4.Api.builder().name("LoadTestApi").apiVersion("1.0.0").build())
+        );
+        this.httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    LoadTestReport run(int sessions, int concurrency, int callsPerSession) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            BlockingQueue<Exchange> exchanges = new ArrayBlockingQueue<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                exchanges.add(new Exchange());
+            }
+
+            long upstreamRequests = upstream.requests();
+            long start = System.nanoTime();
+            List<Future<SessionResult>> futures = new ArrayList<>(sessions);
+            for (int i = 0; i < sessions; i++) {
+                futures.add(
+                    executor.submit(() -> {
+                        Exchange exchange = exchanges.take();
+                        try {
+                            return runSession(exchange, callsPerSession);
+                        } finally {
+                            exchanges.add(exchange);
+                        }
+                    })
+                );
+            }
+
+            LatencyRecorder latencies = new LatencyRecorder(sessions * (callsPerSession + 2));
+            long errors = 0;
+            long allocatedBytes = 0;
+            for (Future<SessionResult> future : futures) {
+                SessionResult sessionResult = future.get();
+                latencies.merge(sessionResult.latencies);
+                errors += sessionResult.errors;
+                allocatedBytes += sessionResult.allocatedBytes;
+            }
+            Duration duration = Duration.ofNanos(System.nanoTime() - start);
+
+            return new LoadTestReport(
+                latencies.count(),
+                errors,
+                upstream.requests() - upstreamRequests,
+                duration,
+                latencies.percentileMicros(50),
+                latencies.percentileMicros(99),
+                latencies.percentileMicros(99.9),
+                allocatedBytes
+            );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SessionResult runSession(Exchange exchange, int callsPerSession) throws IOException, InterruptedException {
+        exchange.parameters = new LinkedMultiValueMap<>(Map.of("sessionId", List.of(UUID.randomUUID().toString())));
+        SessionResult sessionResult = new SessionResult(callsPerSession + 2);
+        int id = 0;
+        send(exchange, request(++id, "initialize", INITIALIZE_PARAMS), sessionResult);
+        send(exchange, request(++id, "tools/list", null), sessionResult);
+        for (int i = 0; i < callsPerSession; i++) {
+            String request = switch (i % 5) {
+                case 0 -> request(++id, "tools/list", null);
+                case 1, 2 -> request(++id, "tools/call", "{\"name\":\"getItem\",\"arguments\":{\"id\":\"" + i + "\"}}");
+                default -> request(
+                    ++id,
+                    "tools/call",
+                    "{\"name\":\"createItem\",\"arguments\":{\"bodySchema\":{\"name\":\"item-" + i + "\"}}}"
+                );
+            };
+            send(exchange, request, sessionResult);
+        }
+        return sessionResult;
+    }
+
+    private void send(Exchange exchange, String body, SessionResult sessionResult) throws IOException, InterruptedException {
+        exchange.reset(body);
+        DefaultExecutionContext ctx = new DefaultExecutionContext(exchange.request, exchange.response);
+        ctx.setAttribute(ContextAttributes.ATTR_CONTEXT_PATH, CONTEXT_PATH);
+        ctx.componentProvider(componentProvider);
+
+        long start = System.nanoTime();
+        long allocated = threadMXBean.getCurrentThreadAllocatedBytes();
+        boolean matches = connector.matches(ctx);
+        connector.handleRequest(ctx).blockingAwait();
+        sessionResult.allocatedBytes += threadMXBean.getCurrentThreadAllocatedBytes() - allocated;
+        long elapsed = System.nanoTime() - start;
+
+        if (!Boolean.TRUE.equals(ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP))) {
+            start = System.nanoTime();
+            HttpResponse<byte[]> upstreamResponse = invokeUpstream(exchange);
+            elapsed += System.nanoTime() - start;
+            exchange.status = upstreamResponse.statusCode();
+            exchange.responseHeaders.set(
+                HttpHeaderNames.CONTENT_TYPE,
+                upstreamResponse.headers().firstValue(HttpHeaderNames.CONTENT_TYPE).orElse("application/octet-stream")
+            );
+            exchange.upstreamBody = Buffer.buffer(upstreamResponse.body());
+        }
+
+        start = System.nanoTime();
+        allocated = threadMXBean.getCurrentThreadAllocatedBytes();
+        connector.handleResponse(ctx).blockingAwait();
+        sessionResult.allocatedBytes += threadMXBean.getCurrentThreadAllocatedBytes() - allocated;
+        elapsed += System.nanoTime() - start;
+
+        sessionResult.latencies.record(elapsed);
+        if (!matches || isError(exchange.output)) {
+            sessionResult.errors++;
+        }
+    }
+
+    private HttpResponse<byte[]> invokeUpstream(Exchange exchange) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(upstream.uri().resolve(exchange.pathInfo));
+        if (exchange.body != null) {
+            builder.header(HttpHeaderNames.CONTENT_TYPE, "application/json");
+            builder.method(exchange.method.name(), HttpRequest.BodyPublishers.ofByteArray(exchange.body.getBytes()));
+        } else {
+            builder.method(exchange.method.name(), HttpRequest.BodyPublishers.noBody());
+        }
+        return httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String request(int id, String method, String params) {
+        return (
+            "{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"" + method + "\"" + (params != null ? ",\"params\":" + params : "") + "}"
+        );
+    }
+
+    private static boolean isError(Buffer output) {
+        if (output == null) {
+            return true;
+        }
+        String response = output.toString();
+        return response.contains("\"error\":{") || response.contains("\"error\":true");
+    }
+
+    private static MCPEntrypointConnectorConfiguration configuration() throws JsonProcessingException {
+        ObjectMapper mapper = new ObjectMapper();
+        MCPEntrypointConnectorConfiguration configuration = new MCPEntrypointConnectorConfiguration();
+        configuration.setMcpPath(MCP_PATH);
+        configuration.setTools(
+            List.of(
+                tool(
+                    mapper,
+                    "getItem",
+                    MCPGatewayMappingHttp.builder()
+                        .method("GET")
+                        .path("/items/:id")
+                        .pathParams(List.of("id"))
+                        .queryParams(List.of())
+                        .headers(List.of())
+                        .build()
+                ),
+                tool(
+                    mapper,
+                    "createItem",
+                    MCPGatewayMappingHttp.builder()
+                        .method("POST")
+                        .path("/items")
+                        .contentType("application/json")
+                        .pathParams(List.of())
+                        .queryParams(List.of())
+                        .headers(List.of())
+                        .build()
+                )
+            )
+        );
+        return configuration;
+    }
+
+    private static MCPTool tool(ObjectMapper mapper, String name, MCPGatewayMappingHttp http) throws JsonProcessingException {
+        return MCPTool.builder()
+            .toolDefinition(MCPToolDefinition.builder().name(name).description(name).inputSchema(mapper.readTree("{}")).build())
+            .gatewayMapping(MCPGatewayMapping.builder().http(http).build())
+            .build();
+    }
+
+    /**
+     * Mocked request and response of the gateway, stubbed once and reused by the successive requests of the sessions run one
+     * after the other with it. The stubs read the state of the current request, which {@link #reset(String)} clears.
+     */
+    private static class Exchange {
+
+        private final MutableRequest request = mock(MutableRequest.class, withSettings().stubOnly());
+        private final MutableResponse response = mock(MutableResponse.class, withSettings().stubOnly());
+        private final HttpHeaders requestHeaders = HttpHeaders.create();
+        private final HttpHeaders responseHeaders = HttpHeaders.create();
+        private LinkedMultiValueMap<String, String> parameters;
+        private Buffer requestBody;
+        private HttpMethod method;
+        private String pathInfo;
+        private Buffer body;
+        private int status;
+        private Buffer upstreamBody;
+        private Buffer output;
+
+        private Exchange() {
+            when(request.headers()).thenReturn(requestHeaders);
+            when(request.method()).thenReturn(HttpMethod.POST);
+            when(request.path()).thenReturn(CONTEXT_PATH + MCP_PATH);
+            when(request.parameters()).thenAnswer(invocation -> parameters);
+            when(request.chunks()).thenAnswer(invocation -> Flowable.just(requestBody));
+            when(request.body()).thenAnswer(invocation -> Maybe.just(requestBody));
+            doAnswer(invocation -> {
+                method = invocation.getArgument(0);
+                return invocation.getMock();
+            }).when(request).method(any(HttpMethod.class));
+            doAnswer(invocation -> {
+                pathInfo = invocation.getArgument(0);
+                return invocation.getMock();
+            }).when(request).pathInfo(anyString());
+            doAnswer(invocation -> {
+                body = invocation.getArgument(0);
+                return null;
+            }).when(request).body(any(Buffer.class));
+            when(response.headers()).thenReturn(responseHeaders);
+            when(response.status()).thenAnswer(invocation -> status);
+            when(response.body()).thenAnswer(invocation -> upstreamBody == null ? Maybe.empty() : Maybe.just(upstreamBody));
+            when(response.chunks()).thenAnswer(invocation -> upstreamBody == null ? Flowable.empty() : Flowable.just(upstreamBody));
+            doAnswer(invocation -> {
+                output = invocation.getArgument(0);
+                return null;
+            }).when(response).body(any(Buffer.class));
+        }
+
+        private void reset(String requestBody) {
+            requestHeaders.clear();
+            requestHeaders.set(HttpHeaderNames.ACCEPT, "application/json, text/event-stream");
+            requestHeaders.set(HttpHeaderNames.CONTENT_TYPE, "application/json");
+            responseHeaders.clear();
+            this.requestBody = Buffer.buffer(requestBody);
+            this.method = null;
+            this.pathInfo = null;
+            this.body = null;
+            this.status = 0;
+            this.upstreamBody = null;
+            this.output = null;
+        }
+    }
+
+    private static class SessionResult {
+
+        private final LatencyRecorder latencies;
+        private long errors;
+        private long allocatedBytes;
+
+        private SessionResult(int expectedRequests) {
+            this.latencies = new LatencyRecorder(expectedRequests);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright © 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.entrypoint.mcp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.ThreadMXBean;
+import io.gravitee.common.util.LinkedMultiValueMap;
+import io.gravitee.entrypoint.mcp.configuration.MCPEntrypointConnectorConfiguration;
+import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMapping;
+import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMappingHttp;
+import io.gravitee.entrypoint.mcp.configuration.MCPTool;
+import io.gravitee.entrypoint.mcp.configuration.MCPToolDefinition;
+import io.gravitee.gateway.api.buffer.Buffer;
+import io.gravitee.gateway.api.http.HttpHeaderNames;
+import io.gravitee.gateway.api.http.HttpHeaders;
+import io.gravitee.gateway.core.component.CustomComponentProvider;
+import io.gravitee.gateway.reactive.api.context.ContextAttributes;
+import io.gravitee.gateway.reactive.core.context.DefaultExecutionContext;
+import io.gravitee.gateway.reactive.core.context.MutableRequest;
+import io.gravitee.gateway.reactive.core.context.MutableResponse;
+import io.gravitee.gateway.reactive.handlers.api.v4.Api;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Checks the bytes allocated by {@link MCPHandler} to handle the request and the response of each MCP method, so that an extra
+ * copy or parsing of a payload does not go unnoticed. Request and response are plain proxies rather than mocks: recording
+ * invocations would allocate more than the handler itself.
+ * <p>
+ * Allocations depend on the JVM and its settings, so the budgets are not part of the test: it only runs when
+ * <code>mcp.allocation</code> is set to <code>true</code> and prints the allocations of each path, checking those given a
+ * budget in bytes, measured on the target JVM plus a margin:
+ * <ul>
+ *     <li><code>mcp.allocation.initialize</code>: budget of <code>initialize</code> (default 0, only reported)</li>
+ *     <li><code>mcp.allocation.toolsList</code>: budget of <code>tools/list</code> (default 0, only reported)</li>
+ *     <li><code>mcp.allocation.toolsCall</code>: budget of a <code>tools/call</code> of a small response (default 0, only
+ *     reported)</li>
+ *     <li><code>mcp.allocation.toolsCallPerResponseByte</code>: budget per byte of a large upstream response (default 0, only
+ *     reported)</li>
+ *     <li><code>mcp.allocation.error</code>: budget of a parse error or an unknown method (default 0, only reported)</li>
+ * </ul>
+ *
+ * @author GraviteeSource Team
+ */
+@EnabledIfSystemProperty(named = "mcp.allocation", matches = "true")
+class MCPHandlerAllocationTest {
+
+    private static final int WARMUP_ITERATIONS = 2000;
+    private static final int MEASURED_ITERATIONS = 50;
+
+    private static final long INITIALIZE_BUDGET = Long.getLong("mcp.allocation.initialize", 0);
+    private static final long TOOLS_LIST_BUDGET = Long.getLong("mcp.allocation.toolsList", 0);
+    private static final long TOOLS_CALL_BUDGET = Long.getLong("mcp.allocation.toolsCall", 0);
+    /**
+     * Bytes allocated per byte of upstream response: decoding it, escaping it as text content then serializing the JSON-RPC
+     * response each need their own copy, the budget should allow for these copies only.
+     */
+    private static final long TOOLS_CALL_PER_RESPONSE_BYTE_BUDGET = Long.getLong("mcp.allocation.toolsCallPerResponseByte", 0);
+    private static final long ERROR_BUDGET = Long.getLong("mcp.allocation.error", 0);
+
+    private static final String INITIALIZE =
+        "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"initialize\",\"params\":{\"protocolVersion\":\"2025-06-18\",\"capabilities\":{},\"clientInfo\":{\"name\":\"client\",\"version\":\"1.0.0\"}}}";
+    private static final String TOOLS_LIST = "{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"tools/list\"}";
+    private static final String TOOLS_CALL =
+        "{\"jsonrpc\":\"2.0\",\"id\":3,\"method\":\"tools/call\",\"params\":{\"name\":\"getItem\",\"arguments\":{\"id\":\"42\"}}}";
+    private static final String PARSE_ERROR = "{\"jsonrpc\":\"2.0\",\"id\":4,\"method\":";
+    // Sampling is a method of the client, which the server never supports
+    private static final String UNKNOWN_METHOD = "{\"jsonrpc\":\"2.0\",\"id\":5,\"method\":\"sampling/createMessage\"}";
+
+    private final ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final CustomComponentProvider componentProvider = new CustomComponentProvider();
+
+    private MCPHandler cut;
+
+    @BeforeEach
+    void beforeEach() throws JsonProcessingException {
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(), "Thread allocated memory is not supported by this JVM");
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        MCPEntrypointConnectorConfiguration configuration = new MCPEntrypointConnectorConfiguration();
+        configuration.setTools(
+            List.of(
+                MCPTool.builder()
+                    .toolDefinition(
+                        MCPToolDefinition.builder()
+                            .name("getItem")
+                            .description("Get an item")
+                            .inputSchema(new ObjectMapper().readTree("{\"type\":\"object\"}"))
+                            .build()
+                    )
+                    .gatewayMapping(
+                        MCPGatewayMapping.builder()
+                            .http(
+                                MCPGatewayMappingHttp.builder()
+                                    .method("GET")
+                                    .path("/items/:id")
+                                    .pathParams(List.of("id"))
+                                    .queryParams(List.of())
+                                    .headers(List.of())
+                                    .build()
+                            )
+                            .build()
+                    )
+                    .build()
+            )
+        );
+        // The same call is sent at each iteration, it must reach the API rather than be replayed
+        configuration.setReplayCacheTtl(0);
+        cut = new MCPHandler(configuration);
+        componentProvider.add(Api.class, new Api(io.gravitee.definition.model.v4.Api.builder().name("api").apiVersion("1.0").build()));
+    }
+
+    @Test
+    void shouldStayWithinBudgetForInitialize() {
+        assertWithinBudget("initialize", allocatedBytes(INITIALIZE, null), INITIALIZE_BUDGET);
+    }
+
+    @Test
+    void shouldStayWithinBudgetForToolsList() {
+        assertWithinBudget("tools/list", allocatedBytes(TOOLS_LIST, null), TOOLS_LIST_BUDGET);
+    }
+
+    @Test
+    void shouldStayWithinBudgetForSmallToolsCall() {
+        assertWithinBudget("tools/call", allocatedBytes(TOOLS_CALL, upstreamResponse(256)), TOOLS_CALL_BUDGET);
+    }
+
+    @Test
+    void shouldAllocateProportionallyToLargeToolsCallResponse() {
+        int smallSize = 256;
+        int largeSize = 256 * 1024;
+        long small = allocatedBytes(TOOLS_CALL, upstreamResponse(smallSize));
+        long large = allocatedBytes(TOOLS_CALL, upstreamResponse(largeSize));
+
+        assertWithinBudget(
+            "tools/call per response byte",
+            (large - small) / (largeSize - smallSize),
+            TOOLS_CALL_PER_RESPONSE_BYTE_BUDGET
+        );
+    }
+
+    @Test
+    void shouldStayWithinBudgetForErrors() {
+        assertWithinBudget("parse error", allocatedBytes(PARSE_ERROR, null), ERROR_BUDGET);
+        assertWithinBudget("method not found", allocatedBytes(UNKNOWN_METHOD, null), ERROR_BUDGET);
+    }
+
+    private void assertWithinBudget(String path, long allocated, long budget) {
+        System.out.printf("%s: %d bytes allocated, budget is %d bytes%n", path, allocated, budget);
+        if (budget > 0) {
+            assertThat(allocated).as("Bytes allocated for %s", path).isLessThanOrEqualTo(budget);
+        }
+    }
+
+    /**
+     * @return the fewest bytes allocated by the current thread to handle the request then the response, once warmed up.
+     */
+    private long allocatedBytes(String request, byte[] upstreamResponse) {
+        long allocated = Long.MAX_VALUE;
+        for (int i = 0; i < WARMUP_ITERATIONS + MEASURED_ITERATIONS; i++) {
+            DefaultExecutionContext ctx = context(request, upstreamResponse);
+            long start = threadMXBean.getCurrentThreadAllocatedBytes();
+            cut.handleRequest(ctx).blockingAwait();
+            cut.handleResponse(ctx).blockingAwait();
+            long end = threadMXBean.getCurrentThreadAllocatedBytes();
+            if (i >= WARMUP_ITERATIONS) {
+                allocated = Math.min(allocated, end - start);
+            }
+        }
+        return allocated;
+    }
+
+    private DefaultExecutionContext context(String request, byte[] upstreamResponse) {
+        HttpHeaders requestHeaders = HttpHeaders.create();
+        requestHeaders.set(HttpHeaderNames.CONTENT_TYPE, "application/json");
+        Buffer requestBody = Buffer.buffer(request);
+        HttpHeaders responseHeaders = HttpHeaders.create();
+        responseHeaders.set(HttpHeaderNames.CONTENT_TYPE, "application/json");
+        Buffer responseBody = Buffer.buffer(upstreamResponse != null ? upstreamResponse : new byte[0]);
+
+        MutableRequest mutableRequest = fake(
+            MutableRequest.class,
+            Map.of(
+                "headers",
+                requestHeaders,
+                "parameters",
+                new LinkedMultiValueMap<>(Map.of("sessionId", List.of("session"))),
+                "chunks",
+                Flowable.just(requestBody),
+                "body",
+                Maybe.just(requestBody)
+            )
+        );
+        MutableResponse mutableResponse = fake(
+            MutableResponse.class,
+            Map.of("headers", responseHeaders, "status", 200, "body", Maybe.just(responseBody), "chunks", Flowable.just(responseBody))
+        );
+
+        DefaultExecutionContext ctx = new DefaultExecutionContext(mutableRequest, mutableResponse);
+        ctx.setAttribute(ContextAttributes.ATTR_CONTEXT_PATH, "/api");
+        ctx.componentProvider(componentProvider);
+        return ctx;
+    }
+
+    private static byte[] upstreamResponse(int size) {
+        return ("{\"data\":\"" + "x".repeat(size - 11) + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates an implementation of <code>type</code> whose getters return the given values. Setters return the instance
+     * itself when they are fluent, other methods return the default value of their type.
+     */
+    private static <T> T fake(Class<T> type, Map<String, Object> getters) {
+        return type.cast(
+            Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+                if (method.getParameterCount() == 0 && getters.containsKey(method.getName())) {
+                    return getters.get(method.getName());
+                }
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> type.getSimpleName();
+                    default -> defaultValue(method.getReturnType(), proxy);
+                };
+            })
+        );
+    }
+
+    private static Object defaultValue(Class<?> returnType, Object proxy) {
+        if (returnType.isInstance(proxy)) {
+            return proxy;
+        } else if (returnType.isPrimitive() && returnType != void.class) {
+            return Array.get(Array.newInstance(returnType, 1), 0);
+        }
+        return null;
+    }
+}
@@ -17,41 +17,87 @@ package io.gravitee.entrypoint.mcp.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.gravitee.common.http.HttpMethod;
 import io.gravitee.common.http.MediaType;
 import io.gravitee.common.util.LinkedMultiValueMap;
+import io.gravitee.definition.model.v4.endpointgroup.Endpoint;
+import io.gravitee.definition.model.v4.endpointgroup.EndpointGroup;
 import io.gravitee.entrypoint.mcp.configuration.MCPEntrypointConnectorConfiguration;
 import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMapping;
+import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMappingComposite;
+import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMappingCompositeCall;
 import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMappingHttp;
+import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMappingUpload;
+import io.gravitee.entrypoint.mcp.configuration.MCPGatewayMappingUploadMode;
+import io.gravitee.entrypoint.mcp.configuration.MCPPrompt;
+import io.gravitee.entrypoint.mcp.configuration.MCPPromptArgument;
+import io.gravitee.entrypoint.mcp.configuration.MCPPromptMessage;
+import io.gravitee.entrypoint.mcp.configuration.MCPResource;
 import io.gravitee.entrypoint.mcp.configuration.MCPTool;
 import io.gravitee.entrypoint.mcp.configuration.MCPToolAnnotations;
+import io.gravitee.entrypoint.mcp.configuration.MCPToolArgumentCompletion;
 import io.gravitee.entrypoint.mcp.configuration.MCPToolDefinition;
+import io.gravitee.entrypoint.mcp.configuration.MCPToolExecution;
+import io.gravitee.entrypoint.mcp.configuration.MCPToolProjection;
+import io.gravitee.entrypoint.mcp.configuration.MCPToolTaskSupport;
+import io.gravitee.entrypoint.mcp.model.JsonRPCId;
+import io.gravitee.entrypoint.mcp.model.call.JsonRPCCallResponseResults;
+import io.gravitee.entrypoint.mcp.service.completion.CompletionRequest;
+import io.gravitee.entrypoint.mcp.service.task.MCPTask;
+import io.gravitee.entrypoint.mcp.service.task.MCPTaskStatus;
+import io.gravitee.entrypoint.mcp.service.task.MCPTaskStore;
+import io.gravitee.entrypoint.mcp.service.upstream.UpstreamClient;
+import io.gravitee.entrypoint.mcp.service.upstream.UpstreamRequest;
+import io.gravitee.entrypoint.mcp.service.upstream.UpstreamResponse;
 import io.gravitee.gateway.api.buffer.Buffer;
 import io.gravitee.gateway.api.http.HttpHeaderNames;
 import io.gravitee.gateway.api.http.HttpHeaders;
 import io.gravitee.gateway.core.component.CustomComponentProvider;
 import io.gravitee.gateway.reactive.api.context.ContextAttributes;
 import io.gravitee.gateway.reactive.api.context.InternalContextAttributes;
+import io.gravitee.gateway.reactive.api.invoker.HttpInvoker;
 import io.gravitee.gateway.reactive.core.context.DefaultExecutionContext;
 import io.gravitee.gateway.reactive.core.context.MutableRequest;
 import io.gravitee.gateway.reactive.core.context.MutableResponse;
 import io.gravitee.gateway.reactive.handlers.api.v4.Api;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.observers.TestObserver;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -61,6 +107,7 @@ class MCPHandlerTest {
     private final ObjectMapper mapper = new ObjectMapper();
 
     private MCPHandler cut;
+    private MCPEntrypointConnectorConfiguration cutConfiguration;
 
     private DefaultExecutionContext ctx;
     private HttpHeaders requestHeaders;
@@ -77,7 +124,9 @@ class MCPHandlerTest {
         requestHeaders = HttpHeaders.create();
         lenient().when(request.headers()).thenReturn(requestHeaders);
         lenient().when(request.parameters()).thenReturn(new LinkedMultiValueMap<>(Map.of("sessionId", List.of("123-456-789"))));
-        lenient().when(request.body()).thenReturn(Maybe.empty());
+        lenient().when(request.chunks()).thenReturn(Flowable.empty());
+        // Without a maximum request size the body is read at once, aggregating the chunks stubbed by each test
+        lenient().when(request.body()).thenAnswer(invocation -> request.chunks().reduce(Buffer::appendBuffer));
 
         responseHeaders = HttpHeaders.create();
         lenient().when(response.headers()).thenReturn(responseHeaders);
@@ -109,7 +158,7 @@ class MCPHandlerTest {
                 )
                 .build()
         );
-        MCPEntrypointConnectorConfiguration cutConfiguration = new MCPEntrypointConnectorConfiguration();
+        cutConfiguration = new MCPEntrypointConnectorConfiguration();
         cutConfiguration.setTools(tools);
         cut = new MCPHandler(cutConfiguration);
         ctx = new DefaultExecutionContext(request, response);
@@ -122,9 +171,9 @@ class MCPHandlerTest {
         @BeforeEach
         void beforeEach() {
             lenient()
-                .when(request.body())
+                .when(request.chunks())
                 .thenReturn(
-                    Maybe.just(
+                    Flowable.just(
                         Buffer.buffer(
                             """
                             {
@@ -155,7 +204,7 @@ class MCPHandlerTest {
             cut.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID)).isEqualTo("123-456-789");
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isEqualTo("initialize");
-            assertThat((Integer) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isEqualTo(1);
+            assertThat((JsonRPCId) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isEqualTo(JsonRPCId.of(1));
 
             assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isTrue();
         }
@@ -164,7 +213,7 @@ class MCPHandlerTest {
         void shouldHandleInitializeResponse() {
             ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
             ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "initialize");
-            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, 1);
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
             Api api = new Api(io.gravitee.definition.model.v4.Api.builder().name("ExampleApi").apiVersion("1.0.0").build());
             CustomComponentProvider customComponentProvider = new CustomComponentProvider();
             customComponentProvider.add(Api.class, api);
@@ -174,7 +223,7 @@ class MCPHandlerTest {
 
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID)).isNull();
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isNull();
-            assertThat((Integer) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
+            assertThat((JsonRPCId) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
 
             assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON);
             assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("147");
@@ -197,9 +246,9 @@ class MCPHandlerTest {
         @BeforeEach
         void beforeEach() {
             lenient()
-                .when(request.body())
+                .when(request.chunks())
                 .thenReturn(
-                    Maybe.just(
+                    Flowable.just(
                         Buffer.buffer(
                             """
                             {
@@ -220,7 +269,7 @@ class MCPHandlerTest {
             cut.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID)).isEqualTo("123-456-789");
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isEqualTo("tools/list");
-            assertThat((Integer) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isEqualTo(1);
+            assertThat((JsonRPCId) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isEqualTo(JsonRPCId.of(1));
 
             assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isTrue();
         }
@@ -229,13 +278,13 @@ class MCPHandlerTest {
         void shouldHandleToolsListResponse() {
             ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
             ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/list");
-            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, 1);
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
 
             cut.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
 
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID)).isNull();
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isNull();
-            assertThat((Integer) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
+            assertThat((JsonRPCId) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
 
             assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON);
             assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("236");
@@ -286,7 +335,7 @@ class MCPHandlerTest {
 
             ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
             ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/list");
-            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, 1);
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
 
             handlerWithOutputSchema.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
 
@@ -308,9 +357,9 @@ class MCPHandlerTest {
         @BeforeEach
         void beforeEach() {
             lenient()
-                .when(request.body())
+                .when(request.chunks())
                 .thenReturn(
-                    Maybe.just(
+                    Flowable.just(
                         Buffer.buffer(
                             """
                             {
@@ -343,11 +392,12 @@ class MCPHandlerTest {
             cut.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID)).isEqualTo("123-456-789");
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isEqualTo("tools/call");
-            assertThat((Integer) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isEqualTo(2);
+            assertThat((JsonRPCId) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isEqualTo(JsonRPCId.of(2));
 
             assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isFalse();
 
-            String sentBuffer = "{\"type\":\"string\"}";
+            // The body is sent as formatted by the client
+            String sentBuffer = "{\n          \"type\": \"string\"\n        }";
             assertThat(requestHeaders.get("X-My-Header")).isEqualTo("headerValue");
             assertThat(requestHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo("application/json");
             assertThat(requestHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo(String.valueOf(sentBuffer.getBytes().length));
@@ -359,100 +409,2225 @@ class MCPHandlerTest {
             verify(request).body(argThat(buffer -> buffer.toString().equals(sentBuffer)));
         }
 
+        @Test
+        void shouldSendBodySchemaAsReceived() {
+            String bodySchema = "{ \"amount\" : 12.50, \"label\":\"caf\\u00e9 \\\"noir\\\"\", \"tags\": [ ] }";
+            when(request.chunks())
+                .thenReturn(
+                    Flowable.just(
+                        Buffer.buffer(
+                            "{\"jsonrpc\":\"2.0\",\"id\":2,\"method\":\"tools/call\",\"params\":{\"name\":\"ToolName\",\"arguments\":{\"X-My-Header\":\"h\",\"myPathParam\":\"p1\",\"anotherParam\":\"p2\",\"bodySchema\":" +
+                            bodySchema +
+                            "}}}"
+                        )
+                    )
+                );
+
+            cut.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat(requestHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo(String.valueOf(bodySchema.length()));
+            verify(request).body(argThat(buffer -> buffer.toString().equals(bodySchema)));
+        }
+
+        @Test
+        void shouldTimeToolsCallPhases() {
+            when(response.body()).thenReturn(Maybe.just(Buffer.buffer("{\"foo\":\"bar\"}")));
+
+            cut.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            ToolCallTimings timings = ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_CALL_TIMINGS);
+            assertThat(timings).isNotNull();
+            assertThat(timings.toolName()).isEqualTo("ToolName");
+
+            cut.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            assertThat((ToolCallTimings) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_CALL_TIMINGS)).isNull();
+            assertThat(timings.toString()).matches("total=\\S+ms parse=\\S+ms mapping=\\S+ms upstream=\\S+ms response=\\S+ms");
+        }
+
         @Test
         void shouldHandleToolsCallRequestWhenToolPathIsSameAsAPIContextPath() {
             ctx.setAttribute(ContextAttributes.ATTR_CONTEXT_PATH, "/foo");
 
-            cut.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
-            verify(request).pathInfo(
-                "/pathParam1/bar/pathParam2?myQueryParam=queryValue&myQueryParam2=value1&myQueryParam2=value2&myQueryParam4=query%20with%20space"
+            cut.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            verify(request).pathInfo(
+                "/pathParam1/bar/pathParam2?myQueryParam=queryValue&myQueryParam2=value1&myQueryParam2=value2&myQueryParam4=query%20with%20space"
+            );
+        }
+
+        @Test
+        void shouldHandleToolsCallResponseWithoutOutputSchema() {
+            // Tool does not have outputSchema, so response should NOT be wrapped in bodySchema
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/call");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME, "ToolName");
+
+            when(response.body()).thenReturn(Maybe.just(Buffer.buffer("{\"foo\":\"bar\"}")));
+
+            cut.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID)).isNull();
+            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isNull();
+            assertThat((JsonRPCId) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
+            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME)).isNull();
+
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON);
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("104");
+            verify(response).status(200);
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals(
+                            "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"{\\\"foo\\\":\\\"bar\\\"}\"}],\"error\":false}}"
+                        )
+                )
+            );
+        }
+
+        @Test
+        void shouldHandleToolsCallResponseWithOutputSchema() throws JsonProcessingException {
+            // Create a new handler with a tool that has outputSchema
+            List<MCPTool> toolsWithOutputSchema = List.of(
+                MCPTool.builder()
+                    .toolDefinition(
+                        MCPToolDefinition.builder()
+                            .name("ToolWithOutputSchema")
+                            .description("Tool with output schema")
+                            .inputSchema(mapper.readTree("{}"))
+                            .outputSchema(mapper.readTree("{\"type\":\"object\"}"))
+                            .build()
+                    )
+                    .gatewayMapping(
+                        MCPGatewayMapping.builder()
+                            .http(
+                                MCPGatewayMappingHttp.builder()
+                                    .method("GET")
+                                    .path("/test")
+                                    .contentType("application/json")
+                                    .headers(List.of())
+                                    .pathParams(List.of())
+                                    .queryParams(List.of())
+                                    .build()
+                            )
+                            .build()
+                    )
+                    .build()
+            );
+            MCPEntrypointConnectorConfiguration configWithOutputSchema = new MCPEntrypointConnectorConfiguration();
+            configWithOutputSchema.setTools(toolsWithOutputSchema);
+            MCPHandler handlerWithOutputSchema = new MCPHandler(configWithOutputSchema);
+
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/call");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME, "ToolWithOutputSchema");
+
+            when(response.body()).thenReturn(Maybe.just(Buffer.buffer("{\"foo\":\"bar\"}")));
+
+            handlerWithOutputSchema.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME)).isNull();
+
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON);
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("170");
+            verify(response).status(200);
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals(
+                            "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"{\\\"bodySchema\\\":{\\\"foo\\\":\\\"bar\\\"}}\"}],\"structuredContent\":{\"bodySchema\":{\"foo\":\"bar\"}},\"error\":false}}"
+                        )
+                )
+            );
+        }
+
+        @Test
+        void shouldMapImageResponseToImageContent() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/call");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME, "ToolName");
+
+            responseHeaders.set(HttpHeaderNames.CONTENT_TYPE, "image/PNG");
+            when(response.body()).thenReturn(Maybe.just(Buffer.buffer(new byte[] { (byte) 0x89, 'P', 'N', 'G', '\r', '\n' })));
+
+            cut.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON);
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals(
+                            "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"content\":[{\"type\":\"image\",\"data\":\"iVBORw0K\",\"mimeType\":\"image/png\"}],\"error\":false}}"
+                        )
+                )
+            );
+        }
+
+        @Test
+        void shouldMapBinaryResponseToEmbeddedResource() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/call");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME, "ToolName");
+
+            responseHeaders.set(HttpHeaderNames.CONTENT_TYPE, "application/pdf");
+            when(response.body()).thenReturn(Maybe.just(Buffer.buffer("%PDF-")));
+
+            cut.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals(
+                            "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"content\":[{\"type\":\"resource\",\"resource\":{\"uri\":\"tool://ToolName\",\"mimeType\":\"application/pdf\",\"blob\":\"JVBERi0=\"}}],\"error\":false}}"
+                        )
+                )
+            );
+        }
+
+        @Test
+        void shouldKeepTextualResponseAsTextContent() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/call");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME, "ToolName");
+
+            responseHeaders.set(HttpHeaderNames.CONTENT_TYPE, "application/problem+json; charset=utf-8");
+            when(response.body()).thenReturn(Maybe.just(Buffer.buffer("{\"foo\":\"bar\"}")));
+
+            cut.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals(
+                            "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"{\\\"foo\\\":\\\"bar\\\"}\"}],\"error\":false}}"
+                        )
+                )
+            );
+        }
+
+        @Test
+        void shouldProjectToolsCallResponse() throws JsonProcessingException {
+            MCPEntrypointConnectorConfiguration configWithProjection = new MCPEntrypointConnectorConfiguration();
+            configWithProjection.setTools(
+                List.of(
+                    MCPTool.builder()
+                        .toolDefinition(MCPToolDefinition.builder().name("ProjectedTool").inputSchema(mapper.readTree("{}")).build())
+                        .gatewayMapping(MCPGatewayMapping.builder().http(MCPGatewayMappingHttp.builder().method("GET").path("/foo").build()).build())
+                        .projection(MCPToolProjection.builder().include(List.of("/name", "/items/*/id")).exclude(List.of("/items/1")).build())
+                        .build()
+                )
+            );
+            MCPHandler handlerWithProjection = new MCPHandler(configWithProjection);
+
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/call");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME, "ProjectedTool");
+
+            responseHeaders.set(HttpHeaderNames.CONTENT_TYPE, "application/json");
+            when(response.body()).thenReturn(
+                Maybe.just(
+                    Buffer.buffer(
+                        "{\"id\":7,\"name\":\"foo\",\"items\":[{\"id\":1,\"label\":\"a\"},{\"id\":2,\"label\":\"b\"},{\"id\":3}],\"metadata\":{\"size\":3}}"
+                    )
+                )
+            );
+
+            handlerWithProjection.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals(
+                            "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"{\\\"name\\\":\\\"foo\\\",\\\"items\\\":[{\\\"id\\\":1},{\\\"id\\\":3}]}\"}],\"error\":false}}"
+                        )
+                )
+            );
+        }
+
+        @Test
+        void shouldNotReportProgressOfApiToolsCallRequest() {
+            when(request.chunks()).thenReturn(
+                Flowable.just(
+                    Buffer.buffer(
+                        """
+                        {
+                          "jsonrpc": "2.0",
+                          "id": 3,
+                          "method": "tools/call",
+                          "params": {
+                            "name": "ToolName",
+                            "arguments": {
+                              "X-My-Header": "headerValue",
+                              "myPathParam": "pathParam1",
+                              "anotherParam": "pathParam2"
+                            },
+                            "_meta": {
+                              "progressToken": "progress-1"
+                            }
+                          }
+                        }"""
+                    )
+                )
+            );
+
+            cut.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isFalse();
+            assertThat((Object) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_PROGRESS_TOKEN)).isNull();
+        }
+    }
+
+    @Nested
+    class TaskRequest {
+
+        @Mock
+        private UpstreamClient upstreamClient;
+
+        private MCPHandler handlerWithTasks;
+
+        @BeforeEach
+        void beforeEach() throws JsonProcessingException {
+            MCPEntrypointConnectorConfiguration configWithTasks = new MCPEntrypointConnectorConfiguration();
+            configWithTasks.setTools(
+                List.of(
+                    taskTool("OptionalTaskTool", MCPToolTaskSupport.OPTIONAL),
+                    taskTool("RequiredTaskTool", MCPToolTaskSupport.REQUIRED),
+                    apiTaskTool("ApiTaskTool")
+                )
+            );
+            handlerWithTasks = new MCPHandler(configWithTasks, c -> upstreamClient);
+        }
+
+        @Test
+        void shouldAdvertiseTasksCapability() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "initialize");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            Api api = new Api(io.gravitee.definition.model.v4.Api.builder().name("ExampleApi").apiVersion("1.0.0").build());
+            CustomComponentProvider customComponentProvider = new CustomComponentProvider();
+            customComponentProvider.add(Api.class, api);
+            ctx.componentProvider(customComponentProvider);
+
+            handlerWithTasks.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(
+                argThat(buffer ->
+                    buffer.toString().contains("\"capabilities\":{\"tools\":{},\"tasks\":{\"cancel\":{},\"requests\":{\"tools\":{\"call\":{}}}}}")
+                )
+            );
+        }
+
+        @Test
+        void shouldHandleToolsCallRequestAsTask() {
+            when(request.chunks()).thenReturn(Flowable.just(Buffer.buffer(toolsCallRequest("OptionalTaskTool", ",\"task\":{\"ttl\":60000}"))));
+
+            handlerWithTasks.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((Object) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TASK)).isNotNull();
+            assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isTrue();
+        }
+
+        @Test
+        void shouldCallToolMappedToApiSynchronouslyDespiteTask() {
+            when(request.chunks()).thenReturn(Flowable.just(Buffer.buffer(toolsCallRequest("ApiTaskTool", ",\"task\":{\"ttl\":60000}"))));
+
+            handlerWithTasks.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((Object) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TASK)).isNull();
+            assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isFalse();
+        }
+
+        @Test
+        void shouldNotAdvertiseTaskSupportOfToolMappedToApi() throws JsonProcessingException {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/list");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+
+            handlerWithTasks.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            ArgumentCaptor<Buffer> bodyCaptor = ArgumentCaptor.forClass(Buffer.class);
+            verify(response).body(bodyCaptor.capture());
+            JsonNode tools = mapper.readTree(bodyCaptor.getValue().toString()).at("/result/tools");
+            assertThat(tools.findValues("name")).extracting(JsonNode::asText).contains("OptionalTaskTool", "ApiTaskTool");
+            for (JsonNode tool : tools) {
+                assertThat(tool.has("execution")).isEqualTo(!tool.get("name").asText().equals("ApiTaskTool"));
+            }
+        }
+
+        @Test
+        void shouldRejectToolsCallRequestWithoutTaskForToolRequiringTask() {
+            when(request.chunks()).thenReturn(Flowable.just(Buffer.buffer(toolsCallRequest("RequiredTaskTool", ""))));
+
+            handlerWithTasks.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isTrue();
+
+            handlerWithTasks.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_ERROR_INVALID_PARAMS)).isNull();
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals(
+                            "{\"jsonrpc\":\"2.0\",\"id\":4,\"error\":{\"code\":-32602,\"message\":\"Invalid params\",\"data\":{\"reason\":\"Tool RequiredTaskTool can only be called as a task\"}}}"
+                        )
+                )
+            );
+        }
+
+        @Test
+        void shouldCreateTaskThenReturnItsStatusAndResult() throws JsonProcessingException {
+            when(request.chunks()).thenReturn(Flowable.just(Buffer.buffer(toolsCallRequest("OptionalTaskTool", ",\"task\":{\"ttl\":60000}"))));
+            when(upstreamClient.send(any())).thenReturn(
+                Single.just(new UpstreamResponse(200, "application/json", Buffer.buffer("{\"foo\":\"bar\"}")))
+            );
+
+            handlerWithTasks.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            handlerWithTasks.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            ArgumentCaptor<Buffer> bodyCaptor = ArgumentCaptor.forClass(Buffer.class);
+            verify(response).body(bodyCaptor.capture());
+            JsonNode createTaskResult = mapper.readTree(bodyCaptor.getValue().toString());
+            assertThat(createTaskResult.at("/id").asInt()).isEqualTo(4);
+            assertThat(createTaskResult.at("/result/task/ttl").asLong()).isEqualTo(60000);
+            assertThat(createTaskResult.at("/result/task/pollInterval").asLong()).isEqualTo(5000);
+            String taskId = createTaskResult.at("/result/task/taskId").asText();
+            assertThat(taskId).isNotBlank();
+
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tasks/get");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(5));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TASK_ID, taskId);
+            handlerWithTasks.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tasks/result");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(6));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TASK_ID, taskId);
+            handlerWithTasks.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response, times(3)).body(bodyCaptor.capture());
+            List<Buffer> bodies = bodyCaptor.getAllValues();
+            JsonNode taskStatus = mapper.readTree(bodies.get(bodies.size() - 2).toString());
+            assertThat(taskStatus.at("/id").asInt()).isEqualTo(5);
+            assertThat(taskStatus.at("/result/taskId").asText()).isEqualTo(taskId);
+            assertThat(taskStatus.at("/result/status").asText()).isEqualTo("completed");
+            JsonNode taskResult = mapper.readTree(bodies.get(bodies.size() - 1).toString());
+            assertThat(taskResult.at("/id").asInt()).isEqualTo(6);
+            assertThat(taskResult.at("/result/structuredContent").toString()).isEqualTo("{\"result\":{\"foo\":\"bar\"}}");
+            assertThat(taskResult.at("/result/error").asBoolean()).isFalse();
+        }
+
+        @Test
+        void shouldNotFindTaskOfAnotherSession() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "another-session");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tasks/get");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(5));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TASK_ID, "unknown-task");
+
+            handlerWithTasks.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals(
+                            "{\"jsonrpc\":\"2.0\",\"id\":5,\"error\":{\"code\":-32602,\"message\":\"Invalid params\",\"data\":{\"reason\":\"Task not found: unknown-task\"}}}"
+                        )
+                )
+            );
+        }
+
+        @Test
+        void shouldCancelTaskEvictedFromStore() {
+            MCPTaskStore taskStore = new MCPTaskStore(1, 60000);
+            MCPTask evictedTask = taskStore.create("123-456-789", null);
+            AtomicBoolean invocationDisposed = new AtomicBoolean();
+            evictedTask.runWith(Single.<JsonRPCCallResponseResults>never().doOnDispose(() -> invocationDisposed.set(true)));
+
+            taskStore.create("123-456-789", null);
+
+            assertThat(taskStore.get(evictedTask.getTaskId(), "123-456-789")).isNull();
+            assertThat(evictedTask.getStatus()).isEqualTo(MCPTaskStatus.CANCELLED);
+            assertThat(invocationDisposed).isTrue();
+        }
+
+        private MCPTool taskTool(String name, MCPToolTaskSupport taskSupport) throws JsonProcessingException {
+            return MCPTool.builder()
+                .toolDefinition(
+                    MCPToolDefinition.builder()
+                        .name(name)
+                        .description("Tool running as a task")
+                        .inputSchema(mapper.readTree("{}"))
+                        .execution(MCPToolExecution.builder().taskSupport(taskSupport).build())
+                        .build()
+                )
+                .gatewayMapping(
+                    MCPGatewayMapping.builder()
+                        .composite(
+                            MCPGatewayMappingComposite.builder()
+                                .target("http://backend/")
+                                .calls(List.of(MCPGatewayMappingCompositeCall.builder().key("result").http(testMapping()).build()))
+                                .build()
+                        )
+                        .build()
+                )
+                .build();
+        }
+
+        private MCPTool apiTaskTool(String name) throws JsonProcessingException {
+            return MCPTool.builder()
+                .toolDefinition(
+                    MCPToolDefinition.builder()
+                        .name(name)
+                        .description("Tool mapped to the API")
+                        .inputSchema(mapper.readTree("{}"))
+                        .execution(MCPToolExecution.builder().taskSupport(MCPToolTaskSupport.OPTIONAL).build())
+                        .build()
+                )
+                .gatewayMapping(MCPGatewayMapping.builder().http(testMapping()).build())
+                .build();
+        }
+
+        private MCPGatewayMappingHttp testMapping() {
+            return MCPGatewayMappingHttp.builder()
+                .method("GET")
+                .path("/test")
+                .headers(List.of())
+                .pathParams(List.of())
+                .queryParams(List.of())
+                .build();
+        }
+
+        private String toolsCallRequest(String toolName, String extraParams) {
+            return (
+                "{\"jsonrpc\":\"2.0\",\"id\":4,\"method\":\"tools/call\",\"params\":{\"name\":\"" +
+                toolName +
+                "\",\"arguments\":{}" +
+                extraParams +
+                "}}"
+            );
+        }
+    }
+
+    @Nested
+    class Replay {
+
+        private static final String CREATE_ORDER_CALL =
+            "{\"jsonrpc\":\"2.0\",\"id\":7,\"method\":\"tools/call\",\"params\":{\"name\":\"CreateOrder\",\"arguments\":{\"item\":\"%s\"}}}";
+        private static final String CREATE_ORDER_RESPONSE =
+            "{\"jsonrpc\":\"2.0\",\"id\":7,\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"{\\\"orderId\\\":1}\"}],\"error\":false}}";
+
+        @Mock
+        private HttpInvoker invoker;
+
+        private MCPHandler handlerWithReplay;
+
+        @BeforeEach
+        void setUp() throws JsonProcessingException {
+            MCPEntrypointConnectorConfiguration configWithReplay = new MCPEntrypointConnectorConfiguration();
+            configWithReplay.setTools(
+                List.of(
+                    MCPTool.builder()
+                        .toolDefinition(
+                            MCPToolDefinition.builder()
+                                .name("CreateOrder")
+                                .inputSchema(mapper.readTree("{}"))
+                                .annotations(MCPToolAnnotations.builder().readOnlyHint(false).build())
+                                .build()
+                        )
+                        .gatewayMapping(
+                            MCPGatewayMapping.builder()
+                                .http(MCPGatewayMappingHttp.builder().method("POST").path("/orders").contentType("application/json").build())
+                                .build()
+                        )
+                        .build()
+                )
+            );
+            configWithReplay.setReplayCacheTtl(60000);
+            configWithReplay.setReadOnlyPlans(List.of("plan-read"));
+            handlerWithReplay = new MCPHandler(configWithReplay);
+            lenient().when(response.body()).thenReturn(Maybe.just(Buffer.buffer("{\"orderId\":1}")));
+            lenient().when(invoker.invoke(any())).thenReturn(Completable.complete());
+        }
+
+        @Test
+        void shouldReplayRetryOfCompletedCallWithoutInvokingApi() {
+            DefaultExecutionContext callCtx = handleCreateOrder("book", "plan-basic");
+            invokeCreateOrder(callCtx).awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            handlerWithReplay.handleResponse(callCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            DefaultExecutionContext retryCtx = handleCreateOrder("book", "plan-basic");
+            invokeCreateOrder(retryCtx).awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            handlerWithReplay.handleResponse(retryCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(invoker, times(1)).invoke(any());
+            verify(response, times(1)).body();
+            verify(response, times(2)).body(argThat(buffer -> buffer.toString().equals(CREATE_ORDER_RESPONSE)));
+        }
+
+        @Test
+        void shouldJoinCallInFlight() {
+            DefaultExecutionContext callCtx = handleCreateOrder("book", "plan-basic");
+            invokeCreateOrder(callCtx).awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            DefaultExecutionContext retryCtx = handleCreateOrder("book", "plan-basic");
+            invokeCreateOrder(retryCtx).awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            var retryObserver = handlerWithReplay.handleResponse(retryCtx).test();
+            retryObserver.assertNotComplete();
+
+            handlerWithReplay.handleResponse(callCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            retryObserver.awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(invoker, times(1)).invoke(any());
+            verify(response, times(2)).body(argThat(buffer -> buffer.toString().equals(CREATE_ORDER_RESPONSE)));
+        }
+
+        @Test
+        void shouldFailRetryWhenOriginalCallIsCancelledWhileInvokingApi() {
+            when(invoker.invoke(any())).thenReturn(Completable.never());
+            DefaultExecutionContext callCtx = handleCreateOrder("book", "plan-basic");
+            var invocation = invokeCreateOrder(callCtx);
+            DefaultExecutionContext retryCtx = handleCreateOrder("book", "plan-basic");
+            invokeCreateOrder(retryCtx).awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            var retryObserver = handlerWithReplay.handleResponse(retryCtx).test();
+
+            invocation.dispose();
+
+            retryObserver.awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            verify(response).body(argThat(buffer -> buffer.toString().contains("\"code\":-32603")));
+            invokeCreateOrder(handleCreateOrder("book", "plan-basic"));
+            verify(invoker, times(2)).invoke(any());
+        }
+
+        @Test
+        void shouldNotReplayCallWithOtherArguments() {
+            invokeCreateOrder(handleCreateOrder("book", "plan-basic")).awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            invokeCreateOrder(handleCreateOrder("pen", "plan-basic")).awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(invoker, times(2)).invoke(any());
+        }
+
+        @Test
+        void shouldNotReplayCallOfAnotherConsumer() {
+            DefaultExecutionContext callCtx = handleCreateOrder("book", "plan-basic");
+            invokeCreateOrder(callCtx).awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            handlerWithReplay.handleResponse(callCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            invokeCreateOrder(handleCreateOrder("book", "plan-premium")).awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(invoker, times(2)).invoke(any());
+        }
+
+        @Test
+        void shouldNotReplayCallWithOtherCredentials() {
+            requestHeaders.set(HttpHeaderNames.AUTHORIZATION, "Bearer token");
+            DefaultExecutionContext callCtx = handleCreateOrder("book", "plan-basic");
+            invokeCreateOrder(callCtx).awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            handlerWithReplay.handleResponse(callCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            requestHeaders.set(HttpHeaderNames.AUTHORIZATION, "Bearer another-token");
+            invokeCreateOrder(handleCreateOrder("book", "plan-basic")).awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(invoker, times(2)).invoke(any());
+        }
+
+        @Test
+        void shouldNotReplayCallOfToolHiddenToPlan() {
+            DefaultExecutionContext callCtx = handleCreateOrder("book", "plan-basic");
+            invokeCreateOrder(callCtx).awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            handlerWithReplay.handleResponse(callCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            DefaultExecutionContext retryCtx = handleCreateOrder("book", "plan-read");
+            invokeCreateOrder(retryCtx).awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            handlerWithReplay.handleResponse(retryCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(invoker, times(1)).invoke(any());
+            verify(response).body(argThat(buffer -> buffer.toString().contains("Unknown tool: CreateOrder")));
+        }
+
+        private DefaultExecutionContext handleCreateOrder(String item, String plan) {
+            when(request.chunks()).thenReturn(Flowable.just(Buffer.buffer(String.format(CREATE_ORDER_CALL, item))));
+            DefaultExecutionContext callCtx = new DefaultExecutionContext(request, response);
+            callCtx.setAttribute(ContextAttributes.ATTR_CONTEXT_PATH, "/contextPath");
+            callCtx.setInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER, invoker);
+            handlerWithReplay.handleRequest(callCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            // The security chain identifies the plan after the entrypoint handled the request
+            callCtx.setAttribute(ContextAttributes.ATTR_PLAN, plan);
+            return callCtx;
+        }
+
+        private TestObserver<Void> invokeCreateOrder(DefaultExecutionContext callCtx) {
+            HttpInvoker toolCallInvoker = callCtx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER);
+            return toolCallInvoker.invoke(callCtx).test();
+        }
+    }
+
+    @Nested
+    class CompositeTool {
+
+        @Mock
+        private UpstreamClient upstreamClient;
+
+        private MCPEntrypointConnectorConfiguration configWithComposite;
+
+        private MCPHandler handlerWithComposite;
+
+        @BeforeEach
+        void setUp() throws JsonProcessingException {
+            configWithComposite = new MCPEntrypointConnectorConfiguration();
+            configWithComposite.setTools(
+                List.of(
+                    MCPTool.builder()
+                        .toolDefinition(MCPToolDefinition.builder().name("CustomerOverview").inputSchema(mapper.readTree("{}")).build())
+                        .gatewayMapping(
+                            MCPGatewayMapping.builder()
+                                .composite(
+                                    MCPGatewayMappingComposite.builder()
+                                        .target("http://backend/")
+                                        .calls(
+                                            List.of(
+                                                compositeCall("customer", "/customers/:id", List.of()),
+                                                compositeCall("orders", "/customers/:id/orders", List.of("status")),
+                                                compositeCall("invoices", "/customers/:id/invoices", List.of())
+                                            )
+                                        )
+                                        .build()
+                                )
+                                .build()
+                        )
+                        .build()
+                )
+            );
+            handlerWithComposite = new MCPHandler(configWithComposite, c -> upstreamClient);
+        }
+
+        @Test
+        void shouldNotInvokeApiForCompositeTool() {
+            when(request.chunks()).thenReturn(
+                Flowable.just(
+                    Buffer.buffer(
+                        "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/call\",\"params\":{\"name\":\"CustomerOverview\",\"arguments\":{\"id\":\"42\"}}}"
+                    )
+                )
+            );
+
+            handlerWithComposite.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isTrue();
+            assertThat((Map<String, Object>) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_COMPOSITE_ARGUMENTS)).containsEntry(
+                "id",
+                "42"
+            );
+            verify(request, never()).pathInfo(any());
+        }
+
+        @Test
+        void shouldMergeResultsOfConcurrentCalls() throws JsonProcessingException {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/call");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME, "CustomerOverview");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_COMPOSITE_ARGUMENTS, Map.of("id", "42", "status", "open"));
+
+            when(upstreamClient.send(any())).thenAnswer(invocation -> {
+                UpstreamRequest upstreamRequest = invocation.getArgument(0);
+                return switch (upstreamRequest.uri()) {
+                    case "http://backend/customers/42" -> Single.just(
+                        new UpstreamResponse(200, "application/json", Buffer.buffer("{\"name\":\"Jane\"}"))
+                    ).delay(50, TimeUnit.MILLISECONDS);
+                    case "http://backend/customers/42/orders?status=open" -> Single.just(
+                        new UpstreamResponse(200, "application/json", Buffer.buffer("[{\"id\":1}]"))
+                    );
+                    default -> Single.just(new UpstreamResponse(503, "text/plain", Buffer.buffer("unavailable")));
+                };
+            });
+
+            handlerWithComposite.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            ArgumentCaptor<UpstreamRequest> requestCaptor = ArgumentCaptor.forClass(UpstreamRequest.class);
+            verify(upstreamClient, times(3)).send(requestCaptor.capture());
+            assertThat(requestCaptor.getAllValues())
+                .extracting(UpstreamRequest::method)
+                .containsOnly("GET");
+
+            ArgumentCaptor<Buffer> bodyCaptor = ArgumentCaptor.forClass(Buffer.class);
+            verify(response).body(bodyCaptor.capture());
+            JsonNode result = mapper.readTree(bodyCaptor.getValue().toString()).get("result");
+            assertThat(result.get("structuredContent").toString()).isEqualTo(
+                "{\"customer\":{\"name\":\"Jane\"},\"orders\":[{\"id\":1}],\"invoices\":{\"status\":503,\"error\":\"unavailable\"}}"
+            );
+            assertThat(result.get("content").get(0).get("text").asText()).isEqualTo(result.get("structuredContent").toString());
+            assertThat(result.get("error").asBoolean()).isTrue();
+        }
+
+        @Test
+        void shouldForwardCredentialsAndSkipMissingHeaderArguments() throws JsonProcessingException {
+            MCPGatewayMappingCompositeCall customerCall = compositeCall("customer", "/customers/:id", List.of());
+            customerCall.getHttp().setHeaders(List.of("X-Tenant"));
+            configWithComposite.setTools(
+                List.of(
+                    MCPTool.builder()
+                        .toolDefinition(MCPToolDefinition.builder().name("Customer").inputSchema(mapper.readTree("{}")).build())
+                        .gatewayMapping(
+                            MCPGatewayMapping.builder()
+                                .composite(
+                                    MCPGatewayMappingComposite.builder().target("http://backend/").calls(List.of(customerCall)).build()
+                                )
+                                .build()
+                        )
+                        .build()
+                )
+            );
+            MCPHandler handlerWithHeaders = new MCPHandler(configWithComposite, c -> upstreamClient);
+            requestHeaders.set(HttpHeaderNames.AUTHORIZATION, "Bearer token");
+            requestHeaders.add(HttpHeaderNames.COOKIE, "a=1");
+            requestHeaders.add(HttpHeaderNames.COOKIE, "b=2");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/call");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME, "Customer");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_COMPOSITE_ARGUMENTS, Map.of("id", "42"));
+            when(upstreamClient.send(any())).thenReturn(Single.just(new UpstreamResponse(200, "application/json", Buffer.buffer("{}"))));
+
+            handlerWithHeaders.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            ArgumentCaptor<UpstreamRequest> requestCaptor = ArgumentCaptor.forClass(UpstreamRequest.class);
+            verify(upstreamClient).send(requestCaptor.capture());
+            assertThat(requestCaptor.getValue().headers())
+                .containsEntry(HttpHeaderNames.AUTHORIZATION, "Bearer token")
+                .containsEntry(HttpHeaderNames.COOKIE, "a=1; b=2")
+                .doesNotContainKey("X-Tenant");
+        }
+
+        @Test
+        void shouldCloseUpstreamClientWhenClosed() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/call");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME, "CustomerOverview");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_COMPOSITE_ARGUMENTS, Map.of("id", "42"));
+            when(upstreamClient.send(any())).thenReturn(Single.just(new UpstreamResponse(200, "application/json", Buffer.buffer("{}"))));
+            handlerWithComposite.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            handlerWithComposite.close();
+
+            verify(upstreamClient).close();
+        }
+
+        @Test
+        void shouldKeepProgressTokenOfCompositeToolsCallRequest() {
+            when(request.chunks()).thenReturn(
+                Flowable.just(
+                    Buffer.buffer(
+                        "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/call\",\"params\":{\"name\":\"CustomerOverview\",\"arguments\":{\"id\":\"42\"},\"_meta\":{\"progressToken\":\"progress-1\"}}}"
+                    )
+                )
+            );
+
+            handlerWithComposite.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((Object) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_PROGRESS_TOKEN)).isEqualTo("progress-1");
+            assertThat((Long) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_CALL_START_TIME)).isNotNull();
+        }
+
+        @Test
+        void shouldStreamProgressNotificationsBeforeCallsStart() throws JsonProcessingException {
+            configWithComposite.setProgressNotificationInterval(50);
+
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/call");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(2));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME, "CustomerOverview");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_COMPOSITE_ARGUMENTS, Map.of("id", "42"));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_PROGRESS_TOKEN, "progress-1");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_CALL_START_TIME, System.nanoTime());
+
+            AtomicInteger startedCalls = new AtomicInteger();
+            when(upstreamClient.send(any())).thenAnswer(invocation ->
+                Single.just(new UpstreamResponse(200, "application/json", Buffer.buffer("{}")))
+                    .delay(300, TimeUnit.MILLISECONDS)
+                    .doOnSubscribe(disposable -> startedCalls.incrementAndGet())
+            );
+
+            handlerWithComposite.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            // The calls are only made once the response is streamed
+            assertThat(startedCalls).hasValue(0);
+            assertThat((Object) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_PROGRESS_TOKEN)).isNull();
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.TEXT_EVENT_STREAM);
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isNull();
+            verify(response).status(200);
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Flowable<Buffer>> chunksCaptor = ArgumentCaptor.forClass(Flowable.class);
+            verify(response).chunks(chunksCaptor.capture());
+            List<String> events = chunksCaptor.getValue().map(Buffer::toString).test().awaitDone(5, TimeUnit.SECONDS).assertComplete().values();
+
+            assertThat(startedCalls).hasValue(3);
+            assertThat(events).hasSizeGreaterThan(1);
+            assertThat(events.subList(0, events.size() - 1)).allSatisfy(event -> {
+                assertThat(event).startsWith(
+                    "event: message\ndata: {\"jsonrpc\":\"2.0\",\"method\":\"notifications/progress\",\"params\":{\"progressToken\":\"progress-1\",\"progress\":"
+                );
+                assertThat(event).contains("of 3 calls completed").contains("bytes received").contains("ms elapsed");
+            });
+            assertThat(events.get(events.size() - 1)).startsWith("event: message\ndata: {\"jsonrpc\":\"2.0\",\"id\":2,\"result\":");
+        }
+
+        private MCPGatewayMappingCompositeCall compositeCall(String key, String path, List<String> queryParams) {
+            return MCPGatewayMappingCompositeCall.builder()
+                .key(key)
+                .http(
+                    MCPGatewayMappingHttp.builder()
+                        .method("GET")
+                        .path(path)
+                        .pathParams(List.of("id"))
+                        .queryParams(queryParams)
+                        .headers(List.of())
+                        .build()
+                )
+                .build();
+        }
+    }
+
+    @Nested
+    class Hedging {
+
+        @Mock
+        private UpstreamClient upstreamClient;
+
+        @Mock
+        private HttpInvoker invoker;
+
+        private MCPEntrypointConnectorConfiguration configWithHedging;
+        private CustomComponentProvider componentProvider;
+
+        @BeforeEach
+        void setUp() throws JsonProcessingException {
+            configWithHedging = new MCPEntrypointConnectorConfiguration();
+            configWithHedging.setHedgingEnabled(true);
+            configWithHedging.setHedgingBudget(10);
+            configWithHedging.setTools(
+                List.of(
+                    MCPTool.builder()
+                        .toolDefinition(
+                            MCPToolDefinition.builder()
+                                .name("GetCustomer")
+                                .inputSchema(mapper.readTree("{}"))
+                                .annotations(MCPToolAnnotations.builder().readOnlyHint(true).build())
+                                .build()
+                        )
+                        .gatewayMapping(
+                            MCPGatewayMapping.builder()
+                                .http(MCPGatewayMappingHttp.builder().method("GET").path("/customers/:id").build())
+                                .build()
+                        )
+                        .build()
+                )
+            );
+
+            Endpoint endpoint = new Endpoint();
+            endpoint.setConfiguration("{\"target\":\"http://backend/\"}");
+            EndpointGroup endpointGroup = new EndpointGroup();
+            endpointGroup.setEndpoints(List.of(endpoint));
+            Api api = new Api(io.gravitee.definition.model.v4.Api.builder().name("ExampleApi").endpointGroups(List.of(endpointGroup)).build());
+            componentProvider = new CustomComponentProvider();
+            componentProvider.add(Api.class, api);
+        }
+
+        @Test
+        void shouldInvokeApiForHedgedTool() {
+            MCPHandler handlerWithHedging = new MCPHandler(configWithHedging, c -> upstreamClient);
+            DefaultExecutionContext callCtx = handleGetCustomer(handlerWithHedging);
+
+            assertThat((Boolean) callCtx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isFalse();
+            assertThat((Map<String, Object>) callCtx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_HEDGED_ARGUMENTS)).containsEntry(
+                "id",
+                "42"
+            );
+            assertThat((Object) callCtx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER)).isNotSameAs(invoker);
+        }
+
+        @Test
+        void shouldHedgeSlowInvocationAndKeepFirstResponse() {
+            MCPHandler handlerWithHedging = new MCPHandler(configWithHedging, c -> upstreamClient);
+            AtomicInteger invocations = new AtomicInteger();
+            AtomicInteger cancelledInvocations = new AtomicInteger();
+            when(invoker.invoke(any())).thenAnswer(invocation ->
+                invocations.incrementAndGet() == 21
+                    ? Completable.never().doOnDispose(cancelledInvocations::incrementAndGet)
+                    : Completable.complete()
+            );
+            when(upstreamClient.send(any())).thenReturn(
+                Single.just(new UpstreamResponse(200, "application/json", Buffer.buffer("{\"name\":\"Hedged\"}")))
+            );
+
+            for (int i = 0; i < 21; i++) {
+                invokeGetCustomer(handlerWithHedging);
+            }
+
+            assertThat(invocations.get()).isEqualTo(21);
+            assertThat(cancelledInvocations.get()).isEqualTo(1);
+            ArgumentCaptor<UpstreamRequest> requestCaptor = ArgumentCaptor.forClass(UpstreamRequest.class);
+            verify(upstreamClient).send(requestCaptor.capture());
+            assertThat(requestCaptor.getValue().uri()).isEqualTo("http://backend/customers/42");
+            verify(response).status(200);
+            verify(response).body(argThat(buffer -> buffer.toString().equals("{\"name\":\"Hedged\"}")));
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo("application/json");
+        }
+
+        @Test
+        void shouldKeepSlowInvocationWhenHedgeIsNotSuccessful() {
+            MCPHandler handlerWithHedging = new MCPHandler(configWithHedging, c -> upstreamClient);
+            AtomicInteger invocations = new AtomicInteger();
+            when(invoker.invoke(any())).thenAnswer(invocation ->
+                invocations.incrementAndGet() == 21 ? Completable.timer(200, TimeUnit.MILLISECONDS) : Completable.complete()
+            );
+            when(upstreamClient.send(any())).thenReturn(Single.just(new UpstreamResponse(503, "text/plain", Buffer.buffer("unavailable"))));
+            requestHeaders.set(HttpHeaderNames.AUTHORIZATION, "Bearer token");
+
+            for (int i = 0; i < 21; i++) {
+                invokeGetCustomer(handlerWithHedging);
+            }
+
+            ArgumentCaptor<UpstreamRequest> requestCaptor = ArgumentCaptor.forClass(UpstreamRequest.class);
+            verify(upstreamClient).send(requestCaptor.capture());
+            assertThat(requestCaptor.getValue().headers()).containsEntry(HttpHeaderNames.AUTHORIZATION, "Bearer token");
+            verify(response, never()).status(anyInt());
+            verify(response, never()).body(any(Buffer.class));
+        }
+
+        @Test
+        void shouldNotHedgeWithoutBudget() {
+            configWithHedging.setHedgingBudget(0);
+            MCPHandler handlerWithHedging = new MCPHandler(configWithHedging, c -> upstreamClient);
+            AtomicInteger invocations = new AtomicInteger();
+            when(invoker.invoke(any())).thenAnswer(invocation ->
+                invocations.incrementAndGet() == 21 ? Completable.timer(100, TimeUnit.MILLISECONDS) : Completable.complete()
+            );
+
+            for (int i = 0; i < 21; i++) {
+                invokeGetCustomer(handlerWithHedging);
+            }
+
+            assertThat(invocations.get()).isEqualTo(21);
+            verify(upstreamClient, never()).send(any());
+        }
+
+        private DefaultExecutionContext handleGetCustomer(MCPHandler handlerWithHedging) {
+            when(request.chunks()).thenAnswer(invocation ->
+                Flowable.just(
+                    Buffer.buffer(
+                        "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/call\",\"params\":{\"name\":\"GetCustomer\",\"arguments\":{\"id\":\"42\"}}}"
+                    )
+                )
+            );
+            DefaultExecutionContext callCtx = new DefaultExecutionContext(request, response);
+            callCtx.setAttribute(ContextAttributes.ATTR_CONTEXT_PATH, "/contextPath");
+            callCtx.componentProvider(componentProvider);
+            callCtx.setInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER, invoker);
+            handlerWithHedging.handleRequest(callCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            return callCtx;
+        }
+
+        /**
+         * The API is invoked through the wrapper the entrypoint installed, once the security chain ran.
+         */
+        private void invokeGetCustomer(MCPHandler handlerWithHedging) {
+            DefaultExecutionContext callCtx = handleGetCustomer(handlerWithHedging);
+            HttpInvoker toolCallInvoker = callCtx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER);
+            toolCallInvoker.invoke(callCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+        }
+    }
+
+    @Nested
+    class Upload {
+
+        private MCPEntrypointConnectorConfiguration configWithUpload;
+
+        @BeforeEach
+        void setUp() throws JsonProcessingException {
+            configWithUpload = new MCPEntrypointConnectorConfiguration();
+            configWithUpload.setTools(List.of(uploadTool(MCPGatewayMappingUploadMode.MULTIPART)));
+        }
+
+        private MCPTool uploadTool(MCPGatewayMappingUploadMode mode) throws JsonProcessingException {
+            return MCPTool.builder()
+                .toolDefinition(MCPToolDefinition.builder().name("UploadDocument").inputSchema(mapper.readTree("{}")).build())
+                .gatewayMapping(
+                    MCPGatewayMapping.builder()
+                        .http(
+                            MCPGatewayMappingHttp.builder()
+                                .method("POST")
+                                .path("/documents")
+                                .upload(
+                                    MCPGatewayMappingUpload.builder()
+                                        .mode(mode)
+                                        .argument("content")
+                                        .fileNameArgument("fileName")
+                                        .mediaType("application/pdf")
+                                        .fields(List.of("title"))
+                                        .build()
+                                )
+                                .build()
+                        )
+                        .build()
+                )
+                .build();
+        }
+
+        private void givenUploadRequest(String content) {
+            when(request.chunks()).thenReturn(
+                Flowable.just(
+                    Buffer.buffer(
+                        "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/call\",\"params\":{\"name\":\"UploadDocument\",\"arguments\":{\"title\":\"Report\",\"fileName\":\"report.pdf\",\"content\":\"" +
+                        content +
+                        "\"}}}"
+                    )
+                )
+            );
+        }
+
+        private String sentBody() {
+            ArgumentCaptor<Flowable<Buffer>> chunksCaptor = ArgumentCaptor.forClass(Flowable.class);
+            verify(request).chunks(chunksCaptor.capture());
+            Buffer body = Buffer.buffer();
+            chunksCaptor.getValue().test().awaitDone(5, TimeUnit.SECONDS).assertComplete().values().forEach(body::appendBuffer);
+            return body.toString();
+        }
+
+        @Test
+        void shouldStreamDecodedContentAsMultipartFilePart() {
+            // The solidus of the base64 content escaped by the JSON serializer of the client
+            givenUploadRequest(Base64.getEncoder().encodeToString("%PDF ?>~".getBytes(StandardCharsets.UTF_8)).replace("/", "\\/"));
+
+            new MCPHandler(configWithUpload).handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isFalse();
+            verify(request).method(HttpMethod.POST);
+            String contentType = requestHeaders.get(HttpHeaderNames.CONTENT_TYPE);
+            assertThat(contentType).startsWith("multipart/form-data; boundary=");
+            String boundary = contentType.substring("multipart/form-data; boundary=".length());
+            String body = sentBody();
+            assertThat(body).isEqualTo(
+                "--" +
+                boundary +
+                "\r\nContent-Disposition: form-data; name=\"title\"\r\n\r\nReport\r\n--" +
+                boundary +
+                "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"report.pdf\"\r\nContent-Type: application/pdf\r\n\r\n%PDF ?>~\r\n--" +
+                boundary +
+                "--\r\n"
+            );
+            assertThat(requestHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo(String.valueOf(body.length()));
+        }
+
+        @Test
+        void shouldStreamDecodedContentAsWholeBody() throws JsonProcessingException {
+            configWithUpload.setTools(List.of(uploadTool(MCPGatewayMappingUploadMode.BINARY)));
+            byte[] content = new byte[200_000];
+            new Random(42).nextBytes(content);
+            givenUploadRequest(Base64.getEncoder().encodeToString(content));
+
+            new MCPHandler(configWithUpload).handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat(requestHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo("application/pdf");
+            assertThat(requestHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("200000");
+            ArgumentCaptor<Flowable<Buffer>> chunksCaptor = ArgumentCaptor.forClass(Flowable.class);
+            verify(request).chunks(chunksCaptor.capture());
+            List<Buffer> chunks = chunksCaptor.getValue().test().awaitDone(5, TimeUnit.SECONDS).assertComplete().values();
+            assertThat(chunks).hasSize(5).allSatisfy(chunk -> assertThat(chunk.length()).isLessThanOrEqualTo(48 * 1024));
+            Buffer body = Buffer.buffer();
+            chunks.forEach(body::appendBuffer);
+            assertThat(body.getBytes()).isEqualTo(content);
+        }
+
+        @Test
+        void shouldRejectContentThatIsNotBase64() {
+            givenUploadRequest("not base64!");
+
+            new MCPHandler(configWithUpload).handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isTrue();
+            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_ERROR_INVALID_PARAMS)).startsWith(
+                "Invalid base64 content"
+            );
+            verify(request, never()).chunks(any());
+        }
+    }
+
+    @Nested
+    class ResponseStreaming {
+
+        private MCPHandler handlerWithStreaming;
+
+        @BeforeEach
+        void setUp() throws JsonProcessingException {
+            MCPEntrypointConnectorConfiguration configWithStreaming = new MCPEntrypointConnectorConfiguration();
+            configWithStreaming.setResponseStreamingThreshold(16);
+            configWithStreaming.setTools(
+                List.of(
+                    MCPTool.builder()
+                        .toolDefinition(MCPToolDefinition.builder().name("GetReport").inputSchema(mapper.readTree("{}")).build())
+                        .gatewayMapping(
+                            MCPGatewayMapping.builder().http(MCPGatewayMappingHttp.builder().method("GET").path("/report").build()).build()
+                        )
+                        .build()
+                )
+            );
+            handlerWithStreaming = new MCPHandler(configWithStreaming);
+
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/call");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME, "GetReport");
+            responseHeaders.set(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=utf-8");
+        }
+
+        @Test
+        void shouldStreamLargeTextResultAsItIsReceived() {
+            byte[] accented = "é".getBytes(StandardCharsets.UTF_8);
+            responseHeaders.set(HttpHeaderNames.CONTENT_LENGTH, "20");
+            when(response.chunks()).thenReturn(
+                Flowable.just(
+                    Buffer.buffer("line \"1\"\n"),
+                    Buffer.buffer("caf").appendBuffer(Buffer.buffer(new byte[] { accented[0] })),
+                    Buffer.buffer(new byte[] { accented[1] }).appendBuffer(Buffer.buffer("\\end\t"))
+                )
+            );
+
+            handlerWithStreaming.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            ArgumentCaptor<Flowable<Buffer>> chunksCaptor = ArgumentCaptor.forClass(Flowable.class);
+            verify(response).chunks(chunksCaptor.capture());
+            verify(response, never()).body();
+            verify(response).status(200);
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON);
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isNull();
+            List<Buffer> chunks = chunksCaptor.getValue().test().awaitDone(5, TimeUnit.SECONDS).assertComplete().values();
+            assertThat(chunks).hasSize(5);
+            Buffer streamed = Buffer.buffer();
+            chunks.forEach(streamed::appendBuffer);
+            assertThat(streamed.toString()).isEqualTo(
+                "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"line \\\"1\\\"\\ncafé\\\\end\\t\"}],\"error\":false}}"
+            );
+        }
+
+        @Test
+        void shouldAggregateSmallTextResult() {
+            responseHeaders.set(HttpHeaderNames.CONTENT_LENGTH, "5");
+            when(response.body()).thenReturn(Maybe.just(Buffer.buffer("small")));
+
+            handlerWithStreaming.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response, never()).chunks(any());
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"small\"}],\"error\":false}}")
+                )
+            );
+        }
+
+        @Test
+        void shouldAggregateTextResultOfUnknownSize() {
+            when(response.body()).thenReturn(Maybe.just(Buffer.buffer("a response of unknown size")));
+
+            handlerWithStreaming.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response, never()).chunks(any());
+            verify(response).body(argThat(buffer -> buffer.toString().contains("a response of unknown size")));
+        }
+    }
+
+    @Nested
+    class Compression {
+
+        private static final String TOOLS_LIST_RESPONSE =
+            "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"tools\":[{\"name\":\"ToolName\",\"description\":\"ToolDescription\",\"inputSchema\":{},\"annotations\":{\"title\":\"My tool\",\"readOnlyHint\":true,\"destructiveHint\":false,\"idempotentHint\":true,\"openWorldHint\":false}}]}}";
+
+        private MCPHandler handlerWithCompression;
+
+        @BeforeEach
+        void setUp() throws JsonProcessingException {
+            MCPEntrypointConnectorConfiguration configWithCompression = new MCPEntrypointConnectorConfiguration();
+            configWithCompression.setTools(
+                List.of(
+                    MCPTool.builder()
+                        .toolDefinition(
+                            MCPToolDefinition.builder()
+                                .name("ToolName")
+                                .description("ToolDescription")
+                                .inputSchema(mapper.readTree("{}"))
+                                .annotations(new MCPToolAnnotations("My tool", true, false, true, false))
+                                .build()
+                        )
+                        .gatewayMapping(MCPGatewayMapping.builder().http(MCPGatewayMappingHttp.builder().method("GET").path("/foo").build()).build())
+                        .build()
+                )
+            );
+            configWithCompression.setCompressionEnabled(true);
+            configWithCompression.setCompressionThreshold(0);
+            handlerWithCompression = new MCPHandler(configWithCompression);
+
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+        }
+
+        @Test
+        void shouldCompressToolsListResponseWithGzip() throws IOException {
+            requestHeaders.set(HttpHeaderNames.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8, deflate;q=0.5");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/list");
+
+            handlerWithCompression.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            // Second response reuses the compressed tools
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/list");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            handlerWithCompression.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            ArgumentCaptor<Buffer> bodyCaptor = ArgumentCaptor.forClass(Buffer.class);
+            verify(response, times(2)).body(bodyCaptor.capture());
+            for (Buffer body : bodyCaptor.getAllValues()) {
+                byte[] decompressed = new GZIPInputStream(new ByteArrayInputStream(body.getBytes())).readAllBytes();
+                assertThat(new String(decompressed, StandardCharsets.UTF_8)).isEqualTo(TOOLS_LIST_RESPONSE);
+            }
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("gzip");
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo(bodyCaptor.getValue().length() + "");
+            assertThat(responseHeaders.get(HttpHeaderNames.VARY)).isEqualTo(HttpHeaderNames.ACCEPT_ENCODING);
+        }
+
+        @Test
+        void shouldCompressToolsListResponseWithDeflate() throws IOException {
+            requestHeaders.set(HttpHeaderNames.ACCEPT_ENCODING, "deflate");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/list");
+
+            handlerWithCompression.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            ArgumentCaptor<Buffer> bodyCaptor = ArgumentCaptor.forClass(Buffer.class);
+            verify(response).body(bodyCaptor.capture());
+            byte[] decompressed = new InflaterInputStream(new ByteArrayInputStream(bodyCaptor.getValue().getBytes())).readAllBytes();
+            assertThat(new String(decompressed, StandardCharsets.UTF_8)).isEqualTo(TOOLS_LIST_RESPONSE);
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("deflate");
+        }
+
+        @Test
+        void shouldCompressToolsCallResponse() throws IOException {
+            requestHeaders.set(HttpHeaderNames.ACCEPT_ENCODING, "gzip");
+            responseHeaders.set(HttpHeaderNames.CONTENT_ENCODING, "identity");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/call");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME, "ToolName");
+            when(response.body()).thenReturn(Maybe.just(Buffer.buffer("{\"foo\":\"bar\"}")));
+
+            handlerWithCompression.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            ArgumentCaptor<Buffer> bodyCaptor = ArgumentCaptor.forClass(Buffer.class);
+            verify(response).body(bodyCaptor.capture());
+            byte[] decompressed = new GZIPInputStream(new ByteArrayInputStream(bodyCaptor.getValue().getBytes())).readAllBytes();
+            assertThat(new String(decompressed, StandardCharsets.UTF_8)).isEqualTo(
+                "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"{\\\"foo\\\":\\\"bar\\\"}\"}],\"error\":false}}"
+            );
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_ENCODING)).isEqualTo("gzip");
+        }
+
+        @Test
+        void shouldNotCompressResponseBelowThreshold() {
+            requestHeaders.set(HttpHeaderNames.ACCEPT_ENCODING, "gzip");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/list");
+
+            cut.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_ENCODING)).isNull();
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("236");
+            verify(response).body(argThat(buffer -> buffer.toString().equals(TOOLS_LIST_RESPONSE)));
+        }
+
+        @Test
+        void shouldNotCompressResponseWhenEncodingIsRefused() {
+            requestHeaders.set(HttpHeaderNames.ACCEPT_ENCODING, "*;q=0, identity");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/list");
+
+            handlerWithCompression.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_ENCODING)).isNull();
+            verify(response).body(argThat(buffer -> buffer.toString().equals(TOOLS_LIST_RESPONSE)));
+        }
+    }
+
+    @Nested
+    class Revalidation {
+
+        private static final String TOOLS_CALL_REQUEST =
+            "{\"jsonrpc\":\"2.0\",\"id\":3,\"method\":\"tools/call\",\"params\":{\"name\":\"ToolName\",\"arguments\":{\"X-My-Header\":\"headerValue\",\"myPathParam\":\"a\",\"anotherParam\":\"b\"}}}";
+        private static final String TOOLS_CALL_RESPONSE =
+            "{\"jsonrpc\":\"2.0\",\"id\":3,\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"{\\\"foo\\\":\\\"bar\\\"}\"}],\"error\":false}}";
+
+        @Mock
+        private HttpInvoker invoker;
+
+        private MCPHandler handlerWithRevalidation;
+
+        @BeforeEach
+        void setUp() throws JsonProcessingException {
+            when(request.chunks()).thenReturn(Flowable.just(Buffer.buffer(TOOLS_CALL_REQUEST)));
+            lenient().when(invoker.invoke(any())).thenReturn(Completable.complete());
+            cutConfiguration.setRevalidationCacheSize(100);
+            handlerWithRevalidation = new MCPHandler(cutConfiguration);
+        }
+
+        @Test
+        void shouldNotForwardConditionalHeadersOfClient() {
+            requestHeaders.set(HttpHeaderNames.IF_NONE_MATCH, "\"client\"");
+
+            handleRequest(ctx);
+            invokeApi(ctx, "plan-1");
+
+            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REVALIDATION_KEY)).isNotNull();
+            assertThat(requestHeaders.get(HttpHeaderNames.IF_NONE_MATCH)).isNull();
+        }
+
+        @Test
+        void shouldServeCachedResultWhenUpstreamAnswersNotModified() {
+            cacheResult(ctx, "plan-1");
+
+            DefaultExecutionContext revalidationCtx = newContext();
+            handleRequest(revalidationCtx);
+            assertThat(requestHeaders.get(HttpHeaderNames.IF_NONE_MATCH)).isNull();
+            invokeApi(revalidationCtx, "plan-1");
+            assertThat(requestHeaders.get(HttpHeaderNames.IF_NONE_MATCH)).isEqualTo("\"v1\"");
+
+            when(response.status()).thenReturn(304);
+            handlerWithRevalidation.handleResponse(revalidationCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((String) revalidationCtx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REVALIDATION_KEY)).isNull();
+            verify(response, times(2)).body(argThat(buffer -> buffer.toString().equals(TOOLS_CALL_RESPONSE)));
+            verify(response, times(1)).body();
+        }
+
+        @Test
+        void shouldNotRevalidateResultCachedForAnotherPlan() {
+            cacheResult(ctx, "plan-1");
+
+            DefaultExecutionContext otherCtx = newContext();
+            handleRequest(otherCtx);
+            invokeApi(otherCtx, "plan-2");
+
+            assertThat(requestHeaders.get(HttpHeaderNames.IF_NONE_MATCH)).isNull();
+        }
+
+        @Test
+        void shouldNotRevalidateResultCachedForOtherCredentials() {
+            requestHeaders.set(HttpHeaderNames.AUTHORIZATION, "Bearer first");
+            cacheResult(ctx, "plan-1");
+
+            requestHeaders.set(HttpHeaderNames.AUTHORIZATION, "Bearer second");
+            DefaultExecutionContext otherCtx = newContext();
+            handleRequest(otherCtx);
+            invokeApi(otherCtx, "plan-1");
+
+            assertThat(requestHeaders.get(HttpHeaderNames.IF_NONE_MATCH)).isNull();
+        }
+
+        @Test
+        void shouldReturnErrorWhenUpstreamAnswersNotModifiedToUnconditionalRequest() {
+            handleRequest(ctx);
+            invokeApi(ctx, "plan-1");
+            when(response.status()).thenReturn(304);
+
+            handlerWithRevalidation.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals(
+                            "{\"jsonrpc\":\"2.0\",\"id\":3,\"error\":{\"code\":-32603,\"message\":\"Internal server error\",\"data\":{\"reason\":\"Error occurred during request handling\"}}}"
+                        )
+                )
+            );
+            verify(response, never()).body();
+        }
+
+        private void cacheResult(DefaultExecutionContext callCtx, String plan) {
+            handleRequest(callCtx);
+            invokeApi(callCtx, plan);
+            when(response.status()).thenReturn(200);
+            when(response.body()).thenReturn(Maybe.just(Buffer.buffer("{\"foo\":\"bar\"}")));
+            responseHeaders.set(HttpHeaderNames.ETAG, "\"v1\"");
+            handlerWithRevalidation.handleResponse(callCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            responseHeaders.remove(HttpHeaderNames.ETAG);
+        }
+
+        private DefaultExecutionContext newContext() {
+            DefaultExecutionContext newCtx = new DefaultExecutionContext(request, response);
+            newCtx.setAttribute(ContextAttributes.ATTR_CONTEXT_PATH, "/contextPath");
+            return newCtx;
+        }
+
+        private void handleRequest(DefaultExecutionContext callCtx) {
+            callCtx.setInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER, invoker);
+            handlerWithRevalidation.handleRequest(callCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+        }
+
+        /**
+         * The security chain identifies the plan after the entrypoint handled the request, right before the API is invoked.
+         */
+        private void invokeApi(DefaultExecutionContext callCtx, String plan) {
+            callCtx.setAttribute(ContextAttributes.ATTR_PLAN, plan);
+            HttpInvoker toolCallInvoker = callCtx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER);
+            toolCallInvoker.invoke(callCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+        }
+    }
+
+    @Nested
+    class Resources {
+
+        private MCPHandler handlerWithResources;
+
+        @BeforeEach
+        void setUp() throws JsonProcessingException {
+            MCPEntrypointConnectorConfiguration configWithResources = new MCPEntrypointConnectorConfiguration();
+            configWithResources.setResources(
+                List.of(MCPResource.builder().uri("docs://catalog").name("catalog").mimeType("application/json").path("/catalog").build())
+            );
+            handlerWithResources = new MCPHandler(configWithResources);
+        }
+
+        @Test
+        void shouldListResources() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "resources/list");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+
+            handlerWithResources.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals(
+                            "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"resources\":[{\"uri\":\"docs://catalog\",\"name\":\"catalog\",\"mimeType\":\"application/json\"}]}}"
+                        )
+                )
+            );
+        }
+
+        @Test
+        void shouldReadResourceFromApiThenFromCache() {
+            String readResponse =
+                "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"contents\":[{\"uri\":\"docs://catalog\",\"mimeType\":\"application/json\",\"text\":\"[1,2]\"}]}}";
+            when(request.chunks()).thenReturn(
+                Flowable.just(
+                    Buffer.buffer("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"resources/read\",\"params\":{\"uri\":\"docs://catalog\"}}")
+                )
+            );
+            when(response.status()).thenReturn(200);
+            when(response.body()).thenReturn(Maybe.just(Buffer.buffer("[1,2]")));
+
+            handlerWithResources.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isFalse();
+            verify(request).method(HttpMethod.GET);
+            verify(request).pathInfo("/catalog");
+            handlerWithResources.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            DefaultExecutionContext cachedCtx = new DefaultExecutionContext(request, response);
+            cachedCtx.setAttribute(ContextAttributes.ATTR_CONTEXT_PATH, "/contextPath");
+            handlerWithResources.handleRequest(cachedCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            assertThat((Boolean) cachedCtx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isTrue();
+            handlerWithResources.handleResponse(cachedCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response, times(2)).body(argThat(buffer -> buffer.toString().equals(readResponse)));
+            verify(response, times(1)).body();
+        }
+
+        @Test
+        void shouldReturnResourceNotFound() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "resources/read");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_RESOURCE_URI, "docs://unknown");
+
+            handlerWithResources.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals(
+                            "{\"jsonrpc\":\"2.0\",\"id\":1,\"error\":{\"code\":-32002,\"message\":\"Resource not found\",\"data\":{\"reason\":\"Resource not found: docs://unknown\"}}}"
+                        )
+                )
+            );
+        }
+    }
+
+    @Nested
+    class Prompts {
+
+        private MCPHandler handlerWithPrompts;
+
+        @BeforeEach
+        void setUp() throws JsonProcessingException {
+            MCPEntrypointConnectorConfiguration configWithPrompts = new MCPEntrypointConnectorConfiguration();
+            configWithPrompts.setPrompts(
+                List.of(
+                    MCPPrompt.builder()
+                        .name("summarize_order")
+                        .description("Summarize an order")
+                        .arguments(
+                            List.of(
+                                MCPPromptArgument.builder().name("orderId").required(true).build(),
+                                MCPPromptArgument.builder().name("tone").build()
+                            )
+                        )
+                        .messages(List.of(MCPPromptMessage.builder().text("Summarize order {{orderId}} in a {{ tone }} tone.").build()))
+                        .build()
+                )
+            );
+            handlerWithPrompts = new MCPHandler(configWithPrompts);
+        }
+
+        @Test
+        void shouldListPrompts() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "prompts/list");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+
+            handlerWithPrompts.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals(
+                            "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"prompts\":[{\"name\":\"summarize_order\",\"description\":\"Summarize an order\",\"arguments\":[{\"name\":\"orderId\",\"required\":true},{\"name\":\"tone\",\"required\":false}]}]}}"
+                        )
+                )
+            );
+        }
+
+        @Test
+        void shouldRenderPromptWithArguments() {
+            when(request.chunks()).thenReturn(
+                Flowable.just(
+                    Buffer.buffer(
+                        "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"prompts/get\",\"params\":{\"name\":\"summarize_order\",\"arguments\":{\"orderId\":\"42\",\"tone\":\"formal\"}}}"
+                    )
+                )
+            );
+
+            handlerWithPrompts.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isTrue();
+            handlerWithPrompts.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals(
+                            "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"description\":\"Summarize an order\",\"messages\":[{\"role\":\"user\",\"content\":{\"type\":\"text\",\"text\":\"Summarize order 42 in a formal tone.\"}}]}}"
+                        )
+                )
+            );
+        }
+
+        @Test
+        void shouldRejectPromptWithoutRequiredArgument() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "prompts/get");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_PROMPT_NAME, "summarize_order");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_PROMPT_ARGUMENTS, Map.of("tone", "formal"));
+
+            handlerWithPrompts.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(
+                argThat(buffer -> buffer.toString().contains("\"code\":-32602") && buffer.toString().contains("Missing required argument: orderId"))
+            );
+        }
+    }
+
+    @Nested
+    class Completions {
+
+        @Mock
+        private UpstreamClient upstreamClient;
+
+        private MCPEntrypointConnectorConfiguration configWithCompletions;
+        private MCPHandler handlerWithCompletions;
+
+        @BeforeEach
+        void setUp() throws JsonProcessingException {
+            configWithCompletions = new MCPEntrypointConnectorConfiguration();
+            configWithCompletions.setTools(
+                List.of(
+                    MCPTool.builder()
+                        .toolDefinition(
+                            MCPToolDefinition.builder()
+                                .name("ListOrders")
+                                .inputSchema(
+                                    mapper.readTree(
+                                        "{\"type\":\"object\",\"properties\":{\"status\":{\"type\":\"string\",\"enum\":[\"shipped\",\"pending\",\"paid\"]},\"customer\":{\"type\":\"string\"}}}"
+                                    )
+                                )
+                                .build()
+                        )
+                        .argumentCompletions(
+                            List.of(MCPToolArgumentCompletion.builder().argument("customer").path("/contextPath/customers/names").build())
+                        )
+                        .build()
+                )
+            );
+            handlerWithCompletions = new MCPHandler(configWithCompletions, c -> upstreamClient);
+        }
+
+        @Test
+        void shouldCompleteArgumentFromInputSchema() {
+            when(request.chunks()).thenReturn(
+                Flowable.just(
+                    Buffer.buffer(
+                        "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"completion/complete\",\"params\":{\"ref\":{\"type\":\"ref/tool\",\"name\":\"ListOrders\"},\"argument\":{\"name\":\"status\",\"value\":\"P\"}}}"
+                    )
+                )
+            );
+
+            handlerWithCompletions.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            handlerWithCompletions.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"completion\":{\"values\":[\"paid\",\"pending\"],\"total\":2,\"hasMore\":false}}}")
+                )
+            );
+            verify(upstreamClient, never()).send(any());
+        }
+
+        @Test
+        void shouldCompleteArgumentFromApiThenFromCache() {
+            Endpoint endpoint = new Endpoint();
+            endpoint.setConfiguration("{\"target\":\"http://backend/\"}");
+            EndpointGroup endpointGroup = new EndpointGroup();
+            endpointGroup.setEndpoints(List.of(endpoint));
+            Api api = new Api(io.gravitee.definition.model.v4.Api.builder().name("ExampleApi").endpointGroups(List.of(endpointGroup)).build());
+            CustomComponentProvider customComponentProvider = new CustomComponentProvider();
+            customComponentProvider.add(Api.class, api);
+            ctx.componentProvider(customComponentProvider);
+            when(upstreamClient.send(any())).thenReturn(
+                Single.just(new UpstreamResponse(200, "application/json", Buffer.buffer("[\"Jane Doe\",\"Janet Smith\"]")))
+            );
+            String completeResponse =
+                "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"completion\":{\"values\":[\"Jane Doe\",\"Janet Smith\"],\"total\":2,\"hasMore\":false}}}";
+
+            for (int i = 0; i < 2; i++) {
+                ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "completion/complete");
+                ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+                ctx.setInternalAttribute(
+                    MCPHandler.ATTR_INTERNAL_MCP_COMPLETION,
+                    new CompletionRequest("ref/tool", "ListOrders", "customer", "Jan e")
+                );
+                handlerWithCompletions.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            }
+
+            verify(response, times(2)).body(argThat(buffer -> buffer.toString().equals(completeResponse)));
+            ArgumentCaptor<UpstreamRequest> requestCaptor = ArgumentCaptor.forClass(UpstreamRequest.class);
+            verify(upstreamClient, times(1)).send(requestCaptor.capture());
+            assertThat(requestCaptor.getValue().uri()).isEqualTo("http://backend/customers/names?value=Jan%20e");
+        }
+
+        @Test
+        void shouldCompleteNothingWhenApiDoesNotAnswerJsonArray() {
+            givenBackend();
+            when(upstreamClient.send(any())).thenReturn(
+                Single.just(new UpstreamResponse(200, "application/json", Buffer.buffer("{\"names\":[\"Jane Doe\"]}")))
+            );
+
+            completeCustomer();
+
+            verify(response).body(argThat(buffer -> buffer.toString().contains("\"completion\":{\"values\":[],\"total\":0")));
+        }
+
+        @Test
+        void shouldCompleteNothingWhenApiDoesNotAnswerInTime() {
+            givenBackend();
+            when(upstreamClient.send(any())).thenReturn(Single.never());
+            configWithCompletions.setUpstreamTimeout(50);
+
+            completeCustomer();
+
+            verify(response).body(argThat(buffer -> buffer.toString().contains("\"completion\":{\"values\":[],\"total\":0")));
+        }
+
+        private void givenBackend() {
+            Endpoint endpoint = new Endpoint();
+            endpoint.setConfiguration("{\"target\":\"http://backend/\"}");
+            EndpointGroup endpointGroup = new EndpointGroup();
+            endpointGroup.setEndpoints(List.of(endpoint));
+            Api api = new Api(io.gravitee.definition.model.v4.Api.builder().name("ExampleApi").endpointGroups(List.of(endpointGroup)).build());
+            CustomComponentProvider customComponentProvider = new CustomComponentProvider();
+            customComponentProvider.add(Api.class, api);
+            ctx.componentProvider(customComponentProvider);
+        }
+
+        private void completeCustomer() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "completion/complete");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(
+                MCPHandler.ATTR_INTERNAL_MCP_COMPLETION,
+                new CompletionRequest("ref/tool", "ListOrders", "customer", "Jan")
             );
+            handlerWithCompletions.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
         }
 
         @Test
-        void shouldHandleToolsCallResponseWithoutOutputSchema() {
-            // Tool does not have outputSchema, so response should NOT be wrapped in bodySchema
-            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
-            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/call");
-            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, 1);
-            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME, "ToolName");
+        void shouldRejectCompletionOfUnknownTool() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "completion/complete");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_COMPLETION, new CompletionRequest("ref/tool", "Unknown", "status", ""));
 
-            when(response.body()).thenReturn(Maybe.just(Buffer.buffer("{\"foo\":\"bar\"}")));
+            handlerWithCompletions.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
 
-            cut.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            verify(response).body(argThat(buffer -> buffer.toString().contains("\"code\":-32602")));
+        }
+    }
 
-            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID)).isNull();
-            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isNull();
-            assertThat((Integer) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
-            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME)).isNull();
+    @Nested
+    class ToolSearch {
 
-            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON);
-            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("104");
-            verify(response).status(200);
-            verify(response).body(
-                argThat(buffer ->
-                    buffer
-                        .toString()
-                        .equals(
-                            "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"{\\\"foo\\\":\\\"bar\\\"}\"}],\"error\":false}}"
-                        )
+        private MCPHandler handlerWithToolSearch;
+
+        @BeforeEach
+        void setUp() throws JsonProcessingException {
+            MCPEntrypointConnectorConfiguration configWithToolSearch = new MCPEntrypointConnectorConfiguration();
+            configWithToolSearch.setTools(
+                List.of(
+                    searchableTool("getCustomerOrders", "List the orders of a customer", "{\"properties\":{\"customerId\":{}}}"),
+                    searchableTool("getInvoice", "Get an invoice", "{\"properties\":{\"invoiceId\":{}}}"),
+                    searchableTool("createOrder", "Create an order", "{}")
                 )
             );
+            configWithToolSearch.setToolSearchEnabled(true);
+            configWithToolSearch.setPinnedTools(List.of("getInvoice"));
+            handlerWithToolSearch = new MCPHandler(configWithToolSearch);
         }
 
         @Test
-        void shouldHandleToolsCallResponseWithOutputSchema() throws JsonProcessingException {
-            // Create a new handler with a tool that has outputSchema
-            List<MCPTool> toolsWithOutputSchema = List.of(
-                MCPTool.builder()
-                    .toolDefinition(
-                        MCPToolDefinition.builder()
-                            .name("ToolWithOutputSchema")
-                            .description("Tool with output schema")
-                            .inputSchema(mapper.readTree("{}"))
-                            .outputSchema(mapper.readTree("{\"type\":\"object\"}"))
-                            .build()
+        void shouldListPinnedToolsAndSearchTool() throws IOException {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/list");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+
+            handlerWithToolSearch.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            ArgumentCaptor<Buffer> bodyCaptor = ArgumentCaptor.forClass(Buffer.class);
+            verify(response).body(bodyCaptor.capture());
+            JsonNode listedTools = mapper.readTree(bodyCaptor.getValue().getBytes()).at("/result/tools");
+            assertThat(listedTools).hasSize(2);
+            assertThat(listedTools.get(0).get("name").asText()).isEqualTo("getInvoice");
+            assertThat(listedTools.get(1).get("name").asText()).isEqualTo(MCPHandler.SEARCH_TOOL_NAME);
+        }
+
+        @Test
+        void shouldReturnBestMatchingToolsWithoutInvokingApi() throws IOException {
+            when(request.chunks()).thenReturn(
+                Flowable.just(
+                    Buffer.buffer(
+                        "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/call\",\"params\":{\"name\":\"search_tools\",\"arguments\":{\"query\":\"customer order\",\"limit\":2}}}"
                     )
-                    .gatewayMapping(
-                        MCPGatewayMapping.builder()
-                            .http(
-                                MCPGatewayMappingHttp.builder()
-                                    .method("GET")
-                                    .path("/test")
-                                    .contentType("application/json")
-                                    .headers(List.of())
-                                    .pathParams(List.of())
-                                    .queryParams(List.of())
-                                    .build()
-                            )
-                            .build()
+                )
+            );
+
+            handlerWithToolSearch.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isTrue();
+            handlerWithToolSearch.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            ArgumentCaptor<Buffer> bodyCaptor = ArgumentCaptor.forClass(Buffer.class);
+            verify(response).body(bodyCaptor.capture());
+            JsonNode foundTools = mapper.readTree(bodyCaptor.getValue().getBytes()).at("/result/structuredContent/tools");
+            assertThat(foundTools).hasSize(2);
+            assertThat(foundTools.get(0).get("name").asText()).isEqualTo("getCustomerOrders");
+            assertThat(foundTools.get(1).get("name").asText()).isEqualTo("createOrder");
+            verify(request, never()).pathInfo(any());
+        }
+
+        private MCPTool searchableTool(String name, String description, String inputSchema) throws JsonProcessingException {
+            return MCPTool.builder()
+                .toolDefinition(MCPToolDefinition.builder().name(name).description(description).inputSchema(mapper.readTree(inputSchema)).build())
+                .gatewayMapping(
+                    MCPGatewayMapping.builder().http(MCPGatewayMappingHttp.builder().method("GET").path("/" + name).build()).build()
+                )
+                .build();
+        }
+    }
+
+    @Nested
+    class PlanVisibility {
+
+        @Mock
+        private HttpInvoker invoker;
+
+        private MCPHandler handlerWithVisibility;
+
+        @BeforeEach
+        void setUp() throws JsonProcessingException {
+            MCPEntrypointConnectorConfiguration configWithVisibility = new MCPEntrypointConnectorConfiguration();
+            configWithVisibility.setTools(
+                List.of(
+                    visibleTool("getOrder", true, List.of()),
+                    visibleTool("deleteOrder", false, List.of()),
+                    visibleTool("refundOrder", false, List.of("plan-premium"))
+                )
+            );
+            configWithVisibility.setReadOnlyPlans(List.of("plan-read"));
+            handlerWithVisibility = new MCPHandler(configWithVisibility);
+        }
+
+        @ParameterizedTest
+        @CsvSource({ "plan-read,getOrder", "plan-basic,getOrder deleteOrder", "plan-premium,getOrder deleteOrder refundOrder" })
+        void shouldListToolsVisibleToPlan(String plan, String visibleTools) throws IOException {
+            ctx.setAttribute(ContextAttributes.ATTR_PLAN, plan);
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/list");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+
+            handlerWithVisibility.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            ArgumentCaptor<Buffer> bodyCaptor = ArgumentCaptor.forClass(Buffer.class);
+            verify(response).body(bodyCaptor.capture());
+            List<String> listedTools = new ArrayList<>();
+            mapper
+                .readTree(bodyCaptor.getValue().getBytes())
+                .at("/result/tools")
+                .forEach(tool -> listedTools.add(tool.get("name").asText()));
+            assertThat(listedTools).containsExactly(visibleTools.split(" "));
+        }
+
+        @Test
+        void shouldListNoToolWhenPlanIsUnknown() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/list");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+
+            handlerWithVisibility.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(argThat(buffer -> buffer.toString().contains("\"tools\":[]")));
+        }
+
+        @Test
+        void shouldRejectCallOfHiddenToolBeforeInvokingApi() {
+            callTool("deleteOrder");
+            // The security chain identifies the plan after the entrypoint handled the request
+            ctx.setAttribute(ContextAttributes.ATTR_PLAN, "plan-read");
+            HttpInvoker toolCallInvoker = ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER);
+            toolCallInvoker.invoke(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            handlerWithVisibility.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(invoker, never()).invoke(any());
+            verify(response).body(
+                argThat(buffer -> buffer.toString().contains("\"code\":-32602") && buffer.toString().contains("Unknown tool: deleteOrder"))
+            );
+        }
+
+        @Test
+        void shouldInvokeApiForToolVisibleToPlan() {
+            when(invoker.invoke(any())).thenReturn(Completable.complete());
+            callTool("deleteOrder");
+            ctx.setAttribute(ContextAttributes.ATTR_PLAN, "plan-basic");
+            HttpInvoker toolCallInvoker = ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER);
+            toolCallInvoker.invoke(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(invoker).invoke(ctx);
+            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_ERROR_INVALID_PARAMS)).isNull();
+        }
+
+        @Test
+        void shouldRejectCallOfHiddenToolWhenPlanIsUnknown() {
+            callTool("deleteOrder");
+            HttpInvoker toolCallInvoker = ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER);
+            toolCallInvoker.invoke(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(invoker, never()).invoke(any());
+            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_ERROR_INVALID_PARAMS)).isEqualTo(
+                "Unknown tool: deleteOrder"
+            );
+        }
+
+        private void callTool(String name) {
+            when(request.chunks()).thenReturn(
+                Flowable.just(
+                    Buffer.buffer(
+                        "{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/call\",\"params\":{\"name\":\"" + name + "\",\"arguments\":{}}}"
                     )
-                    .build()
+                )
+            );
+            ctx.setInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER, invoker);
+            handlerWithVisibility.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+        }
+
+        private MCPTool visibleTool(String name, boolean readOnly, List<String> plans) throws JsonProcessingException {
+            return MCPTool.builder()
+                .toolDefinition(
+                    MCPToolDefinition.builder()
+                        .name(name)
+                        .inputSchema(mapper.readTree("{}"))
+                        .annotations(MCPToolAnnotations.builder().readOnlyHint(readOnly).build())
+                        .build()
+                )
+                .gatewayMapping(
+                    MCPGatewayMapping.builder().http(MCPGatewayMappingHttp.builder().method("GET").path("/" + name).build()).build()
+                )
+                .plans(plans)
+                .build();
+        }
+    }
+
+    @Nested
+    class ResourceSubscriptions {
+
+        @Mock
+        private UpstreamClient upstreamClient;
+
+        private MCPEntrypointConnectorConfiguration configWithSubscriptions;
+        private MCPHandler handlerWithSubscriptions;
+
+        @BeforeEach
+        void setUp() throws JsonProcessingException {
+            configWithSubscriptions = new MCPEntrypointConnectorConfiguration();
+            configWithSubscriptions.setResources(
+                List.of(MCPResource.builder().uri("docs://catalog").name("catalog").mimeType("application/json").path("/catalog").build())
+            );
+            configWithSubscriptions.setResourceSubscriptionInterval(50);
+            handlerWithSubscriptions = new MCPHandler(configWithSubscriptions, c -> upstreamClient);
+
+            Endpoint endpoint = new Endpoint();
+            endpoint.setConfiguration("{\"target\":\"http://backend/\"}");
+            EndpointGroup endpointGroup = new EndpointGroup();
+            endpointGroup.setEndpoints(List.of(endpoint));
+            Api api = new Api(io.gravitee.definition.model.v4.Api.builder().name("ExampleApi").endpointGroups(List.of(endpointGroup)).build());
+            CustomComponentProvider customComponentProvider = new CustomComponentProvider();
+            customComponentProvider.add(Api.class, api);
+            ctx.componentProvider(customComponentProvider);
+        }
+
+        @AfterEach
+        void tearDown() {
+            handlerWithSubscriptions.close();
+        }
+
+        @Test
+        void shouldNotifySessionWhenSubscribedResourceChanges() {
+            AtomicInteger polls = new AtomicInteger();
+            when(upstreamClient.send(any())).thenAnswer(invocation ->
+                switch (polls.incrementAndGet()) {
+                    case 1 -> Single.just(new UpstreamResponse(200, "application/json", "\"v1\"", Buffer.buffer("[1]")));
+                    case 2 -> Single.just(new UpstreamResponse(200, "application/json", "\"v2\"", Buffer.buffer("[1,2]")));
+                    default -> Single.just(new UpstreamResponse(304, null, "\"v2\"", Buffer.buffer()));
+                }
             );
-            MCPEntrypointConnectorConfiguration configWithOutputSchema = new MCPEntrypointConnectorConfiguration();
-            configWithOutputSchema.setTools(toolsWithOutputSchema);
-            MCPHandler handlerWithOutputSchema = new MCPHandler(configWithOutputSchema);
 
             ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
-            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "tools/call");
-            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, 1);
-            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME, "ToolWithOutputSchema");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "resources/subscribe");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_RESOURCE_URI, "docs://catalog");
+            handlerWithSubscriptions.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            verify(response).body(argThat(buffer -> buffer.toString().equals("{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{}}")));
+
+            DefaultExecutionContext streamCtx = new DefaultExecutionContext(request, response);
+            streamCtx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            streamCtx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_STREAM, Boolean.TRUE);
+            handlerWithSubscriptions.handleResponse(streamCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            ArgumentCaptor<Flowable<Buffer>> chunksCaptor = ArgumentCaptor.forClass(Flowable.class);
+            verify(response).chunks(chunksCaptor.capture());
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.TEXT_EVENT_STREAM);
+            chunksCaptor
+                .getValue()
+                .take(1)
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertValue(
+                    buffer -> buffer.toString().contains("notifications/resources/updated") && buffer.toString().contains("docs://catalog")
+                );
 
-            when(response.body()).thenReturn(Maybe.just(Buffer.buffer("{\"foo\":\"bar\"}")));
+            ArgumentCaptor<UpstreamRequest> requestCaptor = ArgumentCaptor.forClass(UpstreamRequest.class);
+            verify(upstreamClient, atLeast(2)).send(requestCaptor.capture());
+            assertThat(requestCaptor.getAllValues().get(0).uri()).isEqualTo("http://backend/catalog");
+            assertThat(requestCaptor.getAllValues().get(0).headers()).doesNotContainKey(HttpHeaderNames.IF_NONE_MATCH);
+            assertThat(requestCaptor.getAllValues().get(1).headers()).containsEntry(HttpHeaderNames.IF_NONE_MATCH, "\"v1\"");
+        }
 
-            handlerWithOutputSchema.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+        @Test
+        void shouldDeliverUpdatesPublishedBeforeStreamOpens() {
+            AtomicInteger polls = new AtomicInteger();
+            when(upstreamClient.send(any())).thenAnswer(invocation ->
+                polls.incrementAndGet() == 1
+                    ? Single.just(new UpstreamResponse(200, "application/json", "\"v1\"", Buffer.buffer("[1]")))
+                    : Single.just(new UpstreamResponse(200, "application/json", "\"v2\"", Buffer.buffer("[1,2]")))
+            );
+            subscribe(handlerWithSubscriptions);
+            awaitPolls(polls, 3);
+
+            DefaultExecutionContext streamCtx = new DefaultExecutionContext(request, response);
+            streamCtx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            streamCtx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_STREAM, Boolean.TRUE);
+            handlerWithSubscriptions.handleResponse(streamCtx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            ArgumentCaptor<Flowable<Buffer>> chunksCaptor = ArgumentCaptor.forClass(Flowable.class);
+            verify(response).chunks(chunksCaptor.capture());
+            chunksCaptor
+                .getValue()
+                .take(1)
+                .test()
+                .awaitDone(1, TimeUnit.SECONDS)
+                .assertValue(buffer -> buffer.toString().contains("notifications/resources/updated"));
+        }
 
-            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_TOOL_NAME)).isNull();
+        @Test
+        void shouldUnsubscribeSessionNotOpeningItsStream() {
+            configWithSubscriptions.setResourceSubscriptionStreamTimeout(100);
+            MCPHandler handlerWithStreamTimeout = new MCPHandler(configWithSubscriptions, c -> upstreamClient);
+            AtomicInteger polls = new AtomicInteger();
+            when(upstreamClient.send(any())).thenAnswer(invocation -> {
+                polls.incrementAndGet();
+                return Single.just(new UpstreamResponse(304, null, "\"v1\"", Buffer.buffer()));
+            });
+            subscribe(handlerWithStreamTimeout);
+            awaitPolls(polls, 1);
+
+            assertNoMorePolls(polls);
+        }
+
+        @Test
+        void shouldStopPollingWhenClosed() {
+            AtomicInteger polls = new AtomicInteger();
+            when(upstreamClient.send(any())).thenAnswer(invocation -> {
+                polls.incrementAndGet();
+                return Single.just(new UpstreamResponse(304, null, "\"v1\"", Buffer.buffer()));
+            });
+            subscribe(handlerWithSubscriptions);
+            awaitPolls(polls, 1);
+
+            handlerWithSubscriptions.close();
+
+            assertNoMorePolls(polls);
+        }
+
+        private void subscribe(MCPHandler handler) {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "resources/subscribe");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_RESOURCE_URI, "docs://catalog");
+            handler.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+        }
+
+        private void awaitPolls(AtomicInteger polls, int count) {
+            Flowable.interval(10, TimeUnit.MILLISECONDS)
+                .filter(tick -> polls.get() >= count)
+                .firstElement()
+                .timeout(5, TimeUnit.SECONDS)
+                .blockingGet();
+        }
+
+        private void assertNoMorePolls(AtomicInteger polls) {
+            // Lets an in-flight poll end before counting
+            Completable.timer(300, TimeUnit.MILLISECONDS).blockingAwait();
+            int count = polls.get();
+            Completable.timer(300, TimeUnit.MILLISECONDS).blockingAwait();
+            assertThat(polls.get()).isEqualTo(count);
+        }
+
+        @Test
+        void shouldNotSubscribeToUnknownResource() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "resources/subscribe");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_RESOURCE_URI, "docs://unknown");
+
+            handlerWithSubscriptions.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(argThat(buffer -> buffer.toString().contains("\"code\":-32002")));
+            verify(upstreamClient, never()).send(any());
+        }
+
+        @Test
+        void shouldAdvertiseResourceSubscriptions() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID, "123-456-789");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "initialize");
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
+
+            handlerWithSubscriptions.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(argThat(buffer -> buffer.toString().contains("\"resources\":{\"subscribe\":true}")));
+        }
+    }
+
+    @Nested
+    class RequestTooLarge {
+
+        private MCPHandler handlerWithLimit;
+
+        @BeforeEach
+        void setUp() throws JsonProcessingException {
+            MCPEntrypointConnectorConfiguration configWithLimit = new MCPEntrypointConnectorConfiguration();
+            configWithLimit.setMaxRequestSize(64);
+            handlerWithLimit = new MCPHandler(configWithLimit);
+        }
+
+        @Test
+        void shouldRejectRequestWithTooLargeContentLength() {
+            requestHeaders.set(HttpHeaderNames.CONTENT_LENGTH, "65");
+
+            handlerWithLimit.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((Boolean) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_ERROR_REQUEST_TOO_LARGE)).isTrue();
+            assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isTrue();
+            verify(request, never()).chunks();
+        }
+
+        @Test
+        void shouldStopReadingChunksOnceRequestIsTooLarge() {
+            AtomicInteger emittedChunks = new AtomicInteger();
+            when(request.chunks()).thenReturn(
+                Flowable.range(0, 100)
+                    .map(i -> Buffer.buffer("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"tools/list\"}"))
+                    .doOnNext(chunk -> emittedChunks.incrementAndGet())
+            );
+
+            handlerWithLimit.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((Boolean) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_ERROR_REQUEST_TOO_LARGE)).isTrue();
+            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isNull();
+            assertThat(emittedChunks.get()).isEqualTo(2);
+        }
+
+        @Test
+        void shouldAcceptRequestWithinLimit() {
+            when(request.chunks()).thenReturn(
+                Flowable.just(Buffer.buffer("{\"jsonrpc\":\"2.0\","), Buffer.buffer("\"id\":1,\"method\":\"tools/list\"}"))
+            );
+
+            handlerWithLimit.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            assertThat((Boolean) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_ERROR_REQUEST_TOO_LARGE)).isNull();
+            assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isEqualTo("tools/list");
+        }
+
+        @Test
+        void shouldReturnRequestTooLargeError() {
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_ERROR_REQUEST_TOO_LARGE, Boolean.TRUE);
+
+            handlerWithLimit.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
 
-            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON);
-            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("170");
             verify(response).status(200);
             verify(response).body(
                 argThat(buffer ->
                     buffer
                         .toString()
                         .equals(
-                            "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":{\"content\":[{\"type\":\"text\",\"text\":\"{\\\"bodySchema\\\":{\\\"foo\\\":\\\"bar\\\"}}\"}],\"structuredContent\":{\"bodySchema\":{\"foo\":\"bar\"}},\"error\":false}}"
+                            "{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32600,\"message\":\"Invalid request\",\"data\":{\"reason\":\"Request body exceeds the maximum size of 64 bytes\"}}}"
                         )
                 )
             );
@@ -464,13 +2639,13 @@ class MCPHandlerTest {
 
         @Test
         void shouldPrepareParseErrorWithWrongJson() {
-            when(request.body()).thenReturn(Maybe.just(Buffer.buffer("Not a valid json")));
+            when(request.chunks()).thenReturn(Flowable.just(Buffer.buffer("Not a valid json")));
             cut.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
             assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isTrue();
 
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID)).isEqualTo("123-456-789");
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isNull();
-            assertThat((Integer) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
+            assertThat((JsonRPCId) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
             assertThat((Boolean) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_ERROR_PARSE_ERROR)).isTrue();
 
             verify(request, never()).method(any());
@@ -486,17 +2661,17 @@ class MCPHandlerTest {
 
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID)).isNull();
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isNull();
-            assertThat((Integer) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
+            assertThat((JsonRPCId) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
 
             assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON);
-            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("116");
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("118");
             verify(response).status(200);
             verify(response).body(
                 argThat(buffer ->
                     buffer
                         .toString()
                         .equals(
-                            "{\"jsonrpc\":\"2.0\",\"id\":-1,\"error\":{\"code\":-32700,\"message\":\"Parse error\",\"data\":{\"reason\":\"Json body is not valid\"}}}"
+                            "{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32700,\"message\":\"Parse error\",\"data\":{\"reason\":\"Json body is not valid\"}}}"
                         )
                 )
             );
@@ -508,8 +2683,8 @@ class MCPHandlerTest {
 
         @Test
         void shouldPrepareInvalidRequest() {
-            when(request.body()).thenReturn(
-                Maybe.just(
+            when(request.chunks()).thenReturn(
+                Flowable.just(
                     Buffer.buffer(
                         """
                         {
@@ -524,7 +2699,7 @@ class MCPHandlerTest {
 
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID)).isEqualTo("123-456-789");
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isNull();
-            assertThat((Integer) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
+            assertThat((JsonRPCId) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
             assertThat((Boolean) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_ERROR_INVALID_REQUEST)).isTrue();
 
             verify(request, never()).method(any());
@@ -540,21 +2715,76 @@ class MCPHandlerTest {
 
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID)).isNull();
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isNull();
-            assertThat((Integer) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
+            assertThat((JsonRPCId) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
 
             assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON);
-            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("125");
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("127");
             verify(response).status(200);
             verify(response).body(
                 argThat(buffer ->
                     buffer
                         .toString()
                         .equals(
-                            "{\"jsonrpc\":\"2.0\",\"id\":-1,\"error\":{\"code\":-32600,\"message\":\"Invalid request\",\"data\":{\"reason\":\"Json is not a valid request\"}}}"
+                            "{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32600,\"message\":\"Invalid request\",\"data\":{\"reason\":\"Json is not a valid request\"}}}"
+                        )
+                )
+            );
+        }
+    }
+
+    @Nested
+    class RequestId {
+
+        @Test
+        void shouldWriteBackStringId() {
+            when(request.chunks()).thenReturn(Flowable.just(Buffer.buffer("{\"jsonrpc\":\"2.0\",\"id\":\"req-42\",\"method\":\"foobar\"}")));
+
+            cut.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            cut.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(
+                argThat(buffer ->
+                    buffer
+                        .toString()
+                        .equals(
+                            "{\"jsonrpc\":\"2.0\",\"id\":\"req-42\",\"error\":{\"code\":-32601,\"message\":\"Method not found\",\"data\":{\"reason\":\"Method not found: foobar\"}}}"
                         )
                 )
             );
         }
+
+        @Test
+        void shouldWriteBackIdLargerThanInteger() {
+            when(request.chunks()).thenReturn(
+                Flowable.just(Buffer.buffer("{\"jsonrpc\":\"2.0\",\"id\":9007199254740993,\"method\":\"tools/list\"}"))
+            );
+
+            cut.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            cut.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(argThat(buffer -> buffer.toString().startsWith("{\"jsonrpc\":\"2.0\",\"id\":9007199254740993,\"result\":")));
+        }
+
+        @Test
+        void shouldRejectIdWhichIsNeitherStringNorNumber() {
+            when(request.chunks()).thenReturn(Flowable.just(Buffer.buffer("{\"jsonrpc\":\"2.0\",\"id\":{\"foo\":1},\"method\":\"tools/list\"}")));
+
+            cut.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            assertThat((Boolean) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_ERROR_INVALID_REQUEST)).isTrue();
+            cut.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(argThat(buffer -> buffer.toString().startsWith("{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32600")));
+        }
+
+        @Test
+        void shouldWriteBackIdOfInvalidRequest() {
+            when(request.chunks()).thenReturn(Flowable.just(Buffer.buffer("{\"id\":\"req-42\",\"method\":\"tools/list\"}")));
+
+            cut.handleRequest(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+            cut.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
+
+            verify(response).body(argThat(buffer -> buffer.toString().startsWith("{\"jsonrpc\":\"2.0\",\"id\":\"req-42\",\"error\":{\"code\":-32600")));
+        }
     }
 
     @Nested
@@ -563,13 +2793,13 @@ class MCPHandlerTest {
         @Test
         void shouldReturnMethodNotFound() {
             ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD, "foobar");
-            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, 1);
+            ctx.setInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID, JsonRPCId.of(1));
 
             cut.handleResponse(ctx).test().awaitDone(5, TimeUnit.SECONDS).assertComplete();
 
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID)).isNull();
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isNull();
-            assertThat((Integer) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
+            assertThat((JsonRPCId) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
 
             assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON);
             assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("122");
@@ -597,17 +2827,17 @@ class MCPHandlerTest {
 
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID)).isNull();
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isNull();
-            assertThat((Integer) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
+            assertThat((JsonRPCId) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
 
             assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON);
-            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("142");
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("144");
             verify(response).status(200);
             verify(response).body(
                 argThat(buffer ->
                     buffer
                         .toString()
                         .equals(
-                            "{\"jsonrpc\":\"2.0\",\"id\":-1,\"error\":{\"code\":-32603,\"message\":\"Internal server error\",\"data\":{\"reason\":\"Error occurred during request handling\"}}}"
+                            "{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32603,\"message\":\"Internal server error\",\"data\":{\"reason\":\"Error occurred during request handling\"}}}"
                         )
                 )
             );
@@ -624,17 +2854,17 @@ class MCPHandlerTest {
 
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_SESSION_ID)).isNull();
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isNull();
-            assertThat((Integer) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
+            assertThat((JsonRPCId) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
 
             assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_JSON);
-            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("142");
+            assertThat(responseHeaders.get(HttpHeaderNames.CONTENT_LENGTH)).isEqualTo("144");
             verify(response).status(200);
             verify(response).body(
                 argThat(buffer ->
                     buffer
                         .toString()
                         .equals(
-                            "{\"jsonrpc\":\"2.0\",\"id\":-1,\"error\":{\"code\":-32603,\"message\":\"Internal server error\",\"data\":{\"reason\":\"Error occurred during request handling\"}}}"
+                            "{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32603,\"message\":\"Internal server error\",\"data\":{\"reason\":\"Error occurred during request handling\"}}}"
                         )
                 )
             );
@@ -649,8 +2879,8 @@ class MCPHandlerTest {
 
         @Test
         void shouldHandleNotificationWithoutIdField() {
-            when(request.body()).thenReturn(
-                Maybe.just(
+            when(request.chunks()).thenReturn(
+                Flowable.just(
                     Buffer.buffer(
                         """
                         {
@@ -666,14 +2896,14 @@ class MCPHandlerTest {
             assertThat((Boolean) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_ERROR_INVALID_REQUEST)).isNull();
             assertThat((Boolean) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_IS_NOTIFICATION)).isTrue();
             assertThat((String) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_METHOD)).isEqualTo("notifications/initialized");
-            assertThat((Integer) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
+            assertThat((JsonRPCId) ctx.getInternalAttribute(MCPHandler.ATTR_INTERNAL_MCP_REQUEST_ID)).isNull();
             assertThat((Boolean) ctx.getInternalAttribute(InternalContextAttributes.ATTR_INTERNAL_INVOKER_SKIP)).isTrue();
         }
 
         @Test
         void shouldHandleNotificationCancelledWithoutIdField() {
-            when(request.body()).thenReturn(
-                Maybe.just(
+            when(request.chunks()).thenReturn(
+                Flowable.just(
                     Buffer.buffer(
                         """
                         {
@@ -715,8 +2945,8 @@ class MCPHandlerTest {
 
         @Test
         void shouldStillRequireIdForNonNotificationMethods() {
-            when(request.body()).thenReturn(
-                Maybe.just(
+            when(request.chunks()).thenReturn(
+                Flowable.just(
                     Buffer.buffer(
                         """
                         {